@@ -0,0 +1,98 @@
+package com.redhat.podmortem.ai.benchmarks;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.redhat.podmortem.common.model.analysis.AnalysisResult;
+import java.util.Random;
+
+/**
+ * Generates realistic analysis payloads for benchmarks.
+ *
+ * <p>Payloads are built as JSON and bound through Jackson, the same way the service receives them,
+ * so the benchmarks exercise fully populated model objects.
+ */
+public final class BenchmarkData {
+
+    private static final String[][] PATTERNS = {
+        {"oom-killed", "CRITICAL", "java.lang.OutOfMemoryError: Java heap space"},
+        {"connection-refused", "HIGH", "Connection refused: db-primary.prod.svc:5432"},
+        {"readiness-probe-failed", "MEDIUM", "Readiness probe failed: HTTP probe failed with 503"},
+        {"config-missing", "HIGH", "Missing required property 'quarkus.datasource.jdbc.url'"},
+        {"slow-request", "LOW", "Request to /api/orders took 5123ms"},
+        {"deprecated-api", "INFO", "Use of deprecated API extensions/v1beta1 Ingress"}
+    };
+
+    private BenchmarkData() {}
+
+    /**
+     * Creates an object mapper configured like the service's.
+     *
+     * @return the object mapper
+     */
+    public static ObjectMapper objectMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    /**
+     * Builds the JSON tree of an analysis result.
+     *
+     * @param mapper the object mapper used to create nodes
+     * @param analysisId the analysis identifier
+     * @param eventCount the number of matched events
+     * @param seed the random seed, so payloads are reproducible
+     * @return the analysis result as a JSON object
+     */
+    public static ObjectNode analysisResultJson(
+            ObjectMapper mapper, String analysisId, int eventCount, long seed) {
+        Random random = new Random(seed);
+        ObjectNode result = mapper.createObjectNode();
+        result.put("analysisId", analysisId);
+
+        ArrayNode events = result.putArray("events");
+        for (int i = 0; i < eventCount; i++) {
+            String[] pattern = PATTERNS[random.nextInt(PATTERNS.length)];
+            ObjectNode event = events.addObject();
+            event.put("lineNumber", 100 + i * 7);
+            event.put("score", Math.round(random.nextDouble() * 1000) / 10.0);
+
+            ObjectNode matchedPattern = event.putObject("matchedPattern");
+            matchedPattern.put("id", pattern[0]);
+            matchedPattern.put("name", pattern[0].replace('-', ' '));
+            matchedPattern.put("severity", pattern[1]);
+
+            ObjectNode context = event.putObject("context");
+            context.put(
+                    "matchedLine",
+                    String.format(
+                            "2025-01-0%dT10:1%d:00Z ERROR [app-7d9f8c6b5-x2kqp] %s",
+                            1 + random.nextInt(9), random.nextInt(10), pattern[2]));
+            ArrayNode before = context.putArray("linesBefore");
+            ArrayNode after = context.putArray("linesAfter");
+            for (int line = 0; line < 3; line++) {
+                before.add("INFO  [worker-" + random.nextInt(16) + "] processing request " + i);
+                after.add("DEBUG [worker-" + random.nextInt(16) + "] retry " + line + " of 3");
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Builds an analysis result model object.
+     *
+     * @param eventCount the number of matched events
+     * @return the analysis result
+     */
+    public static AnalysisResult analysisResult(int eventCount) {
+        ObjectMapper mapper = objectMapper();
+        return mapper.convertValue(
+                analysisResultJson(mapper, "bench-" + eventCount, eventCount, 42),
+                AnalysisResult.class);
+    }
+}
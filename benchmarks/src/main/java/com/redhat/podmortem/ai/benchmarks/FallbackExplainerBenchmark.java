@@ -0,0 +1,46 @@
+package com.redhat.podmortem.ai.benchmarks;
+
+import com.redhat.podmortem.ai.service.FallbackExplainer;
+import com.redhat.podmortem.common.model.analysis.AnalysisResult;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the local fallback explainer used when the circuit breaker is open.
+ *
+ * <p>The fallback path must stay well below a millisecond for results with 10k events so that
+ * degraded mode remains cheap under load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FallbackExplainerBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    int eventCount;
+
+    AnalysisResult analysisResult;
+
+    @Setup
+    public void setup() {
+        analysisResult = BenchmarkData.analysisResult(eventCount);
+    }
+
+    @Benchmark
+    public FallbackExplainer.Explanation explain() {
+        return FallbackExplainer.explain(analysisResult);
+    }
+}
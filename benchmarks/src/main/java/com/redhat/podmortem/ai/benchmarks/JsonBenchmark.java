@@ -0,0 +1,88 @@
+package com.redhat.podmortem.ai.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.redhat.podmortem.common.model.analysis.AnalysisRequest;
+import com.redhat.podmortem.common.model.provider.AIResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures JSON serialization and deserialization of the REST payloads. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"10", "1000"})
+    int eventCount;
+
+    ObjectMapper mapper;
+    AnalysisRequest request;
+    byte[] requestJson;
+    AIResponse response;
+    byte[] responseJson;
+
+    @Setup
+    public void setup() throws IOException {
+        mapper = BenchmarkData.objectMapper();
+
+        ObjectNode requestNode = mapper.createObjectNode();
+        requestNode.set(
+                "analysisResult",
+                BenchmarkData.analysisResultJson(mapper, "bench-json", eventCount, 42));
+        requestNode.putObject("providerConfig").put("providerId", "stub").put("modelId", "m");
+        requestJson = mapper.writeValueAsBytes(requestNode);
+        request = mapper.readValue(requestJson, AnalysisRequest.class);
+
+        response = new AIResponse();
+        response.setExplanation("The container exceeded its memory limit. ".repeat(eventCount));
+        response.setProviderId("stub");
+        response.setModelId("m");
+        response.setGeneratedAt(Instant.now());
+        response.setProcessingTime(Duration.ofMillis(1234));
+        response.setConfidence(0.9);
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("analysisId", "bench-json");
+        metadata.put("eventCount", eventCount);
+        response.setMetadata(metadata);
+        responseJson = mapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeRequest() throws IOException {
+        return mapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public AnalysisRequest deserializeRequest() throws IOException {
+        return mapper.readValue(requestJson, AnalysisRequest.class);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws IOException {
+        return mapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public AIResponse deserializeResponse() throws IOException {
+        return mapper.readValue(responseJson, AIResponse.class);
+    }
+}
@@ -0,0 +1,232 @@
+package com.redhat.podmortem.ai.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives {@code /api/v1/analysis/analyze} of a running service at a fixed request rate.
+ *
+ * <p>Requests are sent on a fixed schedule whether or not earlier ones have completed, and each
+ * latency is measured from the time the request was scheduled, so a stalled service shows up in
+ * the percentiles instead of slowing the generator down. A share of the requests given by {@code
+ * unique-ratio} carries a failure nobody has seen before; the others repeat a small set of
+ * failures and may be answered from the cache. Payloads are generated from a fixed seed, so every
+ * run sends the same requests in the same order.
+ *
+ * <p>Run it against a service built with the {@code loadtest} profile, whose stub provider injects
+ * latency and failures:
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.redhat.podmortem.ai.benchmarks.LoadGenerator \
+ *     [base-url] [rps] [duration-s] [unique-ratio] [provider-id]
+ * </pre>
+ *
+ * <p>Reports throughput, latency percentiles, responses by status, the share of pattern-based
+ * fallback responses and, per second, the state of the provider's circuit breaker scraped from
+ * {@code /q/metrics}.
+ */
+public final class LoadGenerator {
+
+    private static final long SEED = 42;
+
+    private static final int REPEATED_FAILURES = 16;
+
+    private static final ObjectMapper MAPPER = BenchmarkData.objectMapper();
+
+    private static final String[] BREAKER_STATES = {"closed", "half-open", "open"};
+
+    private LoadGenerator() {}
+
+    public static void main(String[] args) throws Exception {
+        URI baseUrl = URI.create(args.length > 0 ? args[0] : "http://localhost:8080");
+        int rps = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        double uniqueRatio = args.length > 3 ? Double.parseDouble(args[3]) : 0.8;
+        String providerId = args.length > 4 ? args[4] : "stub";
+
+        int total = rps * durationSeconds;
+        List<byte[]> payloads = payloads(total, uniqueRatio, providerId);
+        Pattern breakerState =
+                Pattern.compile(
+                        "^podmortem_circuitbreaker_state\\{[^}]*provider=\""
+                                + Pattern.quote(providerId)
+                                + "\"[^}]*}\\s+(\\S+)",
+                        Pattern.MULTILINE);
+
+        HttpClient client =
+                HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .build();
+        URI analyzeUrl = baseUrl.resolve("/api/v1/analysis/analyze");
+        URI metricsUrl = baseUrl.resolve("/q/metrics");
+
+        long[] latencies = new long[total];
+        Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+        LongAdder fallbacks = new LongAdder();
+        AtomicInteger completed = new AtomicInteger();
+        List<String> timeline = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<Void>> requests = new ArrayList<>(total);
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long started = System.nanoTime();
+        ScheduledExecutorService scraper = Executors.newSingleThreadScheduledExecutor();
+        // scraped on its own thread so a slow metrics endpoint never delays the schedule
+        scraper.scheduleAtFixedRate(
+                () ->
+                        timeline.add(
+                                scrape(client, metricsUrl, breakerState, started, completed.get())),
+                0,
+                1,
+                TimeUnit.SECONDS);
+        for (int i = 0; i < total; i++) {
+            long scheduled = started + i * intervalNanos;
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            int index = i;
+            HttpRequest request =
+                    HttpRequest.newBuilder(analyzeUrl)
+                            .header("Content-Type", "application/json")
+                            .header("X-Podmortem-Namespace", "loadtest-" + (i % 4))
+                            .timeout(Duration.ofMinutes(5))
+                            .POST(HttpRequest.BodyPublishers.ofByteArray(payloads.get(i)))
+                            .build();
+            requests.add(
+                    client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                            .handle(
+                                    (response, failure) -> {
+                                        latencies[index] = System.nanoTime() - scheduled;
+                                        String status =
+                                                failure != null
+                                                        ? "error"
+                                                        : statusClass(response.statusCode());
+                                        statuses.computeIfAbsent(status, s -> new LongAdder())
+                                                .increment();
+                                        if (failure == null && isFallback(response)) {
+                                            fallbacks.increment();
+                                        }
+                                        completed.incrementAndGet();
+                                        return null;
+                                    }));
+        }
+        CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).join();
+        long elapsed = System.nanoTime() - started;
+        scraper.shutdown();
+        scraper.awaitTermination(5, TimeUnit.SECONDS);
+        timeline.add(scrape(client, metricsUrl, breakerState, started, completed.get()));
+
+        Arrays.sort(latencies);
+        System.out.printf(
+                "target=%d rps duration=%ds requests=%d unique-ratio=%.2f provider=%s%n",
+                rps, durationSeconds, total, uniqueRatio, providerId);
+        System.out.printf(
+                "throughput=%.1f rps p50=%dms p90=%dms p99=%dms max=%dms%n",
+                total / (elapsed / 1e9),
+                percentile(latencies, 0.50),
+                percentile(latencies, 0.90),
+                percentile(latencies, 0.99),
+                TimeUnit.NANOSECONDS.toMillis(latencies[total - 1]));
+        Map<String, Long> byStatus = new TreeMap<>();
+        statuses.forEach((status, count) -> byStatus.put(status, count.sum()));
+        System.out.printf(
+                "statuses=%s fallback-rate=%.3f%n", byStatus, fallbacks.sum() / (double) total);
+        System.out.println("circuit breaker timeline:");
+        timeline.forEach(System.out::println);
+    }
+
+    /** Builds the request bodies, reproducibly from {@link #SEED}. */
+    private static List<byte[]> payloads(int total, double uniqueRatio, String providerId)
+            throws Exception {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<byte[]> payloads = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            boolean unique = random.nextDouble() < uniqueRatio;
+            int failure = unique ? REPEATED_FAILURES + i : random.nextInt(REPEATED_FAILURES);
+            ObjectNode analysisResult =
+                    BenchmarkData.analysisResultJson(MAPPER, "load-" + failure, 10, failure);
+            if (unique) {
+                // a pattern nobody has seen, so neither the cache nor the store can answer it
+                ((ObjectNode) analysisResult.path("events").get(0).path("matchedPattern"))
+                        .put("id", "load-pattern-" + failure);
+            }
+            ObjectNode request = MAPPER.createObjectNode();
+            request.set("analysisResult", analysisResult);
+            ObjectNode providerConfig = request.putObject("providerConfig");
+            providerConfig.put("providerId", providerId);
+            providerConfig.put("modelId", "stub-model");
+            payloads.add(MAPPER.writeValueAsBytes(request));
+        }
+        return payloads;
+    }
+
+    private static String scrape(
+            HttpClient client, URI metricsUrl, Pattern breakerState, long started, int completed) {
+        long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started);
+        String state;
+        try {
+            HttpResponse<String> metrics =
+                    client.send(
+                            HttpRequest.newBuilder(metricsUrl)
+                                    .timeout(Duration.ofSeconds(2))
+                                    .build(),
+                            HttpResponse.BodyHandlers.ofString());
+            Matcher matcher = breakerState.matcher(metrics.body());
+            state =
+                    matcher.find()
+                            ? BREAKER_STATES[(int) Double.parseDouble(matcher.group(1))]
+                            : "unknown";
+        } catch (Exception e) {
+            state = "unavailable";
+        }
+        return String.format("  t=%3ds completed=%d breaker=%s", second, completed, state);
+    }
+
+    private static boolean isFallback(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            return false;
+        }
+        try {
+            JsonNode body = MAPPER.readTree(response.body());
+            return "fallback".equals(body.path("providerId").asText());
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static String statusClass(int status) {
+        return switch (status) {
+            case 429, 503, 504 -> String.valueOf(status);
+            default -> (status / 100) + "xx";
+        };
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, index)]);
+    }
+}
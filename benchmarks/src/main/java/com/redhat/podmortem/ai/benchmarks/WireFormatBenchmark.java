@@ -0,0 +1,97 @@
+package com.redhat.podmortem.ai.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.redhat.podmortem.ai.rest.ContentEncodings;
+import com.redhat.podmortem.common.model.analysis.AnalysisRequest;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the wire formats and content encodings accepted for {@code AnalysisRequest} bodies.
+ *
+ * <p>{@link #parseRequest} measures what the service does with a request body: decode it while
+ * binding it from the stream. {@link #writeRequest} measures what a client does to send one. The
+ * encoded payload size of each combination is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"10", "1000"})
+    int eventCount;
+
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    @Param({ContentEncodings.IDENTITY, ContentEncodings.GZIP, ContentEncodings.ZSTD})
+    String encoding;
+
+    ObjectMapper mapper;
+    ObjectReader reader;
+    AnalysisRequest request;
+    byte[] payload;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper json = BenchmarkData.objectMapper();
+        mapper =
+                switch (format) {
+                    case "cbor" -> json.copyWith(new CBORFactory());
+                    case "smile" -> json.copyWith(new SmileFactory());
+                    default -> json;
+                };
+        reader = mapper.readerFor(AnalysisRequest.class);
+
+        ObjectNode requestNode = json.createObjectNode();
+        requestNode.set(
+                "analysisResult",
+                BenchmarkData.analysisResultJson(json, "bench-wire", eventCount, 42));
+        requestNode.putObject("providerConfig").put("providerId", "stub").put("modelId", "m");
+        request = json.treeToValue(requestNode, AnalysisRequest.class);
+        payload = writeRequest();
+
+        System.out.printf(
+                "%npayload size: events=%d format=%s encoding=%s bytes=%d%n",
+                eventCount, format, encoding, payload.length);
+    }
+
+    @Benchmark
+    public AnalysisRequest parseRequest() throws IOException {
+        try (InputStream in =
+                ContentEncodings.decoding(new ByteArrayInputStream(payload), encoding)) {
+            return reader.readValue(in);
+        }
+    }
+
+    @Benchmark
+    public byte[] writeRequest() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+        try (OutputStream out = ContentEncodings.encoding(bytes, encoding, 3)) {
+            mapper.writeValue(out, request);
+        }
+        return bytes.toByteArray();
+    }
+}
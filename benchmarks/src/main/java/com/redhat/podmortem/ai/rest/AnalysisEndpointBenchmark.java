@@ -0,0 +1,67 @@
+package com.redhat.podmortem.ai.rest;
+
+import com.redhat.podmortem.ai.benchmarks.BenchmarkData;
+import com.redhat.podmortem.ai.service.ServiceWiring;
+import com.redhat.podmortem.common.model.analysis.AnalysisRequest;
+import jakarta.ws.rs.core.Response;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the end-to-end {@code /analyze} path in-JVM against a zero-latency stub provider.
+ *
+ * <p>The resource is called directly, without HTTP, so the numbers show the service's own overhead:
+ * fingerprinting, caching, pruning, bulkhead admission and enrichment. The cached variant runs
+ * with concurrent callers hitting the response cache; the uncached variant empties the cache
+ * before each call so every request reaches the provider.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalysisEndpointBenchmark {
+
+    @Param({"10", "1000"})
+    int eventCount;
+
+    ServiceWiring wiring;
+    Analysis resource;
+    AnalysisRequest request;
+
+    @Setup
+    public void setup() {
+        wiring = new ServiceWiring();
+        resource = new Analysis();
+        resource.analysisService = wiring.getAnalysisService();
+
+        request = new AnalysisRequest();
+        request.setAnalysisResult(BenchmarkData.analysisResult(eventCount));
+        request.setProviderConfig(ServiceWiring.stubConfig("stub-model"));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Response analyzeCached() {
+        return resource.analyze(request, null, null, null, null).await().indefinitely();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Response analyzeUncached() {
+        wiring.clearResponseCache();
+        return resource.analyze(request, null, null, null, null).await().indefinitely();
+    }
+}
@@ -0,0 +1,52 @@
+package com.redhat.podmortem.ai.service;
+
+import com.redhat.podmortem.ai.benchmarks.BenchmarkData;
+import com.redhat.podmortem.common.model.analysis.AnalysisResult;
+import com.redhat.podmortem.common.model.provider.AIResponse;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Benchmarks the response post-processing of {@link AnalysisService}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalysisServiceBenchmark {
+
+    @Param({"10", "1000"})
+    int eventCount;
+
+    private AnalysisService analysisService;
+    private AnalysisResult analysisResult;
+    private AIResponse response;
+
+    @Setup
+    public void setup() {
+        ServiceWiring wiring = new ServiceWiring();
+        analysisService = wiring.getAnalysisService();
+        analysisResult = BenchmarkData.analysisResult(eventCount);
+        response = ServiceWiring.sampleResponse(ServiceWiring.STUB_PROVIDER_ID);
+    }
+
+    @Benchmark
+    public AIResponse enrichResponse() {
+        return analysisService.enrichResponse(response, analysisResult);
+    }
+
+    @Benchmark
+    public String buildBasicExplanation() {
+        return analysisService.buildBasicExplanation(analysisResult);
+    }
+}
@@ -0,0 +1,80 @@
+package com.redhat.podmortem.ai.service;
+
+import com.redhat.podmortem.common.model.provider.AIProvider;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks provider lookups on the {@link ProviderRegistry} under concurrent access.
+ *
+ * <p>Run with {@code -prof gc} to check that lookups and the provider lists do not allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ProviderRegistryBenchmark {
+
+    @Param({"2", "16"})
+    int providerCount;
+
+    private ProviderRegistry providerRegistry;
+
+    @Setup
+    public void setup() {
+        ServiceWiring wiring = new ServiceWiring();
+        providerRegistry = wiring.getProviderRegistry();
+        for (int i = 1; i < providerCount; i++) {
+            providerRegistry.register(ServiceWiring.stubProvider("stub-" + i));
+        }
+    }
+
+    @Benchmark
+    public AIProvider getProvider() {
+        return providerRegistry.getProvider(ServiceWiring.STUB_PROVIDER_ID);
+    }
+
+    @Benchmark
+    public Object getUnknownProvider() {
+        try {
+            return providerRegistry.getProvider("unknown");
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public ProviderEntry findUnknownEntry() {
+        return providerRegistry.findEntry("unknown");
+    }
+
+    @Benchmark
+    public boolean isProviderAvailable() {
+        return providerRegistry.isProviderAvailable(ServiceWiring.STUB_PROVIDER_ID);
+    }
+
+    @Benchmark
+    public List<String> getAvailableProviderIds() {
+        return providerRegistry.getAvailableProviderIds();
+    }
+
+    @Benchmark
+    public List<AIProvider> getAllProviders() {
+        return providerRegistry.getAllProviders();
+    }
+}
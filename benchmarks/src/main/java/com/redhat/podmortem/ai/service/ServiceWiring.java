@@ -0,0 +1,221 @@
+package com.redhat.podmortem.ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.podmortem.ai.benchmarks.BenchmarkData;
+import com.redhat.podmortem.common.model.provider.AIProvider;
+import com.redhat.podmortem.common.model.provider.AIProviderConfig;
+import com.redhat.podmortem.common.model.provider.AIResponse;
+import com.redhat.podmortem.common.model.provider.ValidationResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.quarkus.cache.runtime.caffeine.CaffeineCacheImpl;
+import io.quarkus.cache.runtime.caffeine.CaffeineCacheInfo;
+import io.smallrye.mutiny.Uni;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+/**
+ * Wires the analysis services by hand for in-JVM benchmarks.
+ *
+ * <p>Mirrors the CDI wiring and the configuration defaults of the application without starting
+ * Quarkus, so fault tolerance interceptors are not active and spans go to a no-op tracer.
+ * Providers are zero-latency stubs, which isolates the service's own overhead from the LLM.
+ */
+public final class ServiceWiring {
+
+    /** Provider ID of the zero-latency stub provider. */
+    public static final String STUB_PROVIDER_ID = "stub";
+
+    private final ObjectMapper objectMapper = BenchmarkData.objectMapper();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ProviderRegistry providerRegistry = new ProviderRegistry();
+    private final AnalysisService analysisService = new AnalysisService();
+
+    public ServiceWiring() {
+        ResiliencePolicies resiliencePolicies = new ResiliencePolicies();
+        resiliencePolicies.config = ConfigProvider.getConfig();
+
+        providerRegistry.meterRegistry = meterRegistry;
+        providerRegistry.resiliencePolicies = resiliencePolicies;
+        providerRegistry.config = ConfigProvider.getConfig();
+        providerRegistry.defaultMaxConcurrent = 1024;
+        providerRegistry.defaultMaxQueued = 4096;
+        providerRegistry.retryAfter = Duration.ofSeconds(10);
+        providerRegistry.defaultExecutionMode = ExecutionMode.EVENT_LOOP;
+        providerRegistry.virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+        providerRegistry.register(stubProvider(STUB_PROVIDER_ID));
+
+        EventPruner eventPruner = new EventPruner();
+        eventPruner.objectMapper = objectMapper;
+        eventPruner.config = ConfigProvider.getConfig();
+        eventPruner.defaultTokenBudget = 6000;
+        eventPruner.initialize();
+
+        ProviderRouter providerRouter = new ProviderRouter();
+        providerRouter.providerRegistry = providerRegistry;
+        providerRouter.resiliencePolicies = resiliencePolicies;
+        providerRouter.objectMapper = objectMapper;
+        providerRouter.meterRegistry = meterRegistry;
+        providerRouter.config = ConfigProvider.getConfig();
+        providerRouter.routedProviders = Optional.empty();
+        providerRouter.hedgingEnabled = true;
+        providerRouter.hedgingPercentile = 0.95;
+        providerRouter.minHedgeDelay = Duration.ofSeconds(2);
+        providerRouter.defaultHedgeDelay = Duration.ofSeconds(30);
+
+        ProviderEnsemble providerEnsemble = new ProviderEnsemble();
+        providerEnsemble.providerRegistry = providerRegistry;
+        providerEnsemble.providerRouter = providerRouter;
+        providerEnsemble.meterRegistry = meterRegistry;
+        providerEnsemble.configuredMembers = Optional.empty();
+        providerEnsemble.size = 3;
+        providerEnsemble.quorum = 0;
+        providerEnsemble.timeout = Duration.ofSeconds(60);
+        providerEnsemble.patternAgreement = 0.5;
+        providerEnsemble.textAgreement = 0.3;
+
+        AnalysisTelemetry telemetry = new AnalysisTelemetry();
+        telemetry.meterRegistry = meterRegistry;
+        telemetry.tracer = OpenTelemetry.noop().getTracer("podmortem-benchmarks");
+        telemetry.providerRegistry = providerRegistry;
+        telemetry.maxModelsPerProvider = 20;
+
+        RateLimits rateLimits = new RateLimits();
+        rateLimits.config = ConfigProvider.getConfig();
+        rateLimits.meterRegistry = meterRegistry;
+        rateLimits.burst = Duration.ofSeconds(10);
+        rateLimits.maxQueued = 256;
+        rateLimits.maxWait = Duration.ofSeconds(60);
+        rateLimits.completionTokens = 1000;
+        rateLimits.initialize();
+
+        PromptTemplates promptTemplates = new PromptTemplates();
+        promptTemplates.meterRegistry = meterRegistry;
+        // no template directory, only the built-in templates
+        promptTemplates.directory = Path.of("target", "prompts");
+        promptTemplates.watch = false;
+        promptTemplates.reloadDelay = Duration.ofMillis(500);
+        promptTemplates.initialize();
+
+        AnalysisSessions analysisSessions = new AnalysisSessions();
+        analysisSessions.eventPruner = eventPruner;
+        analysisSessions.promptTemplates = promptTemplates;
+        analysisSessions.meterRegistry = meterRegistry;
+        analysisSessions.enabled = true;
+        analysisSessions.maxSize = 1000;
+        analysisSessions.maxAge = Duration.ofMinutes(30);
+        analysisSessions.maxUpdates = 10;
+        analysisSessions.initialize();
+
+        CaffeineCacheInfo cacheInfo = new CaffeineCacheInfo();
+        cacheInfo.name = "analysis-responses";
+        cacheInfo.maximumSize = 500L;
+        cacheInfo.expireAfterWrite = Duration.ofMinutes(30);
+
+        analysisService.providerRegistry = providerRegistry;
+        analysisService.providerRouter = providerRouter;
+        analysisService.providerEnsemble = providerEnsemble;
+        analysisService.resiliencePolicies = resiliencePolicies;
+        analysisService.eventPruner = eventPruner;
+        analysisService.objectMapper = objectMapper;
+        analysisService.meterRegistry = meterRegistry;
+        analysisService.telemetry = telemetry;
+        // not initialized, so the persistent store stays disabled
+        analysisService.explanationStore = new ExplanationStore();
+        analysisService.rateLimits = rateLimits;
+        analysisService.analysisSessions = analysisSessions;
+        analysisService.responseCache = new CaffeineCacheImpl(cacheInfo, false);
+        analysisService.batchMaxConcurrency = 8;
+        analysisService.maxRetries = 3;
+        analysisService.retryDelay = Duration.ofSeconds(1);
+        analysisService.maxRetryDelay = Duration.ofSeconds(30);
+        analysisService.retryBudgetPercentile = 0.5;
+        analysisService.registerMetrics();
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    public ProviderRegistry getProviderRegistry() {
+        return providerRegistry;
+    }
+
+    public AnalysisService getAnalysisService() {
+        return analysisService;
+    }
+
+    /** Empties the response cache so the next analysis calls the provider again. */
+    public void clearResponseCache() {
+        analysisService.responseCache.invalidateAll().await().indefinitely();
+    }
+
+    /**
+     * Creates a provider configuration for the stub provider.
+     *
+     * @param modelId the model ID, which is part of the cache key
+     * @return the provider configuration
+     */
+    public static AIProviderConfig stubConfig(String modelId) {
+        AIProviderConfig config = new AIProviderConfig();
+        config.setProviderId(STUB_PROVIDER_ID);
+        config.setModelId(modelId);
+        return config;
+    }
+
+    /**
+     * Creates an AI response shaped like a real provider answer.
+     *
+     * @param providerId the provider ID
+     * @return the AI response
+     */
+    public static AIResponse sampleResponse(String providerId) {
+        AIResponse response = new AIResponse();
+        response.setExplanation(
+                "The pod was OOM-killed because the Java heap is sized above the container"
+                        + " memory limit. ".repeat(20));
+        response.setProviderId(providerId);
+        response.setModelId("stub-model");
+        response.setGeneratedAt(Instant.now());
+        response.setProcessingTime(Duration.ZERO);
+        response.setConfidence(0.9);
+        return response;
+    }
+
+    /**
+     * Creates a zero-latency stub provider.
+     *
+     * <p>Implemented as a dynamic proxy so the stub does not depend on the exact shape of the
+     * {@link AIProvider} interface beyond the methods the service calls.
+     *
+     * @param providerId the provider ID of the stub
+     * @return the stub provider
+     */
+    public static AIProvider stubProvider(String providerId) {
+        return (AIProvider)
+                Proxy.newProxyInstance(
+                        AIProvider.class.getClassLoader(),
+                        new Class<?>[] {AIProvider.class},
+                        (proxy, method, args) ->
+                                switch (method.getName()) {
+                                    case "getProviderId" -> providerId;
+                                    case "generateExplanation" ->
+                                            Uni.createFrom().item(sampleResponse(providerId));
+                                    case "validateConfiguration" -> {
+                                        ValidationResult result = new ValidationResult();
+                                        result.setValid(true);
+                                        yield Uni.createFrom().item(result);
+                                    }
+                                    case "hashCode" -> System.identityHashCode(proxy);
+                                    case "equals" -> proxy == args[0];
+                                    case "toString" -> "StubAIProvider[" + providerId + "]";
+                                    default -> null;
+                                });
+    }
+}
@@ -0,0 +1,135 @@
+package com.redhat.podmortem.ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.redhat.podmortem.ai.benchmarks.BenchmarkData;
+import com.redhat.podmortem.common.model.analysis.AnalysisResult;
+import com.redhat.podmortem.common.model.provider.AIProvider;
+import com.redhat.podmortem.common.model.provider.AIProviderConfig;
+import com.redhat.podmortem.common.model.provider.AIResponse;
+import io.smallrye.mutiny.Uni;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test of the {@link ExecutionMode#VIRTUAL_THREAD} execution mode.
+ *
+ * <p>Starts a number of distinct analyses at once against a stub provider that blocks its calling
+ * thread for a fixed latency, the way providers built on blocking HTTP clients do, and reports
+ * the peak number of provider calls in flight and the heap used at that peak. Run it with a small
+ * heap:
+ *
+ * <pre>
+ * java -Xmx256m -cp benchmarks/target/benchmarks.jar \
+ *     com.redhat.podmortem.ai.service.VirtualThreadLoadTest [analyses] [latency-ms] [mode]
+ * </pre>
+ */
+public final class VirtualThreadLoadTest {
+
+    private static final String PROVIDER_ID = "blocking-stub";
+
+    private VirtualThreadLoadTest() {}
+
+    public static void main(String[] args) throws InterruptedException {
+        int analyses = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        Duration latency = Duration.ofMillis(args.length > 1 ? Long.parseLong(args[1]) : 2000);
+        ExecutionMode mode =
+                args.length > 2 ? ExecutionMode.valueOf(args[2]) : ExecutionMode.VIRTUAL_THREAD;
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        AtomicLong peakHeap = new AtomicLong();
+
+        ServiceWiring wiring = new ServiceWiring();
+        ProviderRegistry registry = wiring.getProviderRegistry();
+        registry.defaultExecutionMode = mode;
+        registry.defaultMaxConcurrent = analyses;
+        registry.defaultMaxQueued = 0;
+        registry.register(
+                blockingProvider(
+                        latency,
+                        () -> {
+                            int current = inFlight.incrementAndGet();
+                            if (current > peakInFlight.getAndAccumulate(current, Math::max)) {
+                                Runtime runtime = Runtime.getRuntime();
+                                peakHeap.set(runtime.totalMemory() - runtime.freeMemory());
+                            }
+                        },
+                        inFlight::decrementAndGet));
+
+        List<AnalysisResult> results = distinctResults(wiring.getObjectMapper(), analyses);
+        AIProviderConfig config = new AIProviderConfig();
+        config.setProviderId(PROVIDER_ID);
+        config.setModelId("stub-model");
+
+        CountDownLatch done = new CountDownLatch(analyses);
+        AtomicInteger failures = new AtomicInteger();
+        long started = System.nanoTime();
+        for (AnalysisResult result : results) {
+            wiring.getAnalysisService()
+                    .analyze(result, config)
+                    .subscribe()
+                    .with(
+                            response -> done.countDown(),
+                            failure -> {
+                                failures.incrementAndGet();
+                                done.countDown();
+                            });
+        }
+        done.await();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        System.out.printf(
+                "mode=%s analyses=%d latency=%dms elapsed=%dms failures=%d"
+                        + " peakInFlight=%d heapAtPeak=%dMB maxHeap=%dMB%n",
+                mode,
+                analyses,
+                latency.toMillis(),
+                elapsed.toMillis(),
+                failures.get(),
+                peakInFlight.get(),
+                peakHeap.get() / (1024 * 1024),
+                Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        System.exit(failures.get() == 0 ? 0 : 1);
+    }
+
+    /** Builds analysis results that all have different fingerprints, so none are coalesced. */
+    private static List<AnalysisResult> distinctResults(ObjectMapper mapper, int count) {
+        List<AnalysisResult> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ObjectNode json = BenchmarkData.analysisResultJson(mapper, "load-" + i, 10, i);
+            ((ObjectNode) json.path("events").get(0).path("matchedPattern"))
+                    .put("id", "load-pattern-" + i);
+            results.add(mapper.convertValue(json, AnalysisResult.class));
+        }
+        return results;
+    }
+
+    private static AIProvider blockingProvider(
+            Duration latency, Runnable onStart, Runnable onEnd) {
+        AIProvider stub = ServiceWiring.stubProvider(PROVIDER_ID);
+        return (AIProvider)
+                Proxy.newProxyInstance(
+                        AIProvider.class.getClassLoader(),
+                        new Class<?>[] {AIProvider.class},
+                        (proxy, method, args) -> {
+                            if (!method.getName().equals("generateExplanation")) {
+                                return method.invoke(stub, args);
+                            }
+                            onStart.run();
+                            try {
+                                // blocks the calling thread like a synchronous HTTP client
+                                Thread.sleep(latency);
+                            } finally {
+                                onEnd.run();
+                            }
+                            AIResponse response = ServiceWiring.sampleResponse(PROVIDER_ID);
+                            return Uni.createFrom().item(response);
+                        });
+    }
+}
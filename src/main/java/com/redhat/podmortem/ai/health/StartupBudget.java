@@ -0,0 +1,65 @@
+package com.redhat.podmortem.ai.health;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.quarkus.runtime.ImageMode;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Measures the time from process start until the application has started against a budget.
+ *
+ * <p>The budget is {@code podmortem.startup.native-budget} for native images and {@code
+ * podmortem.startup.budget} on the JVM. Startup time is exported as {@code
+ * podmortem.startup.duration}, and exceeding the budget is logged as a warning. The warm-up runs
+ * after startup and is not part of the measured time.
+ */
+@ApplicationScoped
+public class StartupBudget {
+
+    private static final Logger LOG = Logger.getLogger(StartupBudget.class);
+
+    @Inject MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "podmortem.startup.budget", defaultValue = "5s")
+    Duration jvmBudget;
+
+    @ConfigProperty(name = "podmortem.startup.native-budget", defaultValue = "200ms")
+    Duration nativeBudget;
+
+    void check(@Observes StartupEvent event) {
+        Optional<Instant> processStart = ProcessHandle.current().info().startInstant();
+        if (processStart.isEmpty()) {
+            LOG.debug("Process start time unavailable, not checking the startup budget");
+            return;
+        }
+
+        Duration startup = Duration.between(processStart.get(), Instant.now());
+        boolean nativeImage = ImageMode.current() == ImageMode.NATIVE_RUN;
+        Duration budget = nativeImage ? nativeBudget : jvmBudget;
+        TimeGauge.builder(
+                        "podmortem.startup.duration",
+                        startup,
+                        TimeUnit.MILLISECONDS,
+                        Duration::toMillis)
+                .tag("image", nativeImage ? "native" : "jvm")
+                .description("Time from process start until the application started")
+                .register(meterRegistry);
+
+        if (startup.compareTo(budget) > 0) {
+            LOG.warnf(
+                    "Startup took %d ms, over the %s startup budget of %d ms",
+                    startup.toMillis(), nativeImage ? "native" : "JVM", budget.toMillis());
+        } else {
+            LOG.infof("Started in %d ms (budget %d ms)", startup.toMillis(), budget.toMillis());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.redhat.podmortem.ai.health;
+
+import com.redhat.podmortem.ai.service.ProviderWarmup;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.Map;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+import org.eclipse.microprofile.health.Readiness;
+
+/**
+ * Readiness check that holds traffic back until the service is warmed up.
+ *
+ * <p>Reports the service as ready once the {@link ProviderWarmup} has completed or timed out. The
+ * response data carries the warm state of the analysis pipeline and of each provider, so a provider
+ * whose warm-up failed is visible without making the whole service unready.
+ */
+@Readiness
+@ApplicationScoped
+public class WarmupReadinessCheck implements HealthCheck {
+
+    @Inject ProviderWarmup providerWarmup;
+
+    @Override
+    public HealthCheckResponse call() {
+        HealthCheckResponseBuilder response =
+                HealthCheckResponse.named("warmup")
+                        .status(providerWarmup.isComplete())
+                        .withData("pipeline", providerWarmup.getPipelineState().toString());
+        for (Map.Entry<String, ProviderWarmup.State> provider :
+                providerWarmup.getProviderStates().entrySet()) {
+            response.withData("provider." + provider.getKey(), provider.getValue().toString());
+        }
+        return response.build();
+    }
+}
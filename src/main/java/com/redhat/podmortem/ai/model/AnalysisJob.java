@@ -0,0 +1,97 @@
+package com.redhat.podmortem.ai.model;
+
+import com.redhat.podmortem.common.model.provider.AIResponse;
+import java.time.Instant;
+
+/**
+ * Asynchronous analysis job submitted through the jobs API.
+ *
+ * <p>Tracks the lifecycle of a queued analysis from submission to completion. Instances are updated
+ * by the worker running the analysis and read concurrently by status requests.
+ */
+public class AnalysisJob {
+
+    /** Lifecycle state of a job. */
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    private final String id;
+    private final String callbackUrl;
+    private final Instant submittedAt;
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant completedAt;
+    private volatile AIResponse response;
+    private volatile String error;
+
+    public AnalysisJob(String id, String callbackUrl) {
+        this.id = id;
+        this.callbackUrl = callbackUrl;
+        this.submittedAt = Instant.now();
+    }
+
+    /** Marks the job as picked up by a worker. */
+    public void markRunning() {
+        this.startedAt = Instant.now();
+        this.status = Status.RUNNING;
+    }
+
+    /**
+     * Marks the job as successfully completed.
+     *
+     * @param response the AI-generated explanation
+     */
+    public void markSucceeded(AIResponse response) {
+        this.response = response;
+        this.completedAt = Instant.now();
+        this.status = Status.SUCCEEDED;
+    }
+
+    /**
+     * Marks the job as failed.
+     *
+     * @param error the failure message
+     */
+    public void markFailed(String error) {
+        this.error = error;
+        this.completedAt = Instant.now();
+        this.status = Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getCallbackUrl() {
+        return callbackUrl;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public AIResponse getResponse() {
+        return response;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
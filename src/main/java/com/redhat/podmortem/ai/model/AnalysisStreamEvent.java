@@ -0,0 +1,60 @@
+package com.redhat.podmortem.ai.model;
+
+import com.redhat.podmortem.common.model.provider.AIResponse;
+
+/**
+ * Event emitted by a streaming analysis.
+ *
+ * <p>A stream consists of {@link Type#TOKEN} events carrying explanation fragments, followed by a
+ * single {@link Type#COMPLETE} event carrying the enriched response without its explanation text.
+ */
+public class AnalysisStreamEvent {
+
+    /** Kind of streaming event. */
+    public enum Type {
+        TOKEN,
+        COMPLETE
+    }
+
+    private final Type type;
+    private final String text;
+    private final AIResponse response;
+
+    private AnalysisStreamEvent(Type type, String text, AIResponse response) {
+        this.type = type;
+        this.text = text;
+        this.response = response;
+    }
+
+    /**
+     * Creates an event carrying an explanation fragment.
+     *
+     * @param text the explanation fragment
+     * @return the token event
+     */
+    public static AnalysisStreamEvent token(String text) {
+        return new AnalysisStreamEvent(Type.TOKEN, text, null);
+    }
+
+    /**
+     * Creates the final event of a stream.
+     *
+     * @param response the enriched response metadata
+     * @return the completion event
+     */
+    public static AnalysisStreamEvent complete(AIResponse response) {
+        return new AnalysisStreamEvent(Type.COMPLETE, null, response);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public AIResponse getResponse() {
+        return response;
+    }
+}
@@ -0,0 +1,81 @@
+package com.redhat.podmortem.ai.model;
+
+import com.redhat.podmortem.common.model.provider.AIResponse;
+
+/**
+ * Result of a single item of a batch analysis request.
+ *
+ * <p>Carries the position of the item in the submitted batch together with its own HTTP-style
+ * status, so callers can correlate results that are returned in completion order.
+ */
+public class BatchAnalysisResult {
+
+    private int index;
+    private int status;
+    private AIResponse response;
+    private String error;
+
+    public BatchAnalysisResult() {}
+
+    public BatchAnalysisResult(int index, int status, AIResponse response, String error) {
+        this.index = index;
+        this.status = status;
+        this.response = response;
+        this.error = error;
+    }
+
+    /**
+     * Creates a successful batch item result.
+     *
+     * @param index the position of the item in the batch
+     * @param response the AI-generated explanation
+     * @return the item result with status 200
+     */
+    public static BatchAnalysisResult success(int index, AIResponse response) {
+        return new BatchAnalysisResult(index, 200, response, null);
+    }
+
+    /**
+     * Creates a failed batch item result.
+     *
+     * @param index the position of the item in the batch
+     * @param status the HTTP status describing the failure
+     * @param error the failure message
+     * @return the item result
+     */
+    public static BatchAnalysisResult failure(int index, int status, String error) {
+        return new BatchAnalysisResult(index, status, null, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public AIResponse getResponse() {
+        return response;
+    }
+
+    public void setResponse(AIResponse response) {
+        this.response = response;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,78 @@
+package com.redhat.podmortem.ai.model;
+
+import java.time.Instant;
+
+/**
+ * Status of a loaded prompt template.
+ *
+ * <p>Reports the template's content version, where and when it was loaded, and how often and how
+ * fast it has been rendered since.
+ */
+public class PromptTemplateStatus {
+
+    private String name;
+    private String version;
+    private String source;
+    private Instant loadedAt;
+    private long renders;
+    private double meanRenderMicros;
+    private double maxRenderMicros;
+
+    public PromptTemplateStatus() {}
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    public void setLoadedAt(Instant loadedAt) {
+        this.loadedAt = loadedAt;
+    }
+
+    public long getRenders() {
+        return renders;
+    }
+
+    public void setRenders(long renders) {
+        this.renders = renders;
+    }
+
+    public double getMeanRenderMicros() {
+        return meanRenderMicros;
+    }
+
+    public void setMeanRenderMicros(double meanRenderMicros) {
+        this.meanRenderMicros = meanRenderMicros;
+    }
+
+    public double getMaxRenderMicros() {
+        return maxRenderMicros;
+    }
+
+    public void setMaxRenderMicros(double maxRenderMicros) {
+        this.maxRenderMicros = maxRenderMicros;
+    }
+}
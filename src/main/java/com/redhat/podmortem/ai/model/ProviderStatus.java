@@ -0,0 +1,153 @@
+package com.redhat.podmortem.ai.model;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Status of a registered AI provider.
+ *
+ * <p>Reports where the provider was registered from, its cumulative call statistics with a latency
+ * histogram, the moving averages used for routing, the current load of its bulkhead, and the state
+ * of its circuit breaker with the timeout its next call gets. The latency buckets map the upper
+ * bound of each bucket in milliseconds to the number of calls that completed within it.
+ */
+public class ProviderStatus {
+
+    private String providerId;
+    private String source;
+    private String executionMode;
+    private Instant registeredAt;
+    private long calls;
+    private long failures;
+    private double meanLatencyMillis;
+    private Map<String, Long> latencyBuckets;
+    private double ewmaLatencyMillis;
+    private double errorRate;
+    private int active;
+    private int queued;
+    private long rejected;
+    private String circuitBreaker;
+    private long timeoutMillis;
+
+    public ProviderStatus() {}
+
+    public String getProviderId() {
+        return providerId;
+    }
+
+    public void setProviderId(String providerId) {
+        this.providerId = providerId;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public String getExecutionMode() {
+        return executionMode;
+    }
+
+    public void setExecutionMode(String executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    public Instant getRegisteredAt() {
+        return registeredAt;
+    }
+
+    public void setRegisteredAt(Instant registeredAt) {
+        this.registeredAt = registeredAt;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public void setCalls(long calls) {
+        this.calls = calls;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public void setFailures(long failures) {
+        this.failures = failures;
+    }
+
+    public double getMeanLatencyMillis() {
+        return meanLatencyMillis;
+    }
+
+    public void setMeanLatencyMillis(double meanLatencyMillis) {
+        this.meanLatencyMillis = meanLatencyMillis;
+    }
+
+    public Map<String, Long> getLatencyBuckets() {
+        return latencyBuckets;
+    }
+
+    public void setLatencyBuckets(Map<String, Long> latencyBuckets) {
+        this.latencyBuckets = latencyBuckets;
+    }
+
+    public double getEwmaLatencyMillis() {
+        return ewmaLatencyMillis;
+    }
+
+    public void setEwmaLatencyMillis(double ewmaLatencyMillis) {
+        this.ewmaLatencyMillis = ewmaLatencyMillis;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public void setActive(int active) {
+        this.active = active;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public void setQueued(int queued) {
+        this.queued = queued;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public String getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void setCircuitBreaker(String circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+}
@@ -0,0 +1,134 @@
+package com.redhat.podmortem.ai.model;
+
+/**
+ * Resilience policy of an AI provider: how long its calls may take and when its circuit breaker
+ * opens.
+ *
+ * <p>The timeout of a call is a percentile of the provider's recent latencies multiplied by a
+ * factor, bounded by a minimum and a maximum. The breaker evaluates a window of recent calls and
+ * opens when too many of them failed or were slow. When a policy is updated at runtime, fields left
+ * null keep their current value.
+ */
+public class ResiliencePolicy {
+
+    private Double timeoutPercentile;
+    private Double timeoutFactor;
+    private Long minTimeoutMillis;
+    private Long maxTimeoutMillis;
+    private Integer windowSize;
+    private Integer minimumCalls;
+    private Double failureRatio;
+    private Double slowCallFactor;
+    private Double slowCallRatio;
+    private Long openDelayMillis;
+    private Integer halfOpenCalls;
+
+    public ResiliencePolicy() {}
+
+    /**
+     * Creates a copy of a policy.
+     *
+     * @param policy the policy to copy
+     */
+    public ResiliencePolicy(ResiliencePolicy policy) {
+        this.timeoutPercentile = policy.timeoutPercentile;
+        this.timeoutFactor = policy.timeoutFactor;
+        this.minTimeoutMillis = policy.minTimeoutMillis;
+        this.maxTimeoutMillis = policy.maxTimeoutMillis;
+        this.windowSize = policy.windowSize;
+        this.minimumCalls = policy.minimumCalls;
+        this.failureRatio = policy.failureRatio;
+        this.slowCallFactor = policy.slowCallFactor;
+        this.slowCallRatio = policy.slowCallRatio;
+        this.openDelayMillis = policy.openDelayMillis;
+        this.halfOpenCalls = policy.halfOpenCalls;
+    }
+
+    public Double getTimeoutPercentile() {
+        return timeoutPercentile;
+    }
+
+    public void setTimeoutPercentile(Double timeoutPercentile) {
+        this.timeoutPercentile = timeoutPercentile;
+    }
+
+    public Double getTimeoutFactor() {
+        return timeoutFactor;
+    }
+
+    public void setTimeoutFactor(Double timeoutFactor) {
+        this.timeoutFactor = timeoutFactor;
+    }
+
+    public Long getMinTimeoutMillis() {
+        return minTimeoutMillis;
+    }
+
+    public void setMinTimeoutMillis(Long minTimeoutMillis) {
+        this.minTimeoutMillis = minTimeoutMillis;
+    }
+
+    public Long getMaxTimeoutMillis() {
+        return maxTimeoutMillis;
+    }
+
+    public void setMaxTimeoutMillis(Long maxTimeoutMillis) {
+        this.maxTimeoutMillis = maxTimeoutMillis;
+    }
+
+    public Integer getWindowSize() {
+        return windowSize;
+    }
+
+    public void setWindowSize(Integer windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public Integer getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public void setMinimumCalls(Integer minimumCalls) {
+        this.minimumCalls = minimumCalls;
+    }
+
+    public Double getFailureRatio() {
+        return failureRatio;
+    }
+
+    public void setFailureRatio(Double failureRatio) {
+        this.failureRatio = failureRatio;
+    }
+
+    public Double getSlowCallFactor() {
+        return slowCallFactor;
+    }
+
+    public void setSlowCallFactor(Double slowCallFactor) {
+        this.slowCallFactor = slowCallFactor;
+    }
+
+    public Double getSlowCallRatio() {
+        return slowCallRatio;
+    }
+
+    public void setSlowCallRatio(Double slowCallRatio) {
+        this.slowCallRatio = slowCallRatio;
+    }
+
+    public Long getOpenDelayMillis() {
+        return openDelayMillis;
+    }
+
+    public void setOpenDelayMillis(Long openDelayMillis) {
+        this.openDelayMillis = openDelayMillis;
+    }
+
+    public Integer getHalfOpenCalls() {
+        return halfOpenCalls;
+    }
+
+    public void setHalfOpenCalls(Integer halfOpenCalls) {
+        this.halfOpenCalls = halfOpenCalls;
+    }
+}
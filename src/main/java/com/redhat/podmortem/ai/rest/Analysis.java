@@ -1,15 +1,37 @@
 package com.redhat.podmortem.ai.rest;
 
+import com.redhat.podmortem.ai.model.AnalysisJob;
+import com.redhat.podmortem.ai.model.AnalysisStreamEvent;
+import com.redhat.podmortem.ai.model.BatchAnalysisResult;
+import com.redhat.podmortem.ai.model.ResiliencePolicy;
+import com.redhat.podmortem.ai.service.AnalysisJobService;
+import com.redhat.podmortem.ai.service.AnalysisOptions;
 import com.redhat.podmortem.ai.service.AnalysisService;
+import com.redhat.podmortem.ai.service.DeadlineExceededException;
+import com.redhat.podmortem.ai.service.PromptTemplates;
+import com.redhat.podmortem.ai.service.ProviderDirectory;
+import com.redhat.podmortem.ai.service.ProviderOverloadedException;
+import com.redhat.podmortem.ai.service.ProviderRegistry;
+import com.redhat.podmortem.ai.service.ResiliencePolicies;
 import com.redhat.podmortem.common.model.analysis.AnalysisRequest;
 import com.redhat.podmortem.common.model.provider.AIProviderConfig;
 import com.redhat.podmortem.common.model.provider.AIResponse;
 import com.redhat.podmortem.provider.service.PromptTemplateService;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.Cancellable;
+import io.vertx.ext.web.RoutingContext;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,57 +41,331 @@ import org.slf4j.LoggerFactory;
  *
  * <p>Provides endpoints for analyzing pod failures, validating AI provider configurations, and
  * managing prompt templates. All operations are asynchronous using Mutiny Uni.
+ *
+ * <p>Entities are exchanged as JSON, or as CBOR or Smile when negotiated with {@code Content-Type}
+ * and {@code Accept}. Request bodies may be compressed with gzip, deflate or zstd, see {@link
+ * RequestDecompressionInterceptor}, and single-entity responses are compressed with zstd for
+ * clients accepting it.
  */
 @Path("/api/v1/analysis")
-@Consumes(MediaType.APPLICATION_JSON)
-@Produces(MediaType.APPLICATION_JSON)
+@Consumes({
+    MediaType.APPLICATION_JSON,
+    BinaryJsonProvider.APPLICATION_CBOR,
+    BinaryJsonProvider.APPLICATION_SMILE
+})
+@Produces({
+    MediaType.APPLICATION_JSON,
+    BinaryJsonProvider.APPLICATION_CBOR,
+    BinaryJsonProvider.APPLICATION_SMILE
+})
 public class Analysis {
 
     private static final Logger log = LoggerFactory.getLogger(Analysis.class);
 
+    /** Header naming the namespace of the failed pod, used to share provider quotas fairly. */
+    public static final String NAMESPACE_HEADER = "X-Podmortem-Namespace";
+
+    /** Header naming the workload of the failed pod, used to analyze follow-ups incrementally. */
+    public static final String WORKLOAD_HEADER = "X-Podmortem-Workload";
+
+    /** Header giving how many seconds the client waits for the analysis, fractions allowed. */
+    public static final String TIMEOUT_HEADER = "X-Podmortem-Timeout";
+
     @Inject AnalysisService analysisService;
 
+    @Inject AnalysisJobService analysisJobService;
+
     @Inject PromptTemplateService promptTemplateService;
 
+    @Inject PromptTemplates promptTemplates;
+
+    @Inject ProviderDirectory providerDirectory;
+
+    @Inject ProviderRegistry providerRegistry;
+
+    @Inject ResiliencePolicies resiliencePolicies;
+
     /**
      * Analyzes a pod failure using the specified AI provider.
      *
      * <p>Takes an analysis request containing log analysis results and AI provider configuration,
      * then generates a human-readable explanation of the failure using the configured AI service.
+     * Repeated failures with the same content fingerprint are answered from the response cache.
+     * When the provider's bulkhead is full, or its rate limit cannot admit the call within {@code
+     * podmortem.rate-limit.max-wait}, the request is rejected with {@code 429 Too Many Requests}
+     * and a {@code Retry-After} header. Requests naming a namespace in the {@value
+     * #NAMESPACE_HEADER} header share rate limited capacity fairly with other namespaces. Requests
+     * naming a workload in the {@value #WORKLOAD_HEADER} header are analyzed incrementally when
+     * they only add events to the workload's previous analysis. Requests giving a timeout in the
+     * {@value #TIMEOUT_HEADER} header fail with {@code 504 Gateway Timeout} once it has passed, and
+     * their provider call is not retried when the time left cannot cover it. When the client
+     * disconnects, its provider call is cancelled unless other requests are waiting for it.
      *
      * @param request the analysis request containing failure data and provider config
+     * @param namespace optional namespace of the failed pod
+     * @param workload optional name of the workload owning the failed pod
+     * @param timeout optional number of seconds the client waits for the analysis
+     * @param routingContext the routing context of the request, used to detect disconnects
      * @return a Uni that emits an HTTP response with the AI-generated explanation
      */
     @POST
     @Path("/analyze")
-    public Uni<Response> analyze(AnalysisRequest request) {
+    @ZstdCompressed
+    public Uni<Response> analyze(
+            AnalysisRequest request,
+            @HeaderParam(NAMESPACE_HEADER) String namespace,
+            @HeaderParam(WORKLOAD_HEADER) String workload,
+            @HeaderParam(TIMEOUT_HEADER) String timeout,
+            @Context RoutingContext routingContext) {
         log.info(
                 "Received analysis request for provider: {}",
                 request.getProviderConfig().getProviderId());
 
+        Uni<Response> analysis =
+                analysisService
+                        .analyze(
+                                request.getAnalysisResult(),
+                                request.getProviderConfig(),
+                                AnalysisOptions.of(namespace, workload)
+                                        .withTimeout(parseTimeout(timeout)))
+                        .map(
+                                response -> {
+                                    log.info(
+                                            "Analysis completed successfully for provider: {}",
+                                            request.getProviderConfig().getProviderId());
+                                    return Response.ok(response).build();
+                                })
+                        .onFailure()
+                        .recoverWithItem(this::errorResponse);
+        return cancelOnDisconnect(analysis, routingContext);
+    }
+
+    /**
+     * Analyzes a pod failure, streaming the explanation as Server-Sent Events.
+     *
+     * <p>Emits {@code token} events with explanation fragments as the provider generates them,
+     * followed by a {@code complete} event whose JSON data is the enriched response without its
+     * explanation text. Only providers implementing {@link
+     * com.redhat.podmortem.ai.service.StreamingAIProvider} stream fragments; the others, including
+     * every provider of the ai-provider library, send the whole explanation as one {@code token}
+     * event once it is complete. Failures are reported as a final {@code error} event. The {@value
+     * #WORKLOAD_HEADER} and {@value #TIMEOUT_HEADER} headers are honored as for {@link #analyze}; a
+     * stream still running when the timeout passes ends with an {@code error} event.
+     *
+     * @param request the analysis request containing failure data and provider config
+     * @param namespace optional namespace of the failed pod
+     * @param workload optional name of the workload owning the failed pod
+     * @param timeout optional number of seconds the client waits for the analysis
+     * @param sse the SSE context used to build events
+     * @return a Multi that emits the analysis as Server-Sent Events
+     */
+    @POST
+    @Path("/analyze/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public Multi<OutboundSseEvent> analyzeStream(
+            AnalysisRequest request,
+            @HeaderParam(NAMESPACE_HEADER) String namespace,
+            @HeaderParam(WORKLOAD_HEADER) String workload,
+            @HeaderParam(TIMEOUT_HEADER) String timeout,
+            @Context Sse sse) {
+        log.info(
+                "Received streaming analysis request for provider: {}",
+                request.getProviderConfig().getProviderId());
+
         return analysisService
-                .analyzeFailure(request.getAnalysisResult(), request.getProviderConfig())
+                .analyzeStream(
+                        request.getAnalysisResult(),
+                        request.getProviderConfig(),
+                        AnalysisOptions.of(namespace, workload).withTimeout(parseTimeout(timeout)))
                 .map(
-                        response -> {
-                            log.info(
-                                    "Analysis completed successfully for provider: {}",
-                                    request.getProviderConfig().getProviderId());
-                            return Response.ok(response).build();
+                        event -> {
+                            if (event.getType() == AnalysisStreamEvent.Type.TOKEN) {
+                                return sse.newEventBuilder()
+                                        .name("token")
+                                        .data(event.getText())
+                                        .build();
+                            }
+                            return sse.newEventBuilder()
+                                    .name("complete")
+                                    .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                                    .data(AIResponse.class, event.getResponse())
+                                    .build();
                         })
                 .onFailure()
                 .recoverWithItem(
                         throwable -> {
-                            log.error("Analysis failed", throwable);
-                            AIResponse errorResponse = new AIResponse();
-                            errorResponse.setExplanation(
-                                    "Analysis failed: " + throwable.getMessage());
-                            errorResponse.setProviderId("error");
-                            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                                    .entity(errorResponse)
+                            log.error("Streaming analysis failed", throwable);
+                            return sse.newEventBuilder()
+                                    .name("error")
+                                    .data("Analysis failed: " + throwable.getMessage())
                                     .build();
                         });
     }
 
+    /**
+     * Analyzes a batch of pod failures in a single request.
+     *
+     * <p>Duplicate failures are analyzed once and distinct ones run in parallel with a bounded
+     * concurrency. The response is a JSON array streamed in completion order; each element carries
+     * the index of the request it answers and its own status code. Items still running when the
+     * timeout given in the {@value #TIMEOUT_HEADER} header passes fail with status 504.
+     *
+     * @param requests the analysis requests to process
+     * @param namespace optional namespace of the failed pods
+     * @param timeout optional number of seconds the client waits for the whole batch
+     * @return a Multi that emits one result per request as it completes
+     */
+    @POST
+    @Path("/analyze/batch")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Multi<BatchAnalysisResult> analyzeBatch(
+            List<AnalysisRequest> requests,
+            @HeaderParam(NAMESPACE_HEADER) String namespace,
+            @HeaderParam(TIMEOUT_HEADER) String timeout) {
+        log.info("Received batch analysis request with {} items", requests.size());
+        AnalysisOptions options =
+                AnalysisOptions.forNamespace(namespace).withTimeout(parseTimeout(timeout));
+        return analysisService.analyzeBatch(requests, options);
+    }
+
+    /**
+     * Submits a pod failure analysis as an asynchronous job.
+     *
+     * <p>Returns immediately with {@code 202 Accepted} and the queued job, whose status can be
+     * polled at the URL given in the {@code Location} header. When a callback URL is given, the
+     * final job state is POSTed to it once the analysis completes. When the job queue is full the
+     * request is rejected with {@code 429 Too Many Requests}.
+     *
+     * @param request the analysis request containing failure data and provider config
+     * @param callbackUrl optional HTTP(S) URL notified when the job completes
+     * @param namespace optional namespace of the failed pod
+     * @param workload optional name of the workload owning the failed pod
+     * @return an HTTP response with the queued job
+     */
+    @POST
+    @Path("/jobs")
+    @ZstdCompressed
+    public Response submitJob(
+            AnalysisRequest request,
+            @QueryParam("callbackUrl") String callbackUrl,
+            @HeaderParam(NAMESPACE_HEADER) String namespace,
+            @HeaderParam(WORKLOAD_HEADER) String workload) {
+        try {
+            AnalysisJob job =
+                    analysisJobService.submit(
+                            request, callbackUrl, AnalysisOptions.of(namespace, workload));
+            return Response.accepted(job)
+                    .location(URI.create("/api/v1/analysis/jobs/" + job.getId()))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Map.of("status", "error", "message", e.getMessage()))
+                    .build();
+        } catch (ProviderOverloadedException e) {
+            return errorResponse(e);
+        }
+    }
+
+    /**
+     * Retrieves the status and result of an asynchronous analysis job.
+     *
+     * @param jobId the job identifier returned on submission
+     * @return an HTTP response with the job, or 404 if it is unknown or has expired
+     */
+    @GET
+    @Path("/jobs/{jobId}")
+    @ZstdCompressed
+    public Response getJob(@PathParam("jobId") String jobId) {
+        return analysisJobService
+                .getJob(jobId)
+                .map(job -> Response.ok(job).build())
+                .orElseGet(() -> Response.status(Response.Status.NOT_FOUND).build());
+    }
+
+    /**
+     * Maps an analysis failure to an HTTP error response.
+     *
+     * @param throwable the failure raised by the analysis pipeline
+     * @return a 429 response for overloaded or rate limited providers, a 504 response when the
+     *     client's timeout passed, a 500 response otherwise
+     */
+    private Response errorResponse(Throwable throwable) {
+        AIResponse errorResponse = new AIResponse();
+        errorResponse.setProviderId("error");
+
+        if (throwable instanceof DeadlineExceededException deadlineExceeded) {
+            log.warn("Analysis timed out: {}", deadlineExceeded.getMessage());
+            errorResponse.setExplanation("Analysis timed out: " + deadlineExceeded.getMessage());
+            return Response.status(Response.Status.GATEWAY_TIMEOUT).entity(errorResponse).build();
+        }
+
+        if (throwable instanceof ProviderOverloadedException overloaded) {
+            log.warn("Analysis rejected: {}", overloaded.getMessage());
+            errorResponse.setExplanation("Analysis rejected: " + overloaded.getMessage());
+            return Response.status(Response.Status.TOO_MANY_REQUESTS)
+                    .header(
+                            HttpHeaders.RETRY_AFTER,
+                            Math.max(1, overloaded.getRetryAfter().toSeconds()))
+                    .entity(errorResponse)
+                    .build();
+        }
+
+        log.error("Analysis failed", throwable);
+        errorResponse.setExplanation("Analysis failed: " + throwable.getMessage());
+        return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(errorResponse).build();
+    }
+
+    /**
+     * Parses the value of the {@value #TIMEOUT_HEADER} header.
+     *
+     * @param value the header value in seconds, may be null
+     * @return the timeout, or null if the header is absent
+     * @throws BadRequestException if the value is not a positive number of seconds
+     */
+    private static Duration parseTimeout(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            double seconds = Double.parseDouble(value.strip());
+            if (seconds > 0 && seconds <= Long.MAX_VALUE / 1_000_000_000L) {
+                return Duration.ofNanos((long) (seconds * 1_000_000_000L));
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new BadRequestException(
+                TIMEOUT_HEADER + " must be a positive number of seconds: " + value);
+    }
+
+    /**
+     * Cancels an analysis when the client disconnects before its response is sent.
+     *
+     * @param analysis the analysis producing the response
+     * @param routingContext the routing context of the request, may be null outside HTTP
+     * @return a Uni that emits the response of the analysis
+     */
+    private static Uni<Response> cancelOnDisconnect(
+            Uni<Response> analysis, RoutingContext routingContext) {
+        if (routingContext == null) {
+            return analysis;
+        }
+        return Uni.createFrom()
+                .emitter(
+                        emitter -> {
+                            Cancellable subscription =
+                                    analysis.subscribe().with(emitter::complete, emitter::fail);
+                            emitter.onTermination(subscription::cancel);
+                            routingContext.addEndHandler(
+                                    ended -> {
+                                        if (ended.failed()) {
+                                            log.info("Client disconnected, cancelling analysis");
+                                            subscription.cancel();
+                                        }
+                                    });
+                        });
+    }
+
     /**
      * Validates an AI provider configuration.
      *
@@ -102,9 +398,10 @@ public class Analysis {
      * Retrieves the list of available AI providers.
      *
      * <p>Returns all AI providers that are currently registered and available for use in pod
-     * failure analysis.
+     * failure analysis, with where each was registered from, its call and failure counts, a
+     * histogram of its call latencies, its routing averages and the load of its bulkhead.
      *
-     * @return a Uni that emits an HTTP response with the list of provider IDs
+     * @return a Uni that emits an HTTP response with the status of each provider
      */
     @GET
     @Path("/providers")
@@ -115,41 +412,113 @@ public class Analysis {
     }
 
     /**
-     * Triggers a reload of prompt templates from external sources.
+     * Synchronizes the registered providers with the provider directory.
+     *
+     * <p>The directory is also synchronized automatically when it changes, so this is only needed
+     * when it cannot be watched.
+     *
+     * @return an HTTP response with the state of the directory and the status of each provider
+     */
+    @POST
+    @Path("/providers/reload")
+    public Response reloadProviders() {
+        log.info("Provider directory reload requested");
+        providerDirectory.reload();
+        return Response.ok(providerDirectory.status()).build();
+    }
+
+    /**
+     * Retrieves the resilience policy of an AI provider.
+     *
+     * @param providerId the provider ID
+     * @return an HTTP response with the effective policy, or 404 if the provider is unknown
+     */
+    @GET
+    @Path("/providers/{providerId}/resilience")
+    public Response getResiliencePolicy(@PathParam("providerId") String providerId) {
+        if (!providerRegistry.isProviderAvailable(providerId)) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return Response.ok(resiliencePolicies.policyFor(providerId)).build();
+    }
+
+    /**
+     * Updates the resilience policy of an AI provider while the service runs.
+     *
+     * <p>Only the fields present in the request are changed. The update applies from the next call
+     * on and lasts until it is reset or the service restarts.
+     *
+     * @param providerId the provider ID
+     * @param update the settings to change
+     * @return an HTTP response with the updated policy, 400 if it is invalid, or 404 if the
+     *     provider is unknown
+     */
+    @PUT
+    @Path("/providers/{providerId}/resilience")
+    public Response updateResiliencePolicy(
+            @PathParam("providerId") String providerId, ResiliencePolicy update) {
+        if (!providerRegistry.isProviderAvailable(providerId)) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        if (update == null) {
+            throw new BadRequestException("A resilience policy is required");
+        }
+        log.info("Resilience policy update requested for provider: {}", providerId);
+        try {
+            return Response.ok(resiliencePolicies.update(providerId, update)).build();
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    /**
+     * Discards the runtime updates of an AI provider's resilience policy.
      *
-     * <p>Returns information about prompt reloading process. Since prompts are loaded from
-     * Kubernetes ConfigMaps, actual reloading requires ConfigMap recreation.
+     * @param providerId the provider ID
+     * @return an HTTP response with the configured policy, or 404 if the provider is unknown
+     */
+    @DELETE
+    @Path("/providers/{providerId}/resilience")
+    public Response resetResiliencePolicy(@PathParam("providerId") String providerId) {
+        if (!providerRegistry.isProviderAvailable(providerId)) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        log.info("Resilience policy reset requested for provider: {}", providerId);
+        return Response.ok(resiliencePolicies.reset(providerId)).build();
+    }
+
+    /**
+     * Reloads the prompt templates from the template directory.
      *
-     * @return an HTTP response with reload status information
+     * <p>Templates are also reloaded automatically when the directory changes, so this is only
+     * needed when the directory cannot be watched. When the reload fails, the previous templates
+     * stay in use and the response has status {@code 500}.
+     *
+     * @return an HTTP response with the status of the loaded templates
      */
     @POST
     @Path("/prompts/reload")
     public Response reloadPrompts() {
-        log.info("Prompt reload requested - feature requires external prompt ConfigMap");
-        return Response.ok(
-                        Map.of(
-                                "status", "info",
-                                "message",
-                                        "To reload prompts, delete and recreate the prompt ConfigMap"))
+        log.info("Prompt template reload requested");
+        boolean reloaded = promptTemplates.reload();
+        return Response.status(
+                        reloaded ? Response.Status.OK : Response.Status.INTERNAL_SERVER_ERROR)
+                .entity(promptTemplates.status())
                 .build();
     }
 
     /**
      * Retrieves the current status of prompt templates.
      *
-     * <p>Returns information about prompt template status and configuration. Detailed status
-     * information is available in service logs.
+     * <p>Reports the template directory and whether it is watched, when the templates were last
+     * reloaded, and for each template its content version, source, load time and render statistics.
+     * Files in the directory that are not templates rendered by this service are listed as ignored.
      *
      * @return an HTTP response with prompt status information
      */
     @GET
     @Path("/prompts/status")
     public Response getPromptStatus() {
-        return Response.ok(
-                        Map.of(
-                                "status", "info",
-                                "message",
-                                        "Prompt status available in ai-provider-lib service logs"))
-                .build();
+        return Response.ok(promptTemplates.status()).build();
     }
 }
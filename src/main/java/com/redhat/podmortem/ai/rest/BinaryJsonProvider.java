@@ -0,0 +1,124 @@
+package com.redhat.podmortem.ai.rest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads and writes entities in the compact binary encodings of JSON, CBOR and Smile.
+ *
+ * <p>Clients choose the encoding with {@code Content-Type} for requests and {@code Accept} for
+ * responses; JSON stays the default. Both encodings use the same Jackson configuration and modules
+ * as JSON, so the data model is identical. Entities are bound straight from the request stream by a
+ * reader prepared once per type, without an intermediate tree or byte array, which matters for
+ * analysis results with thousands of events.
+ */
+@Provider
+@Consumes({BinaryJsonProvider.APPLICATION_CBOR, BinaryJsonProvider.APPLICATION_SMILE})
+@Produces({BinaryJsonProvider.APPLICATION_CBOR, BinaryJsonProvider.APPLICATION_SMILE})
+public class BinaryJsonProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+
+    /** Media type of CBOR (RFC 8949) encoded entities. */
+    public static final String APPLICATION_CBOR = "application/cbor";
+
+    /** Media type of Smile encoded entities. */
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+
+    @Inject ObjectMapper objectMapper;
+
+    private ObjectMapper cborMapper;
+    private ObjectMapper smileMapper;
+    private ObjectWriter cborWriter;
+    private ObjectWriter smileWriter;
+
+    private final Map<Type, ObjectReader> cborReaders = new ConcurrentHashMap<>();
+    private final Map<Type, ObjectReader> smileReaders = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void initialize() {
+        cborMapper = objectMapper.copyWith(new CBORFactory());
+        smileMapper = objectMapper.copyWith(new SmileFactory());
+        cborWriter = cborMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        smileWriter = smileMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    public boolean isReadable(
+            Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return isBinary(mediaType);
+    }
+
+    @Override
+    public Object readFrom(
+            Class<Object> type,
+            Type genericType,
+            Annotation[] annotations,
+            MediaType mediaType,
+            MultivaluedMap<String, String> httpHeaders,
+            InputStream entityStream)
+            throws IOException {
+        boolean cbor = isCbor(mediaType);
+        ObjectMapper mapper = cbor ? cborMapper : smileMapper;
+        ObjectReader reader =
+                (cbor ? cborReaders : smileReaders)
+                        .computeIfAbsent(
+                                genericType != null ? genericType : type,
+                                key ->
+                                        mapper.readerFor(mapper.constructType(key))
+                                                .without(JsonParser.Feature.AUTO_CLOSE_SOURCE));
+        return reader.readValue(entityStream);
+    }
+
+    @Override
+    public boolean isWriteable(
+            Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return isBinary(mediaType);
+    }
+
+    @Override
+    public void writeTo(
+            Object entity,
+            Class<?> type,
+            Type genericType,
+            Annotation[] annotations,
+            MediaType mediaType,
+            MultivaluedMap<String, Object> httpHeaders,
+            OutputStream entityStream)
+            throws IOException {
+        (isCbor(mediaType) ? cborWriter : smileWriter).writeValue(entityStream, entity);
+    }
+
+    private static boolean isBinary(MediaType mediaType) {
+        return mediaType != null && (isCbor(mediaType) || isSmile(mediaType));
+    }
+
+    private static boolean isCbor(MediaType mediaType) {
+        return "application".equalsIgnoreCase(mediaType.getType())
+                && "cbor".equalsIgnoreCase(mediaType.getSubtype());
+    }
+
+    private static boolean isSmile(MediaType mediaType) {
+        return "application".equalsIgnoreCase(mediaType.getType())
+                && "x-jackson-smile".equalsIgnoreCase(mediaType.getSubtype());
+    }
+}
@@ -0,0 +1,159 @@
+package com.redhat.podmortem.ai.rest;
+
+import com.github.luben.zstd.ZstdInputStreamNoFinalizer;
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
+import com.github.luben.zstd.util.Native;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * HTTP content encodings supported for request and response bodies.
+ *
+ * <p>Bodies are decoded and encoded as streams, so a compressed request is decompressed while it is
+ * parsed rather than inflated into memory first. Zstandard needs the native library of zstd-jni;
+ * when it cannot be loaded, for example in a native image, {@value #ZSTD} is not supported.
+ */
+public final class ContentEncodings {
+
+    public static final String IDENTITY = "identity";
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+    public static final String ZSTD = "zstd";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final boolean ZSTD_AVAILABLE = loadZstd();
+
+    private ContentEncodings() {}
+
+    /**
+     * Checks whether an encoding can be decoded and encoded.
+     *
+     * @param encoding the content encoding, case-insensitive
+     * @return true if the encoding is supported
+     */
+    public static boolean isSupported(String encoding) {
+        return switch (normalize(encoding)) {
+            case IDENTITY, GZIP, DEFLATE -> true;
+            case ZSTD -> ZSTD_AVAILABLE;
+            default -> false;
+        };
+    }
+
+    /**
+     * Checks whether Zstandard is available.
+     *
+     * @return true if the zstd-jni native library is loaded
+     */
+    public static boolean isZstdAvailable() {
+        return ZSTD_AVAILABLE;
+    }
+
+    /**
+     * Checks whether an {@code Accept-Encoding} header accepts an encoding.
+     *
+     * @param acceptEncoding the header value, may be null
+     * @param encoding the encoding to look for
+     * @return true if the encoding is listed without a zero quality value
+     */
+    public static boolean accepts(String acceptEncoding, String encoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parameters = candidate.split(";");
+            if (!parameters[0].strip().equalsIgnoreCase(encoding)) {
+                continue;
+            }
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].strip();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(parameter.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Wraps a stream of encoded content in a stream of the decoded content.
+     *
+     * @param in the encoded stream
+     * @param encoding the content encoding
+     * @return the decoded stream
+     * @throws IOException if the stream header cannot be read
+     * @throws IllegalArgumentException if the encoding is not supported
+     */
+    public static InputStream decoding(InputStream in, String encoding) throws IOException {
+        return switch (normalize(encoding)) {
+            case IDENTITY -> in;
+            case GZIP -> new GZIPInputStream(in, BUFFER_SIZE);
+            case DEFLATE -> new InflaterInputStream(in);
+            case ZSTD -> {
+                requireZstd();
+                yield new ZstdInputStreamNoFinalizer(in);
+            }
+            default -> throw new IllegalArgumentException(
+                    "Unsupported content encoding: " + encoding);
+        };
+    }
+
+    /**
+     * Wraps a stream in a stream encoding what is written to it.
+     *
+     * <p>The returned stream must be closed to complete the encoded content; closing it closes the
+     * wrapped stream.
+     *
+     * @param out the stream receiving the encoded content
+     * @param encoding the content encoding
+     * @param zstdLevel the Zstandard compression level
+     * @return the encoding stream
+     * @throws IOException if the stream header cannot be written
+     * @throws IllegalArgumentException if the encoding is not supported
+     */
+    public static OutputStream encoding(OutputStream out, String encoding, int zstdLevel)
+            throws IOException {
+        return switch (normalize(encoding)) {
+            case IDENTITY -> out;
+            case GZIP -> new GZIPOutputStream(out, BUFFER_SIZE);
+            case DEFLATE -> new DeflaterOutputStream(out);
+            case ZSTD -> {
+                requireZstd();
+                yield new ZstdOutputStreamNoFinalizer(out, zstdLevel);
+            }
+            default -> throw new IllegalArgumentException(
+                    "Unsupported content encoding: " + encoding);
+        };
+    }
+
+    private static String normalize(String encoding) {
+        String normalized = encoding == null ? IDENTITY : encoding.strip().toLowerCase(Locale.ROOT);
+        return normalized.equals("x-gzip") ? GZIP : normalized;
+    }
+
+    private static void requireZstd() {
+        if (!ZSTD_AVAILABLE) {
+            throw new IllegalArgumentException("Zstandard is not available on this platform");
+        }
+    }
+
+    private static boolean loadZstd() {
+        try {
+            Native.load();
+            return Native.isLoaded();
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.redhat.podmortem.ai.rest;
+
+import java.io.IOException;
+
+/**
+ * Thrown while reading a compressed request body once its decompressed size passes {@code
+ * podmortem.http.max-decompressed-size}.
+ *
+ * <p>It is an {@link IOException} so that it passes unchanged through the JSON and binary readers
+ * consuming the stream, and {@link DecompressedSizeExceededExceptionMapper} reports it to clients
+ * as {@code 413 Payload Too Large}.
+ */
+public class DecompressedSizeExceededException extends IOException {
+
+    public DecompressedSizeExceededException(String message) {
+        super(message);
+    }
+}
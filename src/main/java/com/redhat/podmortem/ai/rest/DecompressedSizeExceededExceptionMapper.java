@@ -0,0 +1,25 @@
+package com.redhat.podmortem.ai.rest;
+
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Maps a request body that decompresses beyond the configured limit to a 413 response. */
+@Provider
+public class DecompressedSizeExceededExceptionMapper
+        implements ExceptionMapper<DecompressedSizeExceededException> {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(DecompressedSizeExceededExceptionMapper.class);
+
+    @Override
+    public Response toResponse(DecompressedSizeExceededException exception) {
+        log.warn("Rejected request body: {}", exception.getMessage());
+        return Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE)
+                .entity(Map.of("status", "error", "message", exception.getMessage()))
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.redhat.podmortem.ai.rest;
+
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.ws.rs.NotSupportedException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.ReaderInterceptor;
+import jakarta.ws.rs.ext.ReaderInterceptorContext;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Decompresses request bodies sent with a {@code Content-Encoding} of {@code gzip}, {@code deflate}
+ * or {@code zstd}.
+ *
+ * <p>The body is decompressed while the entity is read, so large compressed payloads are never held
+ * in memory in their decompressed form before they are parsed. Decompressed bodies larger than
+ * {@code podmortem.http.max-decompressed-size} fail with {@link DecompressedSizeExceededException},
+ * reported as {@code 413 Payload Too Large}, and unsupported encodings are rejected with {@code 415
+ * Unsupported Media Type}.
+ */
+@Provider
+public class RequestDecompressionInterceptor implements ReaderInterceptor {
+
+    @ConfigProperty(name = "podmortem.http.max-decompressed-size", defaultValue = "64M")
+    MemorySize maxDecompressedSize;
+
+    @Override
+    public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException {
+        String encoding = context.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (encoding == null || encoding.equalsIgnoreCase(ContentEncodings.IDENTITY)) {
+            return context.proceed();
+        }
+        if (!ContentEncodings.isSupported(encoding)) {
+            throw new NotSupportedException("Unsupported content encoding: " + encoding);
+        }
+
+        context.setInputStream(
+                new LimitedInputStream(
+                        ContentEncodings.decoding(context.getInputStream(), encoding),
+                        maxDecompressedSize.asLongValue()));
+        context.getHeaders().remove(HttpHeaders.CONTENT_ENCODING);
+        context.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+        return context.proceed();
+    }
+
+    /** Fails once more than a given number of bytes has been read. */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long read;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) throws DecompressedSizeExceededException {
+            read += n;
+            if (read > limit) {
+                throw new DecompressedSizeExceededException(
+                        "Decompressed request body exceeds " + limit + " bytes");
+            }
+        }
+    }
+}
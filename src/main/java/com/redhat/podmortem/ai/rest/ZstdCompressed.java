@@ -0,0 +1,20 @@
+package com.redhat.podmortem.ai.rest;
+
+import jakarta.ws.rs.NameBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks endpoints whose response entities are compressed with Zstandard for clients accepting it.
+ *
+ * <p>Only endpoints returning a single entity should be marked; streamed responses are compressed
+ * with gzip by the HTTP layer instead.
+ *
+ * @see ZstdResponseInterceptor
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface ZstdCompressed {}
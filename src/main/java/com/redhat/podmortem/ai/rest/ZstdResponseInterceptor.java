@@ -0,0 +1,73 @@
+package com.redhat.podmortem.ai.rest;
+
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Compresses the responses of {@link ZstdCompressed} endpoints with Zstandard.
+ *
+ * <p>Applies when the client lists {@code zstd} in {@code Accept-Encoding} and the response has no
+ * encoding yet. Other clients get gzip from the HTTP layer when {@code
+ * quarkus.http.enable-compression} is set. Disabled with {@code podmortem.http.zstd.enabled}.
+ */
+@Provider
+@ZstdCompressed
+public class ZstdResponseInterceptor implements WriterInterceptor {
+
+    @Context HttpHeaders requestHeaders;
+
+    @ConfigProperty(name = "podmortem.http.zstd.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "podmortem.http.zstd.level", defaultValue = "3")
+    int level;
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        if (!enabled
+                || !ContentEncodings.isZstdAvailable()
+                || context.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)
+                || !ContentEncodings.accepts(
+                        requestHeaders.getHeaderString(HttpHeaders.ACCEPT_ENCODING),
+                        ContentEncodings.ZSTD)) {
+            context.proceed();
+            return;
+        }
+
+        context.getHeaders().putSingle(HttpHeaders.CONTENT_ENCODING, ContentEncodings.ZSTD);
+        context.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        context.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+        OutputStream entity = context.getOutputStream();
+        // closing the encoder completes the frame, the entity stream is left to the runtime
+        OutputStream encoder =
+                ContentEncodings.encoding(
+                        new FilterOutputStream(entity) {
+                            @Override
+                            public void write(byte[] buffer, int offset, int length)
+                                    throws IOException {
+                                out.write(buffer, offset, length);
+                            }
+
+                            @Override
+                            public void close() throws IOException {
+                                flush();
+                            }
+                        },
+                        ContentEncodings.ZSTD,
+                        level);
+        context.setOutputStream(encoder);
+        try {
+            context.proceed();
+        } finally {
+            encoder.close();
+            context.setOutputStream(entity);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.redhat.podmortem.ai.service;
+
+import com.redhat.podmortem.common.model.analysis.AnalysisResult;
+import com.redhat.podmortem.common.model.analysis.MatchedEvent;
+import com.redhat.podmortem.common.model.provider.AIProviderConfig;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Computes stable content fingerprints for analysis results.
+ *
+ * <p>Two analysis results describing the same failure produce the same fingerprint even when they
+ * come from different pods or runs. Analysis IDs and timestamps are ignored, and events are
+ * compared by matched pattern ID, severity and a normalized form of the matched log line in which
+ * pod names, UUIDs, addresses and numbers are replaced by placeholders.
+ */
+public final class AnalysisFingerprint {
+
+    private static final Pattern TIMESTAMP =
+            Pattern.compile(
+                    "\\d{4}-\\d{2}-\\d{2}[T ]\\d{2}:\\d{2}:\\d{2}"
+                            + "(?:[.,]\\d+)?(?:Z|[+-]\\d{2}:?\\d{2})?");
+    private static final Pattern UUID =
+            Pattern.compile(
+                    "\\b[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}"
+                            + "-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}\\b");
+    private static final Pattern POD_NAME =
+            Pattern.compile("\\b([a-z0-9](?:[-a-z0-9]*[a-z0-9])?)-[a-z0-9]{8,10}-[a-z0-9]{5}\\b");
+    private static final Pattern POD_SUFFIX =
+            Pattern.compile("-[bcdfghjklmnpqrstvwxz2456789]{5}\\b");
+    private static final Pattern IP_ADDRESS =
+            Pattern.compile("\\b\\d{1,3}(?:\\.\\d{1,3}){3}(?::\\d+)?\\b");
+    private static final Pattern HEX = Pattern.compile("\\b(?:0x[0-9a-fA-F]+|[0-9a-f]{8,})\\b");
+    private static final Pattern NUMBER = Pattern.compile("\\d+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private AnalysisFingerprint() {}
+
+    /**
+     * Computes the fingerprint of an analysis result for a given provider and model.
+     *
+     * @param analysisResult the log analysis results to fingerprint
+     * @param providerConfig the AI provider configuration the result will be sent to
+     * @return a hex-encoded SHA-256 fingerprint
+     */
+    public static String of(AnalysisResult analysisResult, AIProviderConfig providerConfig) {
+        MessageDigest digest = sha256();
+        update(digest, providerConfig.getProviderId());
+        update(digest, providerConfig.getModelId());
+        for (String signature : eventSignatures(analysisResult)) {
+            update(digest, signature);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Builds the sorted list of normalized event signatures for an analysis result.
+     *
+     * <p>Each signature combines the matched pattern ID, its severity and the normalized matched
+     * line. The list is sorted so the fingerprint does not depend on event order.
+     *
+     * @param analysisResult the log analysis results
+     * @return the sorted event signatures, empty if the result has no events
+     */
+    public static List<String> eventSignatures(AnalysisResult analysisResult) {
+        if (analysisResult.getEvents() == null || analysisResult.getEvents().isEmpty()) {
+            return List.of();
+        }
+
+        List<String> signatures = new ArrayList<>(analysisResult.getEvents().size());
+        for (MatchedEvent event : analysisResult.getEvents()) {
+            signatures.add(signature(event));
+        }
+        Collections.sort(signatures);
+        return signatures;
+    }
+
+    /**
+     * Builds the normalized signature of a single event.
+     *
+     * @param event the matched event
+     * @return the signature combining pattern ID, severity and normalized matched line
+     */
+    public static String signature(MatchedEvent event) {
+        String patternId = null;
+        String severity = null;
+        if (event.getMatchedPattern() != null) {
+            patternId = event.getMatchedPattern().getId();
+            severity = event.getMatchedPattern().getSeverity();
+        }
+        String line = event.getContext() != null ? event.getContext().getMatchedLine() : null;
+        return patternId + '|' + severity + '|' + normalizeLine(line);
+    }
+
+    /**
+     * Normalizes a log line by replacing volatile tokens with placeholders.
+     *
+     * @param line the raw log line, may be null
+     * @return the normalized line, or an empty string for null input
+     */
+    public static String normalizeLine(String line) {
+        if (line == null || line.isEmpty()) {
+            return "";
+        }
+        String normalized = TIMESTAMP.matcher(line).replaceAll("<ts>");
+        normalized = UUID.matcher(normalized).replaceAll("<uuid>");
+        normalized = POD_NAME.matcher(normalized).replaceAll("$1-<pod>");
+        normalized = POD_SUFFIX.matcher(normalized).replaceAll("-<pod>");
+        normalized = IP_ADDRESS.matcher(normalized).replaceAll("<ip>");
+        normalized = HEX.matcher(normalized).replaceAll("<hex>");
+        normalized = NUMBER.matcher(normalized).replaceAll("<n>");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        // separator so that adjacent fields cannot run into each other
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
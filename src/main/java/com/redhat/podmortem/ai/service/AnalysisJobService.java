@@ -0,0 +1,225 @@
+package com.redhat.podmortem.ai.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.podmortem.ai.model.AnalysisJob;
+import com.redhat.podmortem.common.model.analysis.AnalysisRequest;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.cache.CaffeineCache;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Service running analyses as asynchronous jobs.
+ *
+ * <p>Jobs are queued into a bounded in-process worker pool and run through {@link
+ * AnalysisService#analyze}. Running and queued jobs are tracked in memory; finished jobs are moved
+ * to the size and TTL bounded {@code analysis-jobs} cache where they can be polled until they
+ * expire. When a job carries a callback URL, its final state is POSTed to that URL. Callback URLs
+ * are restricted to the hosts listed in {@code podmortem.jobs.callback-allowed-hosts}, so the
+ * service cannot be used to send requests to arbitrary internal endpoints.
+ */
+@ApplicationScoped
+public class AnalysisJobService {
+
+    private static final Logger LOG = Logger.getLogger(AnalysisJobService.class);
+
+    @Inject AnalysisService analysisService;
+
+    @Inject ObjectMapper objectMapper;
+
+    @Inject MeterRegistry meterRegistry;
+
+    @Inject
+    @CacheName("analysis-jobs")
+    Cache completedJobs;
+
+    @ConfigProperty(name = "podmortem.jobs.max-concurrent", defaultValue = "16")
+    int maxConcurrent;
+
+    @ConfigProperty(name = "podmortem.jobs.max-queued", defaultValue = "256")
+    int maxQueued;
+
+    @ConfigProperty(name = "podmortem.jobs.retry-after", defaultValue = "30s")
+    Duration retryAfter;
+
+    @ConfigProperty(name = "podmortem.jobs.callback-timeout", defaultValue = "10s")
+    Duration callbackTimeout;
+
+    @ConfigProperty(name = "podmortem.jobs.callback-allowed-hosts")
+    Optional<List<String>> callbackAllowedHosts;
+
+    private final Map<String, AnalysisJob> activeJobs = new ConcurrentHashMap<>();
+
+    private ConcurrencyLimiter workers;
+
+    private HttpClient callbackClient;
+
+    @PostConstruct
+    void initialize() {
+        this.workers =
+                new ConcurrencyLimiter("analysis jobs", maxConcurrent, maxQueued, retryAfter);
+        this.callbackClient = HttpClient.newBuilder().connectTimeout(callbackTimeout).build();
+
+        Gauge.builder("podmortem.jobs.active", activeJobs, Map::size)
+                .description("Analysis jobs queued or running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Submits an analysis request as an asynchronous job.
+     *
+     * @param request the analysis request to run
+     * @param callbackUrl optional URL notified with the final job state, may be null
+     * @param options the request options used to schedule the provider call
+     * @return the queued job
+     * @throws ProviderOverloadedException if the job queue is full
+     * @throws IllegalArgumentException if the callback URL is not an absolute HTTP(S) URL or its
+     *     host is not allowed
+     */
+    public AnalysisJob submit(
+            AnalysisRequest request, String callbackUrl, AnalysisOptions options) {
+        if (callbackUrl != null && !isHttpUrl(callbackUrl)) {
+            throw new IllegalArgumentException("Invalid callback URL: " + callbackUrl);
+        }
+        if (callbackUrl != null && !isAllowedHost(callbackUrl)) {
+            throw new IllegalArgumentException("Callback host not allowed: " + callbackUrl);
+        }
+
+        AnalysisJob job = new AnalysisJob(UUID.randomUUID().toString(), callbackUrl);
+        activeJobs.put(job.getId(), job);
+
+        // the worker queue is checked synchronously on subscription, so a full queue fails the
+        // job before this method returns
+        workers.submit(
+                        () -> {
+                            job.markRunning();
+                            return analysisService.analyze(
+                                    request.getAnalysisResult(),
+                                    request.getProviderConfig(),
+                                    options);
+                        })
+                .subscribe()
+                .with(
+                        response -> {
+                            job.markSucceeded(response);
+                            complete(job);
+                        },
+                        failure -> {
+                            if (job.getStartedAt() == null) {
+                                activeJobs.remove(job.getId());
+                                job.markFailed(failure.getMessage());
+                                return;
+                            }
+                            LOG.errorf(failure, "Analysis job %s failed", job.getId());
+                            job.markFailed(failure.getMessage());
+                            complete(job);
+                        });
+
+        if (job.getStatus() == AnalysisJob.Status.FAILED && job.getStartedAt() == null) {
+            throw new ProviderOverloadedException("Analysis job queue is full", retryAfter);
+        }
+
+        LOG.infof("Queued analysis job %s", job.getId());
+        return job;
+    }
+
+    /**
+     * Looks up a job by its ID.
+     *
+     * @param jobId the job identifier
+     * @return the job, or empty if it is unknown or has expired
+     */
+    public Optional<AnalysisJob> getJob(String jobId) {
+        AnalysisJob job = activeJobs.get(jobId);
+        if (job != null) {
+            return Optional.of(job);
+        }
+        CompletableFuture<AnalysisJob> completed =
+                completedJobs.as(CaffeineCache.class).getIfPresent(jobId);
+        return Optional.ofNullable(completed != null ? completed.getNow(null) : null);
+    }
+
+    private void complete(AnalysisJob job) {
+        completedJobs
+                .as(CaffeineCache.class)
+                .put(job.getId(), CompletableFuture.completedFuture(job));
+        activeJobs.remove(job.getId());
+
+        if (job.getCallbackUrl() != null) {
+            notifyCallback(job);
+        }
+    }
+
+    private void notifyCallback(AnalysisJob job) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(job);
+        } catch (JsonProcessingException e) {
+            LOG.errorf(e, "Failed to serialize analysis job %s for callback", job.getId());
+            return;
+        }
+
+        HttpRequest callback =
+                HttpRequest.newBuilder(URI.create(job.getCallbackUrl()))
+                        .timeout(callbackTimeout)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                        .build();
+
+        Uni.createFrom()
+                .completionStage(
+                        () ->
+                                callbackClient.sendAsync(
+                                        callback, HttpResponse.BodyHandlers.discarding()))
+                .subscribe()
+                .with(
+                        response ->
+                                LOG.debugf(
+                                        "Callback for analysis job %s returned %d",
+                                        job.getId(), response.statusCode()),
+                        failure ->
+                                LOG.warnf(
+                                        failure,
+                                        "Callback for analysis job %s to %s failed",
+                                        job.getId(),
+                                        job.getCallbackUrl()));
+    }
+
+    private boolean isAllowedHost(String url) {
+        String host = URI.create(url).getHost().toLowerCase(Locale.ROOT);
+        return callbackAllowedHosts.orElse(List.of()).stream()
+                .anyMatch(allowed -> allowed.toLowerCase(Locale.ROOT).equals(host));
+    }
+
+    private static boolean isHttpUrl(String url) {
+        try {
+            URI uri = URI.create(url);
+            return uri.isAbsolute()
+                    && uri.getHost() != null
+                    && ("http".equalsIgnoreCase(uri.getScheme())
+                            || "https".equalsIgnoreCase(uri.getScheme()));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.redhat.podmortem.ai.service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Per-request options of an analysis that are not part of the analysis request itself.
+ *
+ * <p>Options are given by the caller, typically from HTTP headers, and are used for scheduling and
+ * for recognizing follow-up analyses of the same workload, and carry the deadline after which the
+ * caller no longer waits for the result. They are not part of the response cache key.
+ */
+public final class AnalysisOptions {
+
+    private static final AnalysisOptions NONE = new AnalysisOptions(null, null, null);
+
+    private final String namespace;
+    private final String workload;
+    private final Instant deadline;
+
+    private AnalysisOptions(String namespace, String workload, Instant deadline) {
+        this.namespace = namespace;
+        this.workload = workload;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Gets the options of a request that carries none.
+     *
+     * @return the default options
+     */
+    public static AnalysisOptions none() {
+        return NONE;
+    }
+
+    /**
+     * Creates the options of a request made on behalf of a namespace.
+     *
+     * @param namespace the Kubernetes namespace of the failed pod, may be null or blank
+     * @return the options, the default options if no namespace is given
+     */
+    public static AnalysisOptions forNamespace(String namespace) {
+        return of(namespace, null);
+    }
+
+    /**
+     * Creates the options of a request for a workload in a namespace.
+     *
+     * @param namespace the Kubernetes namespace of the failed pod, may be null or blank
+     * @param workload the name of the workload owning the failed pod, may be null or blank
+     * @return the options, the default options if neither is given
+     */
+    public static AnalysisOptions of(String namespace, String workload) {
+        String ns = strip(namespace);
+        String name = strip(workload);
+        return ns == null && name == null ? NONE : new AnalysisOptions(ns, name, null);
+    }
+
+    /**
+     * Creates a copy of these options whose caller waits at most the given time for the result.
+     *
+     * @param timeout how long the caller waits from now, or null if it waits indefinitely
+     * @return the options with the resulting deadline
+     */
+    public AnalysisOptions withTimeout(Duration timeout) {
+        if (timeout == null) {
+            return this;
+        }
+        return new AnalysisOptions(namespace, workload, Instant.now().plus(timeout));
+    }
+
+    /**
+     * Gets the namespace used to share rate limited provider capacity fairly.
+     *
+     * @return the namespace, or null if the request carries none
+     */
+    public String getNamespace() {
+        return namespace;
+    }
+
+    /**
+     * Gets the workload whose successive failures are analyzed incrementally.
+     *
+     * @return the workload name, or null if the request carries none
+     */
+    public String getWorkload() {
+        return workload;
+    }
+
+    /**
+     * Gets the deadline after which the caller no longer waits for the result.
+     *
+     * @return the deadline, or null if the caller waits indefinitely
+     */
+    public Instant getDeadline() {
+        return deadline;
+    }
+
+    private static String strip(String value) {
+        return value == null || value.isBlank() ? null : value.strip();
+    }
+}
@@ -1,19 +1,42 @@
 package com.redhat.podmortem.ai.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.podmortem.ai.model.AnalysisStreamEvent;
+import com.redhat.podmortem.ai.model.BatchAnalysisResult;
+import com.redhat.podmortem.ai.model.ProviderStatus;
+import com.redhat.podmortem.ai.model.ResiliencePolicy;
+import com.redhat.podmortem.ai.service.AnalysisTelemetry.Stage;
+import com.redhat.podmortem.ai.service.AnalysisTelemetry.StageTimer;
+import com.redhat.podmortem.common.model.analysis.AnalysisRequest;
 import com.redhat.podmortem.common.model.analysis.AnalysisResult;
 import com.redhat.podmortem.common.model.provider.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.cache.CaffeineCache;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
-import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
-import org.eclipse.microprofile.faulttolerance.Fallback;
-import org.eclipse.microprofile.faulttolerance.Retry;
-import org.eclipse.microprofile.faulttolerance.Timeout;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+import org.eclipse.microprofile.faulttolerance.exceptions.TimeoutException;
 import org.jboss.logging.Logger;
 
 /**
@@ -30,24 +53,1057 @@ public class AnalysisService {
 
     @Inject ProviderRegistry providerRegistry;
 
+    @Inject ProviderRouter providerRouter;
+
+    @Inject ProviderEnsemble providerEnsemble;
+
+    @Inject ResiliencePolicies resiliencePolicies;
+
+    @Inject EventPruner eventPruner;
+
+    @Inject ObjectMapper objectMapper;
+
+    @Inject MeterRegistry meterRegistry;
+
+    @Inject AnalysisTelemetry telemetry;
+
+    @Inject ExplanationStore explanationStore;
+
+    @Inject RateLimits rateLimits;
+
+    @Inject AnalysisSessions analysisSessions;
+
+    @Inject
+    @CacheName("analysis-responses")
+    Cache responseCache;
+
+    @ConfigProperty(name = "podmortem.batch.max-concurrency", defaultValue = "8")
+    int batchMaxConcurrency;
+
+    @ConfigProperty(name = "podmortem.retry.max-retries", defaultValue = "3")
+    int maxRetries;
+
+    @ConfigProperty(name = "podmortem.retry.delay", defaultValue = "1s")
+    Duration retryDelay;
+
+    @ConfigProperty(name = "podmortem.retry.max-delay", defaultValue = "30s")
+    Duration maxRetryDelay;
+
+    @ConfigProperty(name = "podmortem.retry.budget-percentile", defaultValue = "0.5")
+    double retryBudgetPercentile;
+
+    private final Map<String, SharedCall> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void registerMetrics() {
+        meterRegistry.gaugeMapSize("podmortem.analysis.inflight", Tags.empty(), inFlight);
+    }
+
+    /**
+     * Analyzes a pod failure, answering repeated failures from the response cache.
+     *
+     * <p>Responses are cached by a content fingerprint of the analysis result together with the
+     * provider and model, so replicas of a crash-looping workload share a single AI explanation.
+     * Cache misses are answered from the persistent {@link ExplanationStore} when it holds the same
+     * or a similar enough failure, and otherwise delegated to {@link #analyzeFailure}. Successful
+     * provider responses are added to the store. Concurrent misses for the same fingerprint are
+     * coalesced onto a single in-flight provider call. Every caller receives its own copy of the
+     * response, enriched with the metadata of its analysis. Provider calls are admitted through the
+     * provider's rate limit and bulkhead, which fail with {@link ProviderOverloadedException} when
+     * the call cannot be admitted in time or the wait queue is full.
+     *
+     * @param analysisResult the log analysis results from the log parser
+     * @param providerConfig the AI provider configuration and parameters
+     * @return a Uni that emits the AI-generated failure explanation
+     */
+    public Uni<AIResponse> analyze(AnalysisResult analysisResult, AIProviderConfig providerConfig) {
+        return analyze(analysisResult, providerConfig, AnalysisOptions.none());
+    }
+
+    /**
+     * Analyzes a pod failure with per-request options.
+     *
+     * <p>The namespace of the options is used to share rate limited provider capacity fairly. When
+     * the options name a workload, follow-up failures of that workload are sent to the provider as
+     * an update of its previous explanation, see {@link AnalysisSessions}. When the options carry a
+     * deadline, the analysis fails with {@link DeadlineExceededException} once it passes, and
+     * retries of the provider call are only made while the remaining time covers the provider's
+     * expected latency. Cancelling the returned Uni, for example because the client disconnected,
+     * cancels the provider call unless other callers are still waiting for it.
+     *
+     * <p>When the provider's circuit breaker is open or its call times out, after any retries, the
+     * analysis is answered with a pattern-based explanation from {@link
+     * #generateFallbackExplanation} instead of failing.
+     *
+     * @param analysisResult the log analysis results from the log parser
+     * @param providerConfig the AI provider configuration and parameters
+     * @param options the request options used to schedule the provider call
+     * @return a Uni that emits the AI-generated failure explanation
+     * @see #analyze(AnalysisResult, AIProviderConfig)
+     */
+    public Uni<AIResponse> analyze(
+            AnalysisResult analysisResult,
+            AIProviderConfig providerConfig,
+            AnalysisOptions options) {
+        Uni<AIResponse> analysis =
+                Uni.createFrom()
+                        .deferred(
+                                () -> {
+                                    StageTimer total =
+                                            telemetry.start(Stage.END_TO_END, providerConfig);
+                                    return analyzeCached(
+                                                    analysisResult, providerConfig, options, total)
+                                            .onTermination()
+                                            .invoke(
+                                                    (item, failure, cancelled) ->
+                                                            total.stop(failure, cancelled));
+                                })
+                        .onFailure(AnalysisService::isProviderUnavailable)
+                        .recoverWithUni(
+                                failure -> {
+                                    LOG.warnf(
+                                            "Provider %s unavailable for analysis ID %s: %s",
+                                            providerConfig.getProviderId(),
+                                            analysisResult.getAnalysisId(),
+                                            failure.getMessage());
+                                    return generateFallbackExplanation(
+                                            analysisResult, providerConfig);
+                                });
+        return withDeadline(
+                analysis, options.getDeadline(), "analysis " + analysisResult.getAnalysisId());
+    }
+
+    /**
+     * Fails a Uni that has not emitted its item by a deadline, cancelling it.
+     *
+     * @param uni the Uni to bound
+     * @param deadline the deadline, or null to leave the Uni unbounded
+     * @param what what is being waited for, used in the failure message
+     * @return the bounded Uni
+     */
+    private static <T> Uni<T> withDeadline(Uni<T> uni, Instant deadline, String what) {
+        if (deadline == null) {
+            return uni;
+        }
+        return Uni.createFrom()
+                .deferred(
+                        () -> {
+                            Duration remaining = Duration.between(Instant.now(), deadline);
+                            if (remaining.isNegative() || remaining.isZero()) {
+                                return Uni.createFrom()
+                                        .failure(
+                                                new DeadlineExceededException(
+                                                        "Deadline passed before " + what));
+                            }
+                            return uni.ifNoItem()
+                                    .after(remaining)
+                                    .failWith(
+                                            () ->
+                                                    new DeadlineExceededException(
+                                                            "Deadline passed while waiting for "
+                                                                    + what));
+                        });
+    }
+
+    /**
+     * Checks whether a failure means the provider is unavailable, so a fallback explanation is
+     * served instead.
+     *
+     * @param failure the failure of the analysis
+     * @return true if the provider's circuit breaker is open or its call timed out, but not when
+     *     the caller's deadline passed
+     */
+    private static boolean isProviderUnavailable(Throwable failure) {
+        return failure instanceof CircuitBreakerOpenException
+                || (failure instanceof TimeoutException
+                        && !(failure instanceof DeadlineExceededException));
+    }
+
+    /**
+     * Fails a Multi that has not completed by a deadline, cancelling it.
+     *
+     * @param multi the Multi to bound
+     * @param deadline the deadline, or null to leave the Multi unbounded
+     * @param what what is being waited for, used in the failure message
+     * @return the bounded Multi
+     */
+    private static <T> Multi<T> withDeadline(Multi<T> multi, Instant deadline, String what) {
+        if (deadline == null) {
+            return multi;
+        }
+        return Multi.createFrom()
+                .deferred(
+                        () -> {
+                            Duration remaining = Duration.between(Instant.now(), deadline);
+                            if (remaining.isNegative() || remaining.isZero()) {
+                                return Multi.createFrom()
+                                        .failure(
+                                                new DeadlineExceededException(
+                                                        "Deadline passed before " + what));
+                            }
+                            return failAfter(
+                                    multi,
+                                    remaining,
+                                    () ->
+                                            new DeadlineExceededException(
+                                                    "Deadline passed while waiting for " + what));
+                        });
+    }
+
+    /**
+     * Fails a Multi that has not completed within a timeout, cancelling it.
+     *
+     * <p>Unlike {@code ifNoItem()}, which bounds the time between items, the timeout bounds the
+     * whole stream, so a provider trickling fragments cannot hold its bulkhead slot forever.
+     *
+     * @param multi the Multi to bound
+     * @param timeout the longest time the Multi may take to complete
+     * @param failure supplies the failure emitted when the timeout passes
+     * @return the bounded Multi
+     */
+    private static <T> Multi<T> failAfter(
+            Multi<T> multi, Duration timeout, Supplier<? extends Throwable> failure) {
+        return Multi.createFrom()
+                .deferred(
+                        () -> {
+                            AtomicBoolean completed = new AtomicBoolean();
+                            return multi.onCompletion()
+                                    .invoke(() -> completed.set(true))
+                                    .select()
+                                    .first(timeout)
+                                    .onCompletion()
+                                    .switchTo(
+                                            () ->
+                                                    completed.get()
+                                                            ? Multi.createFrom().<T>empty()
+                                                            : Multi.createFrom()
+                                                                    .<T>failure(failure.get()));
+                        });
+    }
+
+    /**
+     * Answers an analysis from the response cache or an in-flight call, or starts a new call.
+     *
+     * @param analysisResult the log analysis results
+     * @param providerConfig the AI provider configuration
+     * @param options the request options used to schedule the provider call
+     * @param total the end-to-end timer, tagged with how the analysis was answered
+     * @return a Uni that emits the caller's copy of the response
+     */
+    private Uni<AIResponse> analyzeCached(
+            AnalysisResult analysisResult,
+            AIProviderConfig providerConfig,
+            AnalysisOptions options,
+            StageTimer total) {
+        String fingerprint = AnalysisFingerprint.of(analysisResult, providerConfig);
+        CaffeineCache cache = responseCache.as(CaffeineCache.class);
+
+        CompletableFuture<AIResponse> cached = cache.getIfPresent(fingerprint);
+        if (cached != null) {
+            LOG.debugf(
+                    "Response cache hit for analysis ID: %s (fingerprint %s)",
+                    analysisResult.getAnalysisId(), fingerprint);
+            total.tag("cache", "hit");
+            return Uni.createFrom()
+                    .completionStage(cached)
+                    .map(response -> enrich(copyOf(response), analysisResult, providerConfig));
+        }
+
+        // a follow-up is answered by updating the workload's last explanation, not a similar one
+        Optional<AnalysisSessions.FollowUp> followUp =
+                analysisSessions.followUp(analysisResult, providerConfig, options);
+        Optional<AIResponse> stored =
+                followUp.isPresent()
+                        ? Optional.empty()
+                        : explanationStore.find(fingerprint, analysisResult, providerConfig);
+        if (stored.isPresent()) {
+            LOG.debugf(
+                    "Explanation store hit for analysis ID: %s (fingerprint %s)",
+                    analysisResult.getAnalysisId(), fingerprint);
+            total.tag("cache", "store");
+            cache.put(fingerprint, CompletableFuture.completedFuture(copyOf(stored.get())));
+            return Uni.createFrom().item(enrich(stored.get(), analysisResult, providerConfig));
+        }
+
+        // single-flight: the first caller starts the provider call, later duplicates share it.
+        // the call is cancelled once every caller has stopped waiting for it.
+        AtomicBoolean leader = new AtomicBoolean();
+        SharedCall shared;
+        do {
+            shared =
+                    inFlight.computeIfAbsent(
+                            fingerprint,
+                            key -> {
+                                leader.set(true);
+                                return new SharedCall(
+                                        call ->
+                                                startCall(
+                                                        key,
+                                                        call,
+                                                        analysisResult,
+                                                        providerConfig,
+                                                        options,
+                                                        followUp.orElse(null)));
+                            });
+            if (!shared.join(options.getDeadline())) {
+                // abandoned by its last caller, but not removed yet
+                inFlight.remove(fingerprint, shared);
+                shared = null;
+            }
+        } while (shared == null);
+
+        total.tag("cache", leader.get() ? "miss" : "coalesced");
+        if (!leader.get()) {
+            LOG.debugf(
+                    "Coalescing analysis ID: %s onto in-flight request (fingerprint %s)",
+                    analysisResult.getAnalysisId(), fingerprint);
+            meterRegistry
+                    .counter(
+                            "podmortem.analysis.coalesced",
+                            "provider",
+                            telemetry.providerTag(providerConfig))
+                    .increment();
+        }
+
+        return shared.result()
+                .map(response -> enrich(copyOf(response), analysisResult, providerConfig));
+    }
+
+    /**
+     * Starts the provider call shared by every caller analyzing the same failure.
+     *
+     * <p>The response is added to the response cache and the explanation store. The call is removed
+     * from the in-flight calls when it terminates, including when it is cancelled because every
+     * caller stopped waiting for it.
+     *
+     * @param fingerprint the content fingerprint of the analysis
+     * @param call the shared call, whose deadline bounds the provider call and its retries
+     * @param analysisResult the log analysis results
+     * @param providerConfig the AI provider configuration
+     * @param options the request options of the caller that started the call
+     * @param followUp the incremental analysis to send instead, or null for a full analysis
+     * @return a Uni that emits the provider response
+     */
+    private Uni<AIResponse> startCall(
+            String fingerprint,
+            SharedCall call,
+            AnalysisResult analysisResult,
+            AIProviderConfig providerConfig,
+            AnalysisOptions options,
+            AnalysisSessions.FollowUp followUp) {
+        CaffeineCache cache = responseCache.as(CaffeineCache.class);
+        return callIncremental(analysisResult, providerConfig, options, followUp, call::getDeadline)
+                .invoke(
+                        response -> {
+                            cache.put(
+                                    fingerprint,
+                                    CompletableFuture.completedFuture(copyOf(response)));
+                            explanationStore.store(
+                                    fingerprint, analysisResult, providerConfig, copyOf(response));
+                        })
+                .onCancellation()
+                .invoke(
+                        () ->
+                                meterRegistry
+                                        .counter(
+                                                "podmortem.analysis.abandoned",
+                                                "provider",
+                                                telemetry.providerTag(providerConfig))
+                                        .increment())
+                .onTermination()
+                .invoke(() -> inFlight.remove(fingerprint, call));
+    }
+
+    /**
+     * Calls the provider with only the new events of a follow-up analysis, if there is one, and
+     * records the response as the workload's latest session state.
+     *
+     * @param analysisResult the full log analysis results
+     * @param providerConfig the AI provider configuration
+     * @param options the request options naming the workload
+     * @param followUp the incremental analysis to send instead, or null for a full analysis
+     * @param deadline supplies the current deadline of the call, null if it has none
+     * @return a Uni that emits the AI-generated failure explanation
+     */
+    private Uni<AIResponse> callIncremental(
+            AnalysisResult analysisResult,
+            AIProviderConfig providerConfig,
+            AnalysisOptions options,
+            AnalysisSessions.FollowUp followUp,
+            Supplier<Instant> deadline) {
+        if (followUp == null) {
+            return callProvider(analysisResult, providerConfig, options, deadline)
+                    .invoke(
+                            response ->
+                                    analysisSessions.record(
+                                            analysisResult,
+                                            providerConfig,
+                                            options,
+                                            response,
+                                            null));
+        }
+
+        meterRegistry
+                .counter(
+                        "podmortem.analysis.incremental",
+                        "provider",
+                        telemetry.providerTag(providerConfig))
+                .increment();
+        return callProvider(followUp.getAnalysisResult(), providerConfig, options, deadline)
+                .map(followUp::recordTo)
+                .invoke(
+                        response ->
+                                analysisSessions.record(
+                                        analysisResult,
+                                        providerConfig,
+                                        options,
+                                        response,
+                                        followUp));
+    }
+
+    /**
+     * Analyzes a batch of pod failures with bounded parallelism.
+     *
+     * <p>Requests with the same content fingerprint are analyzed once and the response is shared
+     * between them. Distinct requests run concurrently, up to {@code
+     * podmortem.batch.max-concurrency} at a time, and results are emitted as soon as each one
+     * completes, so a slow item does not hold back the others. Every item carries its position in
+     * the batch and its own status.
+     *
+     * @param requests the analysis requests to process
+     * @param options the request options used to schedule the provider calls
+     * @return a Multi that emits one result per request, in completion order
+     */
+    public Multi<BatchAnalysisResult> analyzeBatch(
+            List<AnalysisRequest> requests, AnalysisOptions options) {
+        List<BatchAnalysisResult> invalid = new ArrayList<>();
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            AnalysisRequest request = requests.get(i);
+            if (request == null
+                    || request.getAnalysisResult() == null
+                    || request.getProviderConfig() == null) {
+                invalid.add(
+                        BatchAnalysisResult.failure(
+                                i, 400, "Request must contain analysisResult and providerConfig"));
+                continue;
+            }
+            String fingerprint =
+                    AnalysisFingerprint.of(
+                            request.getAnalysisResult(), request.getProviderConfig());
+            groups.computeIfAbsent(fingerprint, key -> new ArrayList<>()).add(i);
+        }
+
+        LOG.infof(
+                "Batch analysis of %d requests: %d distinct, %d invalid",
+                requests.size(), groups.size(), invalid.size());
+
+        Multi<BatchAnalysisResult> analyzed =
+                Multi.createFrom()
+                        .iterable(groups.values())
+                        .onItem()
+                        .transformToUni(indices -> analyzeBatchGroup(requests, indices, options))
+                        .merge(batchMaxConcurrency)
+                        .onItem()
+                        .transformToIterable(results -> results);
+
+        return Multi.createBy()
+                .concatenating()
+                .streams(Multi.createFrom().iterable(invalid), analyzed);
+    }
+
+    /**
+     * Analyzes a group of batch items sharing the same fingerprint with a single call.
+     *
+     * @param requests the full batch
+     * @param indices the positions of the items in the group
+     * @param options the request options used to schedule the provider call
+     * @return a Uni that emits one result per item of the group
+     */
+    private Uni<List<BatchAnalysisResult>> analyzeBatchGroup(
+            List<AnalysisRequest> requests, List<Integer> indices, AnalysisOptions options) {
+        AnalysisRequest first = requests.get(indices.get(0));
+        return analyze(first.getAnalysisResult(), first.getProviderConfig(), options)
+                .map(
+                        response -> {
+                            List<BatchAnalysisResult> results = new ArrayList<>(indices.size());
+                            results.add(BatchAnalysisResult.success(indices.get(0), response));
+                            for (int i = 1; i < indices.size(); i++) {
+                                int index = indices.get(i);
+                                AIResponse copy =
+                                        enrich(
+                                                copyOf(response),
+                                                requests.get(index).getAnalysisResult(),
+                                                first.getProviderConfig());
+                                results.add(BatchAnalysisResult.success(index, copy));
+                            }
+                            return results;
+                        })
+                .onFailure()
+                .recoverWithItem(
+                        throwable -> {
+                            LOG.errorf(
+                                    throwable,
+                                    "Batch analysis failed for %d item(s)",
+                                    indices.size());
+                            int status =
+                                    throwable instanceof ProviderOverloadedException
+                                            ? 429
+                                            : throwable instanceof DeadlineExceededException
+                                                    ? 504
+                                                    : 500;
+                            List<BatchAnalysisResult> results = new ArrayList<>(indices.size());
+                            for (int index : indices) {
+                                results.add(
+                                        BatchAnalysisResult.failure(
+                                                index, status, throwable.getMessage()));
+                            }
+                            return results;
+                        });
+    }
+
+    /**
+     * Analyzes a pod failure, streaming the explanation as the provider generates it.
+     *
+     * <p>Providers implementing {@link StreamingAIProvider} have their fragments forwarded as they
+     * arrive. The stream passes the same rate limit, bulkhead, circuit breaker, adaptive timeout
+     * and deadline as {@link #analyze}, and is retried while no fragment has been emitted yet.
+     * Cached responses, requests coalescing onto an identical in-flight call, incremental
+     * follow-ups, routed requests and providers that cannot stream are emitted as a single
+     * fragment. The providers of the ai-provider library do not implement {@link
+     * StreamingAIProvider}, so their explanations are always emitted as a single fragment once
+     * complete. The stream always ends with a {@link AnalysisStreamEvent.Type#COMPLETE} event
+     * carrying the enriched response metadata.
+     *
+     * @param analysisResult the log analysis results from the log parser
+     * @param providerConfig the AI provider configuration and parameters
+     * @param options the request options used to schedule the provider call
+     * @return a Multi that emits explanation fragments followed by the completion event
+     */
+    public Multi<AnalysisStreamEvent> analyzeStream(
+            AnalysisResult analysisResult,
+            AIProviderConfig providerConfig,
+            AnalysisOptions options) {
+        String fingerprint = AnalysisFingerprint.of(analysisResult, providerConfig);
+        CaffeineCache cache = responseCache.as(CaffeineCache.class);
+
+        ProviderEntry entry = null;
+        if (!ProviderRouter.isAuto(providerConfig)
+                && !ProviderEnsemble.isEnsemble(providerConfig)) {
+            try {
+                entry = providerRegistry.getEntry(providerConfig.getProviderId());
+            } catch (Exception e) {
+                return Multi.createFrom().failure(e);
+            }
+        }
+
+        if (entry == null
+                || !(entry.getProvider() instanceof StreamingAIProvider streamingProvider)
+                || cache.getIfPresent(fingerprint) != null
+                || explanationStore.contains(fingerprint)
+                || inFlight.containsKey(fingerprint)
+                || analysisSessions.followUp(analysisResult, providerConfig, options).isPresent()) {
+            return analyze(analysisResult, providerConfig, options)
+                    .onItem()
+                    .transformToMulti(
+                            response -> {
+                                String explanation = response.getExplanation();
+                                response.setExplanation(null);
+                                return Multi.createFrom()
+                                        .items(
+                                                AnalysisStreamEvent.token(explanation),
+                                                AnalysisStreamEvent.complete(response));
+                            });
+        }
+
+        ProviderEntry streamingEntry = entry;
+        return Multi.createFrom()
+                .deferred(
+                        () -> {
+                            // the only copy of the explanation, needed to populate the cache
+                            StringBuilder explanation = new StringBuilder();
+                            Instant started = Instant.now();
+
+                            EventPruner.Result pruned =
+                                    eventPruner.prune(analysisResult, providerConfig);
+                            String provider = "provider " + providerConfig.getProviderId();
+
+                            Multi<AnalysisStreamEvent> tokens =
+                                    withStreamRetries(
+                                                    () ->
+                                                            withDeadline(
+                                                                    attemptStream(
+                                                                            streamingEntry,
+                                                                            streamingProvider,
+                                                                            pruned,
+                                                                            providerConfig,
+                                                                            options),
+                                                                    options.getDeadline(),
+                                                                    provider),
+                                                    streamingEntry,
+                                                    providerConfig,
+                                                    options::getDeadline,
+                                                    0)
+                                            .invoke(explanation::append)
+                                            .map(AnalysisStreamEvent::token);
+                            Multi<AnalysisStreamEvent> completion =
+                                    Multi.createFrom()
+                                            .item(
+                                                    () ->
+                                                            completeStream(
+                                                                    explanation,
+                                                                    started,
+                                                                    fingerprint,
+                                                                    analysisResult,
+                                                                    pruned,
+                                                                    providerConfig,
+                                                                    options));
+
+                            return Multi.createBy().concatenating().streams(tokens, completion);
+                        })
+                .onFailure()
+                .invoke(
+                        throwable ->
+                                LOG.errorf(
+                                        throwable,
+                                        "AI provider stream failed for provider: %s",
+                                        providerConfig.getProviderId()));
+    }
+
+    /**
+     * Makes a single attempt of a streaming provider call through its rate limit and bulkhead.
+     *
+     * <p>The stream passes the same circuit breaker, adaptive timeout and health statistics as
+     * {@link #attempt}. Streams report no token usage, so the rate limit is settled with the prompt
+     * size and an estimate of the streamed explanation.
+     *
+     * @param entry the registry entry of the provider
+     * @param streamingProvider the provider, which must support streaming
+     * @param pruned the pruned analysis result to send
+     * @param providerConfig the AI provider configuration
+     * @param options the request options used to schedule the call
+     * @return a Multi that emits the explanation fragments of the attempt
+     */
+    private Multi<String> attemptStream(
+            ProviderEntry entry,
+            StreamingAIProvider streamingProvider,
+            EventPruner.Result pruned,
+            AIProviderConfig providerConfig,
+            AnalysisOptions options) {
+        return telemetry
+                .timed(
+                        Stage.RATE_LIMIT_WAIT,
+                        providerConfig,
+                        () -> rateLimits.acquire(providerConfig, pruned.getTokensAfter(), options))
+                .onItem()
+                .transformToMulti(
+                        permit -> {
+                            StageTimer queueWait =
+                                    telemetry.start(Stage.QUEUE_WAIT, providerConfig);
+                            AtomicInteger streamedChars = new AtomicInteger();
+                            return entry.getBulkhead()
+                                    .submitStream(
+                                            () -> {
+                                                queueWait.stop(null);
+                                                return streamFromProvider(
+                                                        entry,
+                                                        streamingProvider,
+                                                        pruned.getAnalysisResult(),
+                                                        providerConfig);
+                                            })
+                                    // rejected or cancelled while still queued
+                                    .onTermination()
+                                    .invoke(
+                                            (failure, cancelled) ->
+                                                    queueWait.stop(failure, cancelled))
+                                    .invoke(fragment -> streamedChars.addAndGet(fragment.length()))
+                                    .onCompletion()
+                                    .invoke(
+                                            () ->
+                                                    permit.settle(
+                                                            pruned.getTokensAfter()
+                                                                    + EventPruner.tokensForChars(
+                                                                            streamedChars.get())));
+                        });
+    }
+
+    /**
+     * Streams an explanation from a provider through its circuit breaker and adaptive timeout.
+     *
+     * <p>The stream is timed as a {@link Stage#PROVIDER_CALL} and its outcome and latency feed the
+     * provider's health statistics.
+     *
+     * @param entry the registry entry of the provider
+     * @param streamingProvider the provider, which must support streaming
+     * @param analysisResult the log analysis results
+     * @param providerConfig the AI provider configuration
+     * @return a Multi that emits the explanation fragments
+     */
+    private Multi<String> streamFromProvider(
+            ProviderEntry entry,
+            StreamingAIProvider streamingProvider,
+            AnalysisResult analysisResult,
+            AIProviderConfig providerConfig) {
+        long started = System.nanoTime();
+        return telemetry
+                .timedStream(
+                        Stage.PROVIDER_CALL,
+                        providerConfig,
+                        () ->
+                                guardedStream(
+                                        entry,
+                                        () ->
+                                                entry.callStream(
+                                                        () ->
+                                                                streamingProvider.streamExplanation(
+                                                                        analysisResult,
+                                                                        providerConfig))))
+                .onCompletion()
+                .invoke(() -> recordSuccess(entry, started))
+                .onFailure()
+                .invoke(throwable -> recordFailure(entry, started, throwable));
+    }
+
+    /**
+     * Builds the completion event of a provider stream, caches the full response and records it as
+     * the workload's latest session state.
+     *
+     * @param explanation the accumulated explanation text
+     * @param started when the provider stream was started
+     * @param fingerprint the content fingerprint of the analysis
+     * @param analysisResult the log analysis results
+     * @param pruned the pruned analysis result that was sent, whose prompt sizes are recorded
+     * @param providerConfig the AI provider configuration
+     * @param options the request options naming the workload
+     * @return the completion event carrying the enriched response without its explanation
+     */
+    private AnalysisStreamEvent completeStream(
+            StringBuilder explanation,
+            Instant started,
+            String fingerprint,
+            AnalysisResult analysisResult,
+            EventPruner.Result pruned,
+            AIProviderConfig providerConfig,
+            AnalysisOptions options) {
+        AIResponse response = new AIResponse();
+        response.setExplanation(explanation.toString());
+        response.setProviderId(providerConfig.getProviderId());
+        response.setModelId(providerConfig.getModelId());
+        response.setProcessingTime(Duration.between(started, Instant.now()));
+        enrich(response, analysisResult, providerConfig);
+        pruned.recordTo(response);
+
+        responseCache
+                .as(CaffeineCache.class)
+                .put(fingerprint, CompletableFuture.completedFuture(copyOf(response)));
+        explanationStore.store(fingerprint, analysisResult, providerConfig, copyOf(response));
+        analysisSessions.record(analysisResult, providerConfig, options, response, null);
+
+        // the client already received the explanation as tokens
+        response.setExplanation(null);
+        return AnalysisStreamEvent.complete(response);
+    }
+
+    /**
+     * Calls {@link #analyzeFailure} once the provider's rate limit and bulkhead admit the call.
+     *
+     * <p>The analysis result is first pruned to the prompt budget of the provider and model, and
+     * the before and after prompt sizes are recorded in the response metadata. The outcome and
+     * latency of the call feed the provider's health statistics. Requests for the {@value
+     * ProviderRouter#AUTO_PROVIDER_ID} provider are routed by the {@link ProviderRouter}.
+     *
+     * <p>Failed calls are retried up to {@code podmortem.retry.max-retries} times with the delays
+     * computed by {@link RetryBackoff}. Every retry is admitted again by the rate limit and the
+     * bulkhead, so retries never exceed the provider's quotas. When the call has a deadline, each
+     * attempt is cancelled when it passes, and a retry is only made if the time left after its
+     * delay covers the {@code podmortem.retry.budget-percentile} latency of the provider.
+     *
+     * @param analysisResult the log analysis results
+     * @param providerConfig the AI provider configuration
+     * @param options the request options used to schedule the call
+     * @param deadline supplies the current deadline of the call, null if it has none
+     * @return a Uni that emits the AI-generated failure explanation
+     */
+    private Uni<AIResponse> callProvider(
+            AnalysisResult analysisResult,
+            AIProviderConfig providerConfig,
+            AnalysisOptions options,
+            Supplier<Instant> deadline) {
+        if (ProviderRouter.isAuto(providerConfig)) {
+            return providerRouter.route(
+                    analysisResult,
+                    providerConfig,
+                    (result, config) -> callProvider(result, config, options, deadline));
+        }
+        if (ProviderEnsemble.isEnsemble(providerConfig)) {
+            return providerEnsemble.analyze(
+                    analysisResult,
+                    providerConfig,
+                    deadline.get(),
+                    (result, config) -> callProvider(result, config, options, deadline));
+        }
+
+        ProviderEntry entry = providerRegistry.getEntry(providerConfig.getProviderId());
+        EventPruner.Result pruned = eventPruner.prune(analysisResult, providerConfig);
+        return withRetries(
+                        () ->
+                                withDeadline(
+                                        attempt(entry, pruned, providerConfig, options),
+                                        deadline.get(),
+                                        "provider " + providerConfig.getProviderId()),
+                        entry,
+                        providerConfig,
+                        deadline,
+                        0)
+                .map(pruned::recordTo);
+    }
+
+    /**
+     * Makes a single attempt of a provider call through its rate limit and bulkhead.
+     *
+     * @param entry the registry entry of the provider
+     * @param pruned the pruned analysis result to send
+     * @param providerConfig the AI provider configuration
+     * @param options the request options used to schedule the call
+     * @return a Uni that emits the outcome of the attempt
+     */
+    private Uni<AIResponse> attempt(
+            ProviderEntry entry,
+            EventPruner.Result pruned,
+            AIProviderConfig providerConfig,
+            AnalysisOptions options) {
+        return telemetry
+                .timed(
+                        Stage.RATE_LIMIT_WAIT,
+                        providerConfig,
+                        () -> rateLimits.acquire(providerConfig, pruned.getTokensAfter(), options))
+                .onItem()
+                .transformToUni(
+                        permit -> {
+                            StageTimer queueWait =
+                                    telemetry.start(Stage.QUEUE_WAIT, providerConfig);
+                            return entry.getBulkhead()
+                                    .submit(
+                                            () -> {
+                                                queueWait.stop(null);
+                                                long started = System.nanoTime();
+                                                return analyzeFailure(
+                                                                pruned.getAnalysisResult(),
+                                                                providerConfig)
+                                                        .invoke(
+                                                                response ->
+                                                                        recordSuccess(
+                                                                                entry, started))
+                                                        .onFailure()
+                                                        .invoke(
+                                                                throwable ->
+                                                                        recordFailure(
+                                                                                entry, started,
+                                                                                throwable));
+                                            })
+                                    // rejected or cancelled while still queued
+                                    .onTermination()
+                                    .invoke(
+                                            (item, failure, cancelled) ->
+                                                    queueWait.stop(failure, cancelled))
+                                    .invoke(
+                                            response ->
+                                                    permit.settle(
+                                                            RateLimits.reportedTokens(response)));
+                        });
+    }
+
+    /**
+     * Retries a failed provider call after the delay computed by {@link RetryBackoff}.
+     *
+     * @param attempt the supplier of a single attempt of the call
+     * @param entry the registry entry of the provider, whose latency bounds retries
+     * @param providerConfig the AI provider configuration
+     * @param deadline supplies the current deadline of the call, null if it has none
+     * @param retry the number of retries already made
+     * @return a Uni that emits the outcome of the first successful or last attempt
+     */
+    private Uni<AIResponse> withRetries(
+            Supplier<Uni<AIResponse>> attempt,
+            ProviderEntry entry,
+            AIProviderConfig providerConfig,
+            Supplier<Instant> deadline,
+            int retry) {
+        return Uni.createFrom()
+                .deferred(attempt)
+                .onFailure()
+                .recoverWithUni(
+                        failure -> {
+                            Duration delay =
+                                    nextRetryDelay(
+                                            failure, entry, providerConfig, deadline.get(), retry);
+                            if (delay == null) {
+                                return Uni.createFrom().failure(failure);
+                            }
+                            return Uni.createFrom()
+                                    .voidItem()
+                                    .onItem()
+                                    .delayIt()
+                                    .by(delay)
+                                    .onItem()
+                                    .transformToUni(
+                                            ignored ->
+                                                    withRetries(
+                                                            attempt,
+                                                            entry,
+                                                            providerConfig,
+                                                            deadline,
+                                                            retry + 1));
+                        });
+    }
+
+    /**
+     * Retries a failed streaming provider call as long as it has not emitted a fragment.
+     *
+     * <p>Fragments already sent to the client cannot be taken back, so a stream failing midway is
+     * not retried.
+     *
+     * @param attempt the supplier of a single attempt of the call
+     * @param entry the registry entry of the provider, whose latency bounds retries
+     * @param providerConfig the AI provider configuration
+     * @param deadline supplies the current deadline of the call, null if it has none
+     * @param retry the number of retries already made
+     * @return a Multi that emits the fragments of the first successful or last attempt
+     */
+    private Multi<String> withStreamRetries(
+            Supplier<Multi<String>> attempt,
+            ProviderEntry entry,
+            AIProviderConfig providerConfig,
+            Supplier<Instant> deadline,
+            int retry) {
+        return Multi.createFrom()
+                .deferred(
+                        () -> {
+                            AtomicBoolean emitted = new AtomicBoolean();
+                            return attempt.get()
+                                    .invoke(fragment -> emitted.set(true))
+                                    .onFailure(failure -> !emitted.get())
+                                    .recoverWithMulti(
+                                            failure -> {
+                                                Duration delay =
+                                                        nextRetryDelay(
+                                                                failure,
+                                                                entry,
+                                                                providerConfig,
+                                                                deadline.get(),
+                                                                retry);
+                                                if (delay == null) {
+                                                    return Multi.createFrom().failure(failure);
+                                                }
+                                                return Uni.createFrom()
+                                                        .voidItem()
+                                                        .onItem()
+                                                        .delayIt()
+                                                        .by(delay)
+                                                        .onItem()
+                                                        .transformToMulti(
+                                                                ignored ->
+                                                                        withStreamRetries(
+                                                                                attempt,
+                                                                                entry,
+                                                                                providerConfig,
+                                                                                deadline,
+                                                                                retry + 1));
+                                            });
+                        });
+    }
+
+    /**
+     * Decides whether a failed provider call is retried, and records the retry.
+     *
+     * @param failure the failure of the last attempt
+     * @param entry the registry entry of the provider, whose latency bounds retries
+     * @param providerConfig the AI provider configuration
+     * @param deadline the deadline of the call, or null if it has none
+     * @param retry the number of retries already made
+     * @return the delay before the retry, or null if the call is not retried
+     */
+    private Duration nextRetryDelay(
+            Throwable failure,
+            ProviderEntry entry,
+            AIProviderConfig providerConfig,
+            Instant deadline,
+            int retry) {
+        Duration delay =
+                retry < maxRetries
+                        ? RetryBackoff.nextDelay(retry, failure, retryDelay, maxRetryDelay)
+                        : null;
+        if (delay == null) {
+            return null;
+        }
+        if (!retryFitsDeadline(entry, delay, deadline)) {
+            LOG.debugf(
+                    "Not retrying call to provider %s, its deadline is too close",
+                    providerConfig.getProviderId());
+            meterRegistry
+                    .counter(
+                            "podmortem.analysis.retries.skipped",
+                            "provider",
+                            telemetry.providerTag(providerConfig),
+                            "reason",
+                            "deadline")
+                    .increment();
+            return null;
+        }
+        LOG.debugf(
+                "Retrying call to provider %s in %d ms (retry %d of %d)",
+                providerConfig.getProviderId(), delay.toMillis(), retry + 1, maxRetries);
+        telemetry.recordRetry(providerConfig);
+        return delay;
+    }
+
+    /**
+     * Checks whether a retry made after a delay can still complete before the call's deadline.
+     *
+     * @param entry the registry entry of the provider
+     * @param delay the delay before the retry
+     * @param deadline the deadline of the call, or null if it has none
+     * @return true if the time left after the delay covers the provider's expected latency
+     */
+    private boolean retryFitsDeadline(ProviderEntry entry, Duration delay, Instant deadline) {
+        if (deadline == null) {
+            return true;
+        }
+        Duration left = Duration.between(Instant.now().plus(delay), deadline);
+        Duration expected = entry.getHealth().latencyPercentile(retryBudgetPercentile);
+        // without a latency history, retry as long as any time is left
+        return expected != null ? left.compareTo(expected) >= 0 : left.isPositive();
+    }
+
+    private static void recordSuccess(ProviderEntry entry, long startedNanos) {
+        entry.recordSuccess(Duration.ofNanos(System.nanoTime() - startedNanos));
+    }
+
+    /**
+     * Records a failed call in the provider's health and statistics, unless the failure is not the
+     * provider's, such as a call rejected by its open circuit breaker.
+     */
+    private static void recordFailure(ProviderEntry entry, long startedNanos, Throwable failure) {
+        if (ProviderCircuitBreaker.isProviderFailure(failure)) {
+            entry.recordFailure(Duration.ofNanos(System.nanoTime() - startedNanos));
+        }
+    }
+
     /**
      * Analyzes a pod failure using the specified AI provider with fault tolerance.
      *
-     * <p>Uses circuit breaker pattern to prevent cascading failures, with retry logic and timeout
-     * protection. If the AI provider fails, the circuit breaker will open to prevent further
-     * requests until the service recovers.
+     * <p>Each call passes the provider's circuit breaker and is given the timeout that the
+     * provider's {@link ResiliencePolicies resilience policy} derives from its recent latency. A
+     * provider that fails, or becomes slow compared with its usual latency, has its breaker opened
+     * and further calls rejected until it recovers, so callers fail over within seconds rather than
+     * waiting for a timeout sized for the slowest provider. Each call is a single attempt timed as
+     * a {@link Stage#PROVIDER_CALL}; retries are made by the caller so that they pass the rate
+     * limit again.
      *
      * @param analysisResult the log analysis results from the log parser
      * @param providerConfig the AI provider configuration and parameters
      * @return a Uni that emits the AI-generated failure explanation
      */
-    @CircuitBreaker(
-            requestVolumeThreshold = 10,
-            failureRatio = 0.5,
-            successThreshold = 3,
-            delay = 5000)
-    @Retry(maxRetries = 3, delay = 1000)
-    @Timeout(value = 180, unit = ChronoUnit.SECONDS)
     public Uni<AIResponse> analyzeFailure(
             AnalysisResult analysisResult, AIProviderConfig providerConfig) {
         LOG.infof(
@@ -56,10 +1112,24 @@ public class AnalysisService {
 
         try {
             // get the AI provider implementation from ai-provider-lib
-            AIProvider provider = providerRegistry.getProvider(providerConfig.getProviderId());
+            ProviderEntry entry = providerRegistry.getEntry(providerConfig.getProviderId());
+            AIProvider provider = entry.getProvider();
 
-            return provider.generateExplanation(analysisResult, providerConfig)
-                    .map(response -> enrichResponse(response, analysisResult))
+            return telemetry
+                    .timed(
+                            Stage.PROVIDER_CALL,
+                            providerConfig,
+                            () ->
+                                    guarded(
+                                            entry,
+                                            () ->
+                                                    entry.call(
+                                                            () ->
+                                                                    provider.generateExplanation(
+                                                                            analysisResult,
+                                                                            providerConfig))))
+                    .invoke(response -> telemetry.recordTokens(providerConfig, response))
+                    .map(response -> enrich(response, analysisResult, providerConfig))
                     .onFailure()
                     .invoke(
                             throwable ->
@@ -75,26 +1145,102 @@ public class AnalysisService {
     }
 
     /**
-     * Protected version of analyzeFailure with fallback mechanism.
+     * Makes a provider call through the provider's circuit breaker and adaptive timeout.
      *
-     * <p>When AI analysis fails or times out, automatically falls back to generating a basic
-     * pattern-based explanation using the analysis results.
+     * @param entry the registry entry of the provider
+     * @param call the provider call
+     * @return a Uni that emits the outcome of the call, or fails with a {@link
+     *     CircuitBreakerOpenException} or a {@link TimeoutException}
+     */
+    private Uni<AIResponse> guarded(ProviderEntry entry, Supplier<Uni<AIResponse>> call) {
+        return Uni.createFrom()
+                .deferred(
+                        () -> {
+                            ResiliencePolicy policy =
+                                    resiliencePolicies.policyFor(entry.getProviderId());
+                            if (!entry.getCircuitBreaker().tryAcquire(policy)) {
+                                return Uni.createFrom().failure(circuitBreakerOpen(entry));
+                            }
+                            Duration timeout = resiliencePolicies.timeoutFor(entry);
+                            long started = System.nanoTime();
+                            return call.get()
+                                    .ifNoItem()
+                                    .after(timeout)
+                                    .failWith(() -> timedOut(entry, timeout))
+                                    .onTermination()
+                                    .invoke(
+                                            (response, failure, cancelled) ->
+                                                    recordOutcome(
+                                                            entry, policy, started, failure,
+                                                            cancelled));
+                        });
+    }
+
+    /**
+     * Streams from a provider through the provider's circuit breaker and adaptive timeout.
      *
-     * @param analysisResult the log analysis results
-     * @param providerConfig the AI provider configuration
-     * @return a Uni that emits either AI-generated or fallback explanation
+     * <p>The timeout bounds the whole stream, the same as it bounds a single call.
+     *
+     * @param entry the registry entry of the provider
+     * @param call the streaming provider call
+     * @return a Multi that emits the fragments of the call, or fails with a {@link
+     *     CircuitBreakerOpenException} or a {@link TimeoutException}
      */
-    @Fallback(fallbackMethod = "generateFallbackExplanation")
-    public Uni<AIResponse> protectedAnalyzeFailure(
-            AnalysisResult analysisResult, AIProviderConfig providerConfig) {
-        return analyzeFailure(analysisResult, providerConfig);
+    private Multi<String> guardedStream(ProviderEntry entry, Supplier<Multi<String>> call) {
+        return Multi.createFrom()
+                .deferred(
+                        () -> {
+                            ResiliencePolicy policy =
+                                    resiliencePolicies.policyFor(entry.getProviderId());
+                            if (!entry.getCircuitBreaker().tryAcquire(policy)) {
+                                return Multi.createFrom().failure(circuitBreakerOpen(entry));
+                            }
+                            Duration timeout = resiliencePolicies.timeoutFor(entry);
+                            long started = System.nanoTime();
+                            return failAfter(call.get(), timeout, () -> timedOut(entry, timeout))
+                                    .onTermination()
+                                    .invoke(
+                                            (failure, cancelled) ->
+                                                    recordOutcome(
+                                                            entry, policy, started, failure,
+                                                            cancelled));
+                        });
+    }
+
+    private static CircuitBreakerOpenException circuitBreakerOpen(ProviderEntry entry) {
+        return new CircuitBreakerOpenException(
+                "Circuit breaker open for provider " + entry.getProviderId());
+    }
+
+    private static TimeoutException timedOut(ProviderEntry entry, Duration timeout) {
+        return new TimeoutException(
+                "Provider " + entry.getProviderId() + " did not answer within " + timeout);
+    }
+
+    /** Records the outcome of a call permitted by the provider's circuit breaker. */
+    private void recordOutcome(
+            ProviderEntry entry,
+            ResiliencePolicy policy,
+            long startedNanos,
+            Throwable failure,
+            boolean cancelled) {
+        ProviderCircuitBreaker breaker = entry.getCircuitBreaker();
+        if (cancelled || (failure != null && !ProviderCircuitBreaker.isProviderFailure(failure))) {
+            breaker.release();
+        } else if (failure != null) {
+            breaker.onFailure(policy);
+        } else {
+            Duration latency = Duration.ofNanos(System.nanoTime() - startedNanos);
+            breaker.onSuccess(policy, resiliencePolicies.isSlow(entry, latency));
+        }
     }
 
     /**
      * Generates a fallback explanation when AI providers are unavailable.
      *
      * <p>Creates a basic explanation based on pattern analysis results without requiring external
-     * AI services. Used when circuit breaker is open or AI services fail.
+     * AI services. Served by {@link #analyze} when the provider's circuit breaker is open or its
+     * call timed out.
      *
      * @param analysisResult the log analysis results to explain
      * @param providerConfig the original provider configuration (for context)
@@ -103,32 +1249,32 @@ public class AnalysisService {
     public Uni<AIResponse> generateFallbackExplanation(
             AnalysisResult analysisResult, AIProviderConfig providerConfig) {
         LOG.warnf("Using fallback explanation for analysis ID: %s", analysisResult.getAnalysisId());
+        telemetry.recordFallback(providerConfig);
 
         // basic explanation based on analysis results when AI is unavailable
-        String fallbackExplanation = buildBasicExplanation(analysisResult);
+        long started = System.nanoTime();
+        FallbackExplainer.Explanation fallbackExplanation =
+                FallbackExplainer.explain(analysisResult);
 
         AIResponse fallbackResponse = new AIResponse();
-        fallbackResponse.setExplanation(fallbackExplanation);
+        fallbackResponse.setExplanation(fallbackExplanation.getText());
         fallbackResponse.setProviderId("fallback");
         fallbackResponse.setModelId("pattern-based");
         fallbackResponse.setGeneratedAt(Instant.now());
-        fallbackResponse.setProcessingTime(Duration.ofMillis(100));
-        fallbackResponse.setConfidence(0.6); // Lower confidence for fallback
+        fallbackResponse.setProcessingTime(Duration.ofNanos(System.nanoTime() - started));
+        // confidence reflects how many events the reported root causes cover, capped below AI
+        fallbackResponse.setConfidence(fallbackExplanation.getConfidence());
 
         return Uni.createFrom().item(fallbackResponse);
     }
 
     /**
-     * Retrieves the list of all available AI provider IDs.
+     * Retrieves all available AI providers with their live statistics.
      *
-     * @return a Uni that emits the list of provider identifiers
+     * @return a Uni that emits the status of each registered provider
      */
-    public Uni<List<String>> getAvailableProviders() {
-        return Uni.createFrom()
-                .item(
-                        providerRegistry.getAllProviders().stream()
-                                .map(AIProvider::getProviderId)
-                                .collect(Collectors.toList()));
+    public Uni<List<ProviderStatus>> getAvailableProviders() {
+        return Uni.createFrom().item(providerRegistry::getStatus);
     }
 
     /**
@@ -153,6 +1299,27 @@ public class AnalysisService {
         }
     }
 
+    /**
+     * Runs an analysis through the request path against a stub response to warm it up.
+     *
+     * <p>Fingerprints, prunes and enriches the analysis like a provider call would, but leaves the
+     * response cache, the explanation store, the sessions and the metrics untouched.
+     *
+     * @param analysisResult the synthetic analysis results
+     * @param providerConfig the provider configuration to prune and fingerprint for
+     * @param stubResponse the response standing in for the provider's
+     * @return the enriched copy of the stub response
+     */
+    AIResponse warmUp(
+            AnalysisResult analysisResult,
+            AIProviderConfig providerConfig,
+            AIResponse stubResponse) {
+        AnalysisFingerprint.of(analysisResult, providerConfig);
+        EventPruner.Result pruned = eventPruner.prune(analysisResult, providerConfig);
+        AIResponse response = pruned.recordTo(copyOf(stubResponse));
+        return copyOf(enrichResponse(response, analysisResult));
+    }
+
     /**
      * Enriches AI response with additional metadata and correlation information.
      *
@@ -160,20 +1327,21 @@ public class AnalysisService {
      * @param analysisResult the original analysis results for correlation
      * @return the enriched AI response with additional metadata
      */
-    private AIResponse enrichResponse(AIResponse response, AnalysisResult analysisResult) {
+    AIResponse enrichResponse(AIResponse response, AnalysisResult analysisResult) {
         // add any additional metadata or processing
         response.setGeneratedAt(Instant.now());
 
         // add correlation with analysis metadata
         if (response.getMetadata() == null) {
             response.setMetadata(
-                    java.util.Map.of(
-                            "analysisId",
-                            analysisResult.getAnalysisId(),
-                            "eventCount",
-                            analysisResult.getEvents() != null
-                                    ? analysisResult.getEvents().size()
-                                    : 0));
+                    new HashMap<>(
+                            Map.of(
+                                    "analysisId",
+                                    analysisResult.getAnalysisId(),
+                                    "eventCount",
+                                    analysisResult.getEvents() != null
+                                            ? analysisResult.getEvents().size()
+                                            : 0)));
         } else {
             response.getMetadata().put("analysisId", analysisResult.getAnalysisId());
             response.getMetadata()
@@ -187,6 +1355,34 @@ public class AnalysisService {
         return response;
     }
 
+    /**
+     * Enriches an AI response, timing the enrichment as a {@link Stage#ENRICHMENT}.
+     *
+     * @param response the AI response to enrich
+     * @param analysisResult the original analysis results for correlation
+     * @param providerConfig the AI provider configuration of the response
+     * @return the enriched AI response
+     */
+    private AIResponse enrich(
+            AIResponse response, AnalysisResult analysisResult, AIProviderConfig providerConfig) {
+        return telemetry.timedSync(
+                Stage.ENRICHMENT, providerConfig, () -> enrichResponse(response, analysisResult));
+    }
+
+    /**
+     * Creates a deep copy of an AI response so cached instances are never shared with callers.
+     *
+     * @param response the AI response to copy
+     * @return an independent copy of the response
+     */
+    private AIResponse copyOf(AIResponse response) {
+        try {
+            return objectMapper.treeToValue(objectMapper.valueToTree(response), AIResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to copy AI response", e);
+        }
+    }
+
     /**
      * Builds a basic pattern-based explanation from analysis results.
      *
@@ -196,45 +1392,7 @@ public class AnalysisService {
      * @param analysisResult the log analysis results to explain
      * @return a basic explanation string
      */
-    private String buildBasicExplanation(AnalysisResult analysisResult) {
-        StringBuilder explanation = new StringBuilder();
-
-        explanation.append("Pod failure analysis (pattern-based fallback): ");
-
-        if (analysisResult.getEvents() != null && !analysisResult.getEvents().isEmpty()) {
-            // get the first critical event
-            var firstEvent = analysisResult.getEvents().get(0);
-
-            // access pattern ID and severity through the matched pattern
-            if (firstEvent.getMatchedPattern() != null) {
-                String patternId = firstEvent.getMatchedPattern().getId();
-                String severity = firstEvent.getMatchedPattern().getSeverity();
-
-                explanation
-                        .append("The pod appears to have failed due to pattern '")
-                        .append(patternId != null ? patternId : "unknown")
-                        .append("' with severity ")
-                        .append(severity != null ? severity : "unknown")
-                        .append(". ");
-            } else {
-                explanation
-                        .append("The pod appears to have failed with score ")
-                        .append(firstEvent.getScore())
-                        .append(" at line ")
-                        .append(firstEvent.getLineNumber())
-                        .append(". ");
-            }
-
-            if (analysisResult.getEvents().size() > 1) {
-                explanation
-                        .append("Additional ")
-                        .append(analysisResult.getEvents().size() - 1)
-                        .append(" event(s) were also detected.");
-            }
-        } else {
-            explanation.append("No specific failure patterns were detected in the log analysis.");
-        }
-
-        return explanation.toString();
+    String buildBasicExplanation(AnalysisResult analysisResult) {
+        return FallbackExplainer.explain(analysisResult).getText();
     }
 }
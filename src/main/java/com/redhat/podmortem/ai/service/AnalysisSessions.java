@@ -0,0 +1,262 @@
+package com.redhat.podmortem.ai.service;
+
+import com.redhat.podmortem.common.model.analysis.AnalysisResult;
+import com.redhat.podmortem.common.model.analysis.MatchedEvent;
+import com.redhat.podmortem.common.model.provider.AIProviderConfig;
+import com.redhat.podmortem.common.model.provider.AIResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Tracks the last explanation of each workload so that follow-up failures are analyzed
+ * incrementally.
+ *
+ * <p>Crash-looping pods produce a sequence of analysis results where each one adds a few events to
+ * the last. When an analysis for a workload contains every event of the workload's previous
+ * analysis plus some new ones, only the new events are sent to the provider, preceded by a context
+ * event that carries the previous explanation and asks for an update, rendered from the {@value
+ * PromptTemplates#INCREMENTAL_UPDATE} template. Events are compared by their {@link
+ * AnalysisFingerprint#signature normalized signature}.
+ *
+ * <p>Sessions are keyed by namespace, workload, provider and model, and are kept in an LRU map
+ * bounded by {@code podmortem.sessions.max-size}. A session is not used once its explanation is
+ * older than {@code podmortem.sessions.max-age}, or after {@code podmortem.sessions.max-updates}
+ * incremental updates in a row, so that explanations do not drift too far from a full analysis.
+ */
+@ApplicationScoped
+public class AnalysisSessions {
+
+    private static final Logger LOG = Logger.getLogger(AnalysisSessions.class);
+
+    @Inject EventPruner eventPruner;
+
+    @Inject PromptTemplates promptTemplates;
+
+    @Inject MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "podmortem.sessions.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "podmortem.sessions.max-size", defaultValue = "1000")
+    int maxSize;
+
+    @ConfigProperty(name = "podmortem.sessions.max-age", defaultValue = "30M")
+    Duration maxAge;
+
+    @ConfigProperty(name = "podmortem.sessions.max-updates", defaultValue = "10")
+    int maxUpdates;
+
+    private Map<String, Session> sessions;
+
+    @PostConstruct
+    void initialize() {
+        this.sessions =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+                        return size() > maxSize;
+                    }
+                };
+        Gauge.builder("podmortem.sessions.size", this, AnalysisSessions::size)
+                .description("Workloads with a tracked analysis session")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Gets the number of tracked sessions.
+     *
+     * @return the session count
+     */
+    public synchronized int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Checks whether an analysis is a follow-up of its workload's previous analysis.
+     *
+     * @param analysisResult the log analysis results
+     * @param providerConfig the AI provider configuration
+     * @param options the request options naming the workload
+     * @return the incremental analysis to send instead, or empty if a full analysis is needed
+     */
+    public Optional<FollowUp> followUp(
+            AnalysisResult analysisResult,
+            AIProviderConfig providerConfig,
+            AnalysisOptions options) {
+        String key = key(providerConfig, options);
+        List<MatchedEvent> events = analysisResult.getEvents();
+        if (key == null || events == null || events.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Session session;
+        synchronized (this) {
+            session = sessions.get(key);
+        }
+        if (session == null
+                || session.updates >= maxUpdates
+                || session.updatedAt.plus(maxAge).isBefore(Instant.now())) {
+            return Optional.empty();
+        }
+
+        // every previous event must still be there, anything beyond them is new
+        Map<String, Integer> previous = new HashMap<>(session.signatureCounts);
+        List<MatchedEvent> delta = new ArrayList<>();
+        for (MatchedEvent event : events) {
+            String signature = AnalysisFingerprint.signature(event);
+            Integer remaining = previous.get(signature);
+            if (remaining == null) {
+                delta.add(event);
+            } else if (remaining == 1) {
+                previous.remove(signature);
+            } else {
+                previous.put(signature, remaining - 1);
+            }
+        }
+        if (!previous.isEmpty() || delta.isEmpty()) {
+            return Optional.empty();
+        }
+
+        LOG.debugf(
+                "Analyzing %d new of %d events of workload %s incrementally",
+                delta.size(), events.size(), key);
+        List<MatchedEvent> incremental = new ArrayList<>(delta.size() + 1);
+        incremental.add(eventPruner.contextEvent(updatePrompt(session, delta.size())));
+        incremental.addAll(delta);
+        return Optional.of(
+                new FollowUp(
+                        eventPruner.withEvents(analysisResult, incremental),
+                        delta.size(),
+                        session.updates + 1));
+    }
+
+    /**
+     * Records the explanation of an analysis as the workload's latest session state.
+     *
+     * @param analysisResult the full log analysis results that were explained
+     * @param providerConfig the AI provider configuration
+     * @param options the request options naming the workload
+     * @param response the provider response
+     * @param followUp the incremental analysis the response answers, or null for a full analysis
+     */
+    public void record(
+            AnalysisResult analysisResult,
+            AIProviderConfig providerConfig,
+            AnalysisOptions options,
+            AIResponse response,
+            FollowUp followUp) {
+        String key = key(providerConfig, options);
+        if (key == null || response.getExplanation() == null) {
+            return;
+        }
+
+        Map<String, Integer> counts = new HashMap<>();
+        if (analysisResult.getEvents() != null) {
+            for (MatchedEvent event : analysisResult.getEvents()) {
+                counts.merge(AnalysisFingerprint.signature(event), 1, Integer::sum);
+            }
+        }
+        Session session =
+                new Session(
+                        counts,
+                        response.getExplanation(),
+                        followUp != null ? followUp.updates : 0,
+                        Instant.now());
+        synchronized (this) {
+            sessions.put(key, session);
+        }
+    }
+
+    private String key(AIProviderConfig providerConfig, AnalysisOptions options) {
+        if (!enabled || options.getWorkload() == null) {
+            return null;
+        }
+        return options.getNamespace()
+                + '/'
+                + options.getWorkload()
+                + '|'
+                + providerConfig.getProviderId()
+                + '/'
+                + providerConfig.getModelId();
+    }
+
+    private String updatePrompt(Session session, int newEvents) {
+        return promptTemplates.render(
+                PromptTemplates.INCREMENTAL_UPDATE,
+                Map.of("newEvents", newEvents, "previousExplanation", session.explanation));
+    }
+
+    /** Last explained state of a workload. */
+    private static final class Session {
+
+        final Map<String, Integer> signatureCounts;
+        final String explanation;
+        final int updates;
+        final Instant updatedAt;
+
+        Session(
+                Map<String, Integer> signatureCounts,
+                String explanation,
+                int updates,
+                Instant updatedAt) {
+            this.signatureCounts = signatureCounts;
+            this.explanation = explanation;
+            this.updates = updates;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    /** An analysis reduced to the events that are new since the workload's last explanation. */
+    public static final class FollowUp {
+
+        private final AnalysisResult analysisResult;
+        private final int deltaEvents;
+        private final int updates;
+
+        FollowUp(AnalysisResult analysisResult, int deltaEvents, int updates) {
+            this.analysisResult = analysisResult;
+            this.deltaEvents = deltaEvents;
+            this.updates = updates;
+        }
+
+        /**
+         * Gets the analysis result to send to the provider.
+         *
+         * @return the context event followed by the new events
+         */
+        public AnalysisResult getAnalysisResult() {
+            return analysisResult;
+        }
+
+        /**
+         * Records that the response is an incremental update in the response metadata.
+         *
+         * @param response the AI response to annotate
+         * @return the same response
+         */
+        public AIResponse recordTo(AIResponse response) {
+            Map<String, Object> metadata =
+                    response.getMetadata() != null
+                            ? new HashMap<>(response.getMetadata())
+                            : new HashMap<>();
+            metadata.put("incremental", true);
+            metadata.put("incrementalEvents", deltaEvents);
+            metadata.put("incrementalUpdates", updates);
+            response.setMetadata(metadata);
+            return response;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.redhat.podmortem.ai.service;
+
+import com.redhat.podmortem.common.model.provider.AIProviderConfig;
+import com.redhat.podmortem.common.model.provider.AIResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Metrics and tracing of the analysis pipeline.
+ *
+ * <p>Each {@link Stage} of an analysis is recorded as a Micrometer timer tagged by provider, model
+ * and outcome, with a percentile histogram for Prometheus, and as an OpenTelemetry span that is a
+ * child of the current request span. Retries, fallbacks and the token counts reported by providers
+ * are recorded as counters.
+ *
+ * <p>All meters are registered on the injected {@link MeterRegistry}, so the instrumentation can be
+ * verified against an in-memory registry.
+ *
+ * <p>Provider and model IDs come from clients, so they are bounded before they become tags: only
+ * registered providers and the {@value ProviderRouter#AUTO_PROVIDER_ID} and {@value
+ * ProviderEnsemble#ENSEMBLE_PROVIDER_ID} providers are tagged by ID, and only the first {@code
+ * podmortem.metrics.max-models-per-provider} models of each. Other IDs are tagged {@value #UNKNOWN}
+ * and {@value #OTHER}.
+ */
+@ApplicationScoped
+public class AnalysisTelemetry {
+
+    private static final AttributeKey<String> PROVIDER =
+            AttributeKey.stringKey("podmortem.provider");
+    private static final AttributeKey<String> MODEL = AttributeKey.stringKey("podmortem.model");
+
+    /** Tag value of providers that are not registered and of missing IDs. */
+    static final String UNKNOWN = "unknown";
+
+    /** Tag value of the models of a provider beyond the first tagged ones. */
+    static final String OTHER = "other";
+
+    /** Response metadata keys under which providers report token usage. */
+    private static final Map<String, String> TOKEN_METADATA =
+            Map.of(
+                    "promptTokens", "prompt",
+                    "completionTokens", "completion",
+                    "totalTokens", "total");
+
+    @Inject MeterRegistry meterRegistry;
+
+    @Inject Tracer tracer;
+
+    @Inject ProviderRegistry providerRegistry;
+
+    @ConfigProperty(name = "podmortem.metrics.max-models-per-provider", defaultValue = "20")
+    int maxModelsPerProvider;
+
+    /** Models tagged by ID, by provider tag. */
+    private final Map<String, Set<String>> modelTags = new ConcurrentHashMap<>();
+
+    /** A timed stage of the analysis pipeline. */
+    public enum Stage {
+        /** Waiting for the provider's rate limit quota. */
+        RATE_LIMIT_WAIT("podmortem.analysis.rate-limit.wait", "analysis rate limit wait"),
+        /** Waiting for a slot in the provider's bulkhead. */
+        QUEUE_WAIT("podmortem.analysis.queue.wait", "analysis queue wait"),
+        /** A single call to the AI provider, one per retry attempt. */
+        PROVIDER_CALL("podmortem.analysis.provider.call", "analysis provider call"),
+        /** Enriching a response with the metadata of its analysis. */
+        ENRICHMENT("podmortem.analysis.enrichment", "analysis enrichment"),
+        /** The whole analysis as seen by the caller, including cache hits. */
+        END_TO_END("podmortem.analysis.duration", "analysis");
+
+        private final String meterName;
+        private final String spanName;
+
+        Stage(String meterName, String spanName) {
+            this.meterName = meterName;
+            this.spanName = spanName;
+        }
+    }
+
+    /**
+     * Starts timing a stage.
+     *
+     * <p>The stage's span becomes a child of the current span. The returned timer must be stopped
+     * exactly once; further calls to {@link StageTimer#stop} are ignored.
+     *
+     * @param stage the pipeline stage
+     * @param providerConfig the provider configuration the stage runs for
+     * @return the running stage timer
+     */
+    public StageTimer start(Stage stage, AIProviderConfig providerConfig) {
+        String provider = providerTag(providerConfig);
+        String model = modelTag(provider, providerConfig.getModelId());
+        Span span =
+                tracer.spanBuilder(stage.spanName)
+                        .setAttribute(PROVIDER, provider)
+                        .setAttribute(MODEL, model)
+                        .startSpan();
+        return new StageTimer(stage, Tags.of("provider", provider, "model", model), span);
+    }
+
+    /**
+     * Times an asynchronous stage from subscription until the Uni terminates.
+     *
+     * <p>The stage's span is current while the call is assembled, so spans started by the call
+     * become its children.
+     *
+     * @param stage the pipeline stage
+     * @param providerConfig the provider configuration the stage runs for
+     * @param call the supplier of the stage's Uni
+     * @return a Uni that emits the outcome of the call
+     */
+    public <T> Uni<T> timed(Stage stage, AIProviderConfig providerConfig, Supplier<Uni<T>> call) {
+        return Uni.createFrom()
+                .deferred(
+                        () -> {
+                            StageTimer timer = start(stage, providerConfig);
+                            Uni<T> uni;
+                            try (Scope scope = timer.span.makeCurrent()) {
+                                uni = call.get();
+                            } catch (RuntimeException e) {
+                                timer.stop(e);
+                                throw e;
+                            }
+                            return uni.onTermination()
+                                    .invoke(
+                                            (item, failure, cancelled) ->
+                                                    timer.stop(failure, cancelled));
+                        });
+    }
+
+    /**
+     * Times a streaming stage from subscription until the Multi terminates.
+     *
+     * <p>The stage's span is current while the stream is assembled, so spans started by the call
+     * become its children.
+     *
+     * @param stage the pipeline stage
+     * @param providerConfig the provider configuration the stage runs for
+     * @param call the supplier of the stage's Multi
+     * @return a Multi that emits the items of the call
+     */
+    public <T> Multi<T> timedStream(
+            Stage stage, AIProviderConfig providerConfig, Supplier<Multi<T>> call) {
+        return Multi.createFrom()
+                .deferred(
+                        () -> {
+                            StageTimer timer = start(stage, providerConfig);
+                            Multi<T> multi;
+                            try (Scope scope = timer.span.makeCurrent()) {
+                                multi = call.get();
+                            } catch (RuntimeException e) {
+                                timer.stop(e);
+                                throw e;
+                            }
+                            return multi.onTermination()
+                                    .invoke((failure, cancelled) -> timer.stop(failure, cancelled));
+                        });
+    }
+
+    /**
+     * Times a synchronous stage.
+     *
+     * @param stage the pipeline stage
+     * @param providerConfig the provider configuration the stage runs for
+     * @param call the stage's work
+     * @return the result of the call
+     */
+    public <T> T timedSync(Stage stage, AIProviderConfig providerConfig, Supplier<T> call) {
+        StageTimer timer = start(stage, providerConfig);
+        try (Scope scope = timer.span.makeCurrent()) {
+            T result = call.get();
+            timer.stop(null);
+            return result;
+        } catch (RuntimeException e) {
+            timer.stop(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Records a retry of a provider call.
+     *
+     * @param providerConfig the provider configuration of the retried call
+     */
+    public void recordRetry(AIProviderConfig providerConfig) {
+        meterRegistry
+                .counter("podmortem.analysis.retries", "provider", providerTag(providerConfig))
+                .increment();
+        Span.current().addEvent("retry");
+    }
+
+    /**
+     * Records that a fallback explanation was served instead of a provider response.
+     *
+     * @param providerConfig the provider configuration of the failed call
+     */
+    public void recordFallback(AIProviderConfig providerConfig) {
+        meterRegistry
+                .counter("podmortem.analysis.fallbacks", "provider", providerTag(providerConfig))
+                .increment();
+    }
+
+    /**
+     * Records the token usage a provider reported in the response metadata.
+     *
+     * @param providerConfig the provider configuration of the call
+     * @param response the provider response
+     */
+    public void recordTokens(AIProviderConfig providerConfig, AIResponse response) {
+        if (response.getMetadata() == null) {
+            return;
+        }
+        String provider = providerTag(providerConfig);
+        String model = modelTag(provider, providerConfig.getModelId());
+        for (Map.Entry<String, String> key : TOKEN_METADATA.entrySet()) {
+            if (response.getMetadata().get(key.getKey()) instanceof Number tokens) {
+                meterRegistry
+                        .counter(
+                                "podmortem.analysis.tokens",
+                                "provider",
+                                provider,
+                                "model",
+                                model,
+                                "type",
+                                key.getValue())
+                        .increment(tokens.doubleValue());
+            }
+        }
+    }
+
+    /**
+     * Gets the value a provider is tagged with.
+     *
+     * @param providerConfig the provider configuration
+     * @return the provider ID if the provider is registered or routes to registered providers,
+     *     otherwise {@value #UNKNOWN}
+     */
+    public String providerTag(AIProviderConfig providerConfig) {
+        if (ProviderRouter.isAuto(providerConfig)) {
+            return ProviderRouter.AUTO_PROVIDER_ID;
+        }
+        if (ProviderEnsemble.isEnsemble(providerConfig)) {
+            return ProviderEnsemble.ENSEMBLE_PROVIDER_ID;
+        }
+        String providerId = providerConfig.getProviderId();
+        return providerRegistry.findEntry(providerId) != null ? providerId : UNKNOWN;
+    }
+
+    private String modelTag(String provider, String modelId) {
+        if (modelId == null || UNKNOWN.equals(provider)) {
+            return UNKNOWN;
+        }
+        Set<String> models =
+                modelTags.computeIfAbsent(provider, key -> ConcurrentHashMap.newKeySet());
+        if (models.contains(modelId)) {
+            return modelId;
+        }
+        synchronized (models) {
+            if (models.size() < maxModelsPerProvider) {
+                models.add(modelId);
+                return modelId;
+            }
+        }
+        return OTHER;
+    }
+
+    /** A running measurement of one pipeline stage. */
+    public final class StageTimer {
+
+        private final Stage stage;
+        private final long startedNanos = System.nanoTime();
+        private final AtomicBoolean stopped = new AtomicBoolean();
+        private final Span span;
+        private volatile Tags tags;
+
+        StageTimer(Stage stage, Tags tags, Span span) {
+            this.stage = stage;
+            this.tags = tags;
+            this.span = span;
+        }
+
+        /**
+         * Adds a tag to the timer and an attribute to the span.
+         *
+         * @param key the tag key
+         * @param value the tag value
+         * @return this timer
+         */
+        public StageTimer tag(String key, String value) {
+            tags = tags.and(Tag.of(key, value));
+            span.setAttribute("podmortem." + key, value);
+            return this;
+        }
+
+        /**
+         * Stops the timer and ends the span.
+         *
+         * @param failure the failure of the stage, or null if it succeeded
+         */
+        public void stop(Throwable failure) {
+            stop(failure, false);
+        }
+
+        void stop(Throwable failure, boolean cancelled) {
+            if (!stopped.compareAndSet(false, true)) {
+                return;
+            }
+            String outcome = cancelled ? "cancelled" : failure != null ? "failure" : "success";
+            Timer.builder(stage.meterName)
+                    .tags(tags)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+            if (failure != null) {
+                span.recordException(failure);
+                span.setStatus(StatusCode.ERROR, failure.getMessage());
+            } else if (cancelled) {
+                span.addEvent("cancelled");
+            }
+            span.end();
+        }
+    }
+}
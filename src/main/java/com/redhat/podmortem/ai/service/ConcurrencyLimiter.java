@@ -0,0 +1,187 @@
+package com.redhat.podmortem.ai.service;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking bulkhead limiting the number of concurrent asynchronous operations.
+ *
+ * <p>Up to {@code maxConcurrent} operations run at once and up to {@code maxQueued} further
+ * operations wait for a free slot in FIFO order. When the wait queue is full, new operations are
+ * rejected immediately with a {@link ProviderOverloadedException} rather than waiting for a
+ * timeout. Waiting never blocks a thread: queued operations are started when a running one
+ * terminates.
+ */
+public class ConcurrencyLimiter {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final Duration retryAfter;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<CompletableFuture<Void>> waiting = new ArrayDeque<>();
+    private final LongAdder rejected = new LongAdder();
+    private int active;
+
+    /**
+     * Creates a new limiter.
+     *
+     * @param name the name reported in rejection messages
+     * @param maxConcurrent the maximum number of operations running at once
+     * @param maxQueued the maximum number of operations waiting for a slot
+     * @param retryAfter the retry hint given to rejected callers
+     */
+    public ConcurrencyLimiter(String name, int maxConcurrent, int maxQueued, Duration retryAfter) {
+        if (maxConcurrent < 1 || maxQueued < 0) {
+            throw new IllegalArgumentException(
+                    "Invalid limits for " + name + ": " + maxConcurrent + "/" + maxQueued);
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Runs an operation once a slot is available.
+     *
+     * <p>The operation is created lazily on subscription. The slot is released when the operation
+     * completes, fails or is cancelled; cancelling while still queued simply leaves the queue.
+     *
+     * @param operation supplier of the operation to run
+     * @param <T> the item type of the operation
+     * @return a Uni that emits the operation's result, or fails with {@link
+     *     ProviderOverloadedException} when the wait queue is full
+     */
+    public <T> Uni<T> submit(Supplier<Uni<T>> operation) {
+        return Uni.createFrom()
+                .deferred(
+                        () -> {
+                            CompletableFuture<Void> permit = acquire();
+                            // subscribe to a copy so a cancelled subscriber cannot cancel the
+                            // permit itself, every granted permit is released exactly once
+                            return Uni.createFrom()
+                                    .completionStage(permit.copy())
+                                    .chain(ignored -> operation.get())
+                                    .onTermination()
+                                    .invoke(() -> release(permit));
+                        });
+    }
+
+    /**
+     * Runs a streaming operation once a slot is available.
+     *
+     * <p>The slot is held until the stream completes, fails or is cancelled.
+     *
+     * @param operation supplier of the stream to run
+     * @param <T> the item type of the stream
+     * @return a Multi that emits the stream's items, or fails with {@link
+     *     ProviderOverloadedException} when the wait queue is full
+     */
+    public <T> Multi<T> submitStream(Supplier<Multi<T>> operation) {
+        return Multi.createFrom()
+                .deferred(
+                        () -> {
+                            CompletableFuture<Void> permit = acquire();
+                            return Uni.createFrom()
+                                    .completionStage(permit.copy())
+                                    .onItem()
+                                    .transformToMulti(ignored -> operation.get())
+                                    .onTermination()
+                                    .invoke(() -> release(permit));
+                        });
+    }
+
+    private CompletableFuture<Void> acquire() {
+        lock.lock();
+        try {
+            if (active < maxConcurrent) {
+                active++;
+                return CompletableFuture.completedFuture(null);
+            }
+            if (waiting.size() >= maxQueued) {
+                rejected.increment();
+                throw new ProviderOverloadedException(
+                        "Too many concurrent requests for " + name, retryAfter);
+            }
+            CompletableFuture<Void> permit = new CompletableFuture<>();
+            waiting.addLast(permit);
+            return permit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(CompletableFuture<Void> permit) {
+        CompletableFuture<Void> next;
+        lock.lock();
+        try {
+            if (waiting.remove(permit)) {
+                // cancelled while queued, it never held a slot
+                return;
+            }
+            next = waiting.pollFirst();
+            if (next == null) {
+                active--;
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // hand the slot over outside the lock, the next operation starts on completion
+        next.complete(null);
+    }
+
+    /**
+     * Gets the number of operations currently holding a slot.
+     *
+     * @return the number of running operations
+     */
+    public int getActive() {
+        lock.lock();
+        try {
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of operations waiting for a slot.
+     *
+     * @return the current queue depth
+     */
+    public int getQueued() {
+        lock.lock();
+        try {
+            return waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the total number of operations rejected because the queue was full.
+     *
+     * @return the rejection count
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+}
@@ -0,0 +1,16 @@
+package com.redhat.podmortem.ai.service;
+
+import org.eclipse.microprofile.faulttolerance.exceptions.TimeoutException;
+
+/**
+ * Thrown when an analysis cannot complete before the deadline given by its caller.
+ *
+ * <p>The REST layer reports it to clients as {@code 504 Gateway Timeout}. It is never retried,
+ * since the caller has stopped waiting for the result.
+ */
+public class DeadlineExceededException extends TimeoutException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
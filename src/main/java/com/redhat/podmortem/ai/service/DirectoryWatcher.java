@@ -0,0 +1,134 @@
+package com.redhat.podmortem.ai.service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.jboss.logging.Logger;
+
+/**
+ * Watches a configuration directory and runs a reload once it has been quiet for a delay.
+ *
+ * <p>Kubernetes updates a ConfigMap volume by swapping a symbolic link rather than modifying the
+ * files, which is several events in quick succession. Any change in the directory therefore
+ * triggers a single reload, on a daemon thread, after no further event arrived within the delay.
+ */
+final class DirectoryWatcher {
+
+    private static final Logger LOG = Logger.getLogger(DirectoryWatcher.class);
+
+    private final String description;
+    private final Path directory;
+    private final Duration delay;
+    private final Runnable reload;
+
+    private volatile WatchService watchService;
+
+    /**
+     * Creates a watcher that is not started yet.
+     *
+     * @param description what the directory holds, used in log messages and the thread name, for
+     *     example {@code "provider directory"}
+     * @param directory the directory to watch
+     * @param delay how long the directory must be quiet before reloading
+     * @param reload the reload to run after a change
+     */
+    DirectoryWatcher(String description, Path directory, Duration delay, Runnable reload) {
+        this.description = description;
+        this.directory = directory;
+        this.delay = delay;
+        this.reload = reload;
+    }
+
+    /**
+     * Starts watching the directory. Failures to watch are logged and leave the watcher stopped.
+     *
+     * @return true if the directory is now watched
+     */
+    boolean start() {
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(
+                    watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | UnsupportedOperationException e) {
+            LOG.warnf("Cannot watch %s %s: %s", description, directory, e.getMessage());
+            watchService = null;
+            return false;
+        }
+        Thread watcher = new Thread(this::watchLoop, description.replace(' ', '-') + "-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        LOG.infof("Watching %s %s", description, directory);
+        return true;
+    }
+
+    /**
+     * Checks whether the directory is watched.
+     *
+     * @return true if the watcher started and has not been closed
+     */
+    boolean isWatching() {
+        return watchService != null;
+    }
+
+    /** Stops watching the directory. */
+    void close() {
+        WatchService current = watchService;
+        if (current == null) {
+            return;
+        }
+        watchService = null;
+        try {
+            current.close();
+        } catch (IOException e) {
+            LOG.debugf(e, "Failed to close %s watcher", description);
+        }
+    }
+
+    private void watchLoop() {
+        WatchService service = watchService;
+        try {
+            while (true) {
+                boolean valid = drain(service.take());
+                // wait until the directory is quiet, a ConfigMap update is several events; the key
+                // is reset as soon as it is drained, so events arriving meanwhile extend the wait
+                // instead of triggering a second reload
+                WatchKey next;
+                while ((next = service.poll(delay.toMillis(), TimeUnit.MILLISECONDS)) != null) {
+                    valid = drain(next);
+                }
+                LOG.infof("%s changed, reloading", capitalize(description));
+                try {
+                    reload.run();
+                } catch (RuntimeException e) {
+                    LOG.warnf(e, "Failed to reload %s %s", description, directory);
+                }
+                if (!valid) {
+                    LOG.warnf("%s %s is no longer accessible", capitalize(description), directory);
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // shutting down
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Discards the pending events of a key and resets it, returning whether it is still valid. */
+    private static boolean drain(WatchKey key) {
+        key.pollEvents();
+        return key.reset();
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+}
@@ -0,0 +1,358 @@
+package com.redhat.podmortem.ai.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.podmortem.common.model.analysis.AnalysisResult;
+import com.redhat.podmortem.common.model.analysis.MatchedEvent;
+import com.redhat.podmortem.common.model.provider.AIProviderConfig;
+import com.redhat.podmortem.common.model.provider.AIResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Reduces analysis results to a prompt token budget before they are sent to an AI provider.
+ *
+ * <p>Events are collapsed when they share a matched pattern and normalized log line, keeping the
+ * highest scored occurrence annotated with the repeat count. The remaining events are ranked by
+ * severity and score and trimmed to the token budget of the target provider and model. Token counts
+ * are estimated from character counts.
+ *
+ * <p>The budget defaults to {@code podmortem.prompt.token-budget} and can be overridden with {@code
+ * podmortem.providers.<provider-id>.prompt.token-budget} or {@code
+ * podmortem.providers.<provider-id>.models.<model-id>.prompt.token-budget}.
+ *
+ * <p>Events matched by the {@value #CONTEXT_PATTERN_ID} pattern carry context for the provider
+ * rather than log lines, such as a previous explanation. They are never collapsed or trimmed, and
+ * their tokens count against the budget first.
+ */
+@ApplicationScoped
+public class EventPruner {
+
+    private static final Logger LOG = Logger.getLogger(EventPruner.class);
+
+    /** Pattern ID of synthetic events carrying context that must always reach the provider. */
+    public static final String CONTEXT_PATTERN_ID = "podmortem-context";
+
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final int EVENT_OVERHEAD_TOKENS = 16;
+
+    @Inject ObjectMapper objectMapper;
+
+    @Inject Config config;
+
+    @ConfigProperty(name = "podmortem.prompt.token-budget", defaultValue = "6000")
+    int defaultTokenBudget;
+
+    /** Token budgets configured per provider and model, see {@link ProviderOverrides}. */
+    private Map<String, Integer> budgets;
+
+    private ObjectMapper withoutEvents;
+
+    /** Serialization view of an analysis result that leaves the events out when copying it. */
+    @JsonIgnoreProperties({"events"})
+    abstract static class WithoutEvents {}
+
+    @PostConstruct
+    void initialize() {
+        this.withoutEvents =
+                objectMapper.copy().addMixIn(AnalysisResult.class, WithoutEvents.class);
+        this.budgets = ProviderOverrides.find(config, "prompt.token-budget", Integer.class);
+    }
+
+    /**
+     * Prunes the events of an analysis result to the prompt budget of a provider and model.
+     *
+     * <p>The original analysis result is never modified. When nothing needs to be collapsed or
+     * trimmed, it is returned as is.
+     *
+     * @param analysisResult the log analysis results
+     * @param providerConfig the AI provider configuration the result will be sent to
+     * @return the pruning outcome with the analysis result to send
+     */
+    public Result prune(AnalysisResult analysisResult, AIProviderConfig providerConfig) {
+        List<MatchedEvent> events = analysisResult.getEvents();
+        if (events == null || events.isEmpty()) {
+            return new Result(analysisResult, 0, 0, 0, 0);
+        }
+
+        int budget = tokenBudget(providerConfig);
+
+        // collapse near-duplicates onto their highest scored occurrence
+        Map<String, Group> groups = new LinkedHashMap<>();
+        List<MatchedEvent> context = new ArrayList<>();
+        int contextTokens = 0;
+        int tokensBefore = 0;
+        for (MatchedEvent event : events) {
+            int tokens = estimateTokens(event);
+            tokensBefore += tokens;
+            if (isContext(event)) {
+                context.add(event);
+                contextTokens += tokens;
+                continue;
+            }
+            Group group = groups.computeIfAbsent(groupKey(event), key -> new Group());
+            group.count++;
+            if (group.event == null || event.getScore() > group.event.getScore()) {
+                group.event = event;
+                group.tokens = tokens;
+            }
+        }
+
+        if (groups.size() + context.size() == events.size() && tokensBefore <= budget) {
+            return new Result(
+                    analysisResult, events.size(), events.size(), tokensBefore, tokensBefore);
+        }
+
+        List<Group> ranked = new ArrayList<>(groups.values());
+        ranked.sort(
+                Comparator.comparingInt((Group group) -> severityRank(group.event))
+                        .thenComparingDouble(group -> group.event.getScore())
+                        .thenComparingInt(group -> group.count)
+                        .reversed());
+
+        List<MatchedEvent> kept = new ArrayList<>(context);
+        int tokensAfter = contextTokens;
+        for (Group group : ranked) {
+            if (kept.size() > context.size() && tokensAfter + group.tokens > budget) {
+                break;
+            }
+            kept.add(group.count > 1 ? annotateRepeats(group.event, group.count) : group.event);
+            tokensAfter += group.tokens;
+        }
+
+        LOG.debugf(
+                "Pruned analysis ID %s from %d events (~%d tokens) to %d events (~%d tokens)",
+                analysisResult.getAnalysisId(),
+                events.size(),
+                tokensBefore,
+                kept.size(),
+                tokensAfter);
+
+        AnalysisResult pruned = copyWithoutEvents(analysisResult);
+        pruned.setEvents(kept);
+        return new Result(pruned, events.size(), kept.size(), tokensBefore, tokensAfter);
+    }
+
+    private int tokenBudget(AIProviderConfig providerConfig) {
+        String providerId = providerConfig.getProviderId();
+        Integer budget =
+                budgets.get(ProviderOverrides.key(providerId, providerConfig.getModelId()));
+        if (budget == null) {
+            budget = budgets.get(providerId);
+        }
+        return budget != null ? budget : defaultTokenBudget;
+    }
+
+    /**
+     * Creates a copy of an analysis result with other events.
+     *
+     * @param analysisResult the log analysis results to copy
+     * @param events the events of the copy
+     * @return the copy, sharing nothing but the events with the original
+     */
+    AnalysisResult withEvents(AnalysisResult analysisResult, List<MatchedEvent> events) {
+        AnalysisResult copy = copyWithoutEvents(analysisResult);
+        copy.setEvents(events);
+        return copy;
+    }
+
+    /**
+     * Creates a synthetic event carrying context for the provider.
+     *
+     * @param text the context, sent to the provider as the event's matched line
+     * @return the context event, which is never pruned
+     */
+    MatchedEvent contextEvent(String text) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("lineNumber", 0);
+        event.put("score", 1.0);
+        event.put("matchedPattern", Map.of("id", CONTEXT_PATTERN_ID, "severity", "INFO"));
+        event.put(
+                "context",
+                Map.of("matchedLine", text, "linesBefore", List.of(), "linesAfter", List.of()));
+        return objectMapper.convertValue(event, MatchedEvent.class);
+    }
+
+    private static boolean isContext(MatchedEvent event) {
+        return event.getMatchedPattern() != null
+                && CONTEXT_PATTERN_ID.equals(event.getMatchedPattern().getId());
+    }
+
+    private static String groupKey(MatchedEvent event) {
+        String patternId =
+                event.getMatchedPattern() != null ? event.getMatchedPattern().getId() : null;
+        String line = event.getContext() != null ? event.getContext().getMatchedLine() : null;
+        return patternId + '|' + AnalysisFingerprint.normalizeLine(line);
+    }
+
+    /**
+     * Estimates the number of tokens of a text from its length.
+     *
+     * @param chars the number of characters of the text
+     * @return the estimated number of tokens
+     */
+    static int tokensForChars(int chars) {
+        return chars / CHARS_PER_TOKEN;
+    }
+
+    private static int estimateTokens(MatchedEvent event) {
+        int chars = 0;
+        var context = event.getContext();
+        if (context != null) {
+            chars += length(context.getMatchedLine());
+            if (context.getLinesBefore() != null) {
+                for (String line : context.getLinesBefore()) {
+                    chars += length(line);
+                }
+            }
+            if (context.getLinesAfter() != null) {
+                for (String line : context.getLinesAfter()) {
+                    chars += length(line);
+                }
+            }
+        }
+        return EVENT_OVERHEAD_TOKENS + chars / CHARS_PER_TOKEN;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() + 1 : 0;
+    }
+
+    /**
+     * Ranks a severity so that more severe events sort higher.
+     *
+     * @param event the matched event
+     * @return the severity rank, 0 for unknown severities
+     */
+    static int severityRank(MatchedEvent event) {
+        return event.getMatchedPattern() != null
+                ? severityRank(event.getMatchedPattern().getSeverity())
+                : 0;
+    }
+
+    /**
+     * Ranks a severity name so that more severe events sort higher.
+     *
+     * @param severity the pattern severity, may be null
+     * @return the severity rank, 0 for unknown severities
+     */
+    static int severityRank(String severity) {
+        if (severity == null) {
+            return 0;
+        }
+        return switch (severity.toUpperCase(Locale.ROOT)) {
+            case "CRITICAL" -> 5;
+            case "HIGH" -> 4;
+            case "MEDIUM" -> 3;
+            case "LOW" -> 2;
+            case "INFO" -> 1;
+            default -> 0;
+        };
+    }
+
+    private MatchedEvent annotateRepeats(MatchedEvent event, int count) {
+        try {
+            MatchedEvent copy =
+                    objectMapper.treeToValue(objectMapper.valueToTree(event), MatchedEvent.class);
+            if (copy.getContext() != null) {
+                copy.getContext()
+                        .setMatchedLine(
+                                copy.getContext().getMatchedLine()
+                                        + " [repeated "
+                                        + count
+                                        + " times]");
+            }
+            return copy;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to copy matched event", e);
+        }
+    }
+
+    private AnalysisResult copyWithoutEvents(AnalysisResult analysisResult) {
+        try {
+            return withoutEvents.treeToValue(
+                    withoutEvents.valueToTree(analysisResult), AnalysisResult.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to copy analysis result", e);
+        }
+    }
+
+    /** Mutable accumulator for a group of near-duplicate events. */
+    private static final class Group {
+        MatchedEvent event;
+        int count;
+        int tokens;
+    }
+
+    /** Outcome of pruning an analysis result. */
+    public static final class Result {
+
+        private final AnalysisResult analysisResult;
+        private final int eventsBefore;
+        private final int eventsAfter;
+        private final int tokensBefore;
+        private final int tokensAfter;
+
+        Result(
+                AnalysisResult analysisResult,
+                int eventsBefore,
+                int eventsAfter,
+                int tokensBefore,
+                int tokensAfter) {
+            this.analysisResult = analysisResult;
+            this.eventsBefore = eventsBefore;
+            this.eventsAfter = eventsAfter;
+            this.tokensBefore = tokensBefore;
+            this.tokensAfter = tokensAfter;
+        }
+
+        /**
+         * Gets the analysis result to send to the provider.
+         *
+         * @return the pruned analysis result
+         */
+        public AnalysisResult getAnalysisResult() {
+            return analysisResult;
+        }
+
+        /**
+         * Gets the estimated prompt size of the pruned events.
+         *
+         * @return the estimated number of prompt tokens sent to the provider
+         */
+        public int getTokensAfter() {
+            return tokensAfter;
+        }
+
+        /**
+         * Records the before and after prompt sizes in the response metadata.
+         *
+         * @param response the AI response to annotate
+         * @return the same response
+         */
+        public AIResponse recordTo(AIResponse response) {
+            Map<String, Object> metadata =
+                    response.getMetadata() != null
+                            ? new HashMap<>(response.getMetadata())
+                            : new HashMap<>();
+            metadata.put("promptEventsBefore", eventsBefore);
+            metadata.put("promptEventsAfter", eventsAfter);
+            metadata.put("promptTokensBefore", tokensBefore);
+            metadata.put("promptTokensAfter", tokensAfter);
+            response.setMetadata(metadata);
+            return response;
+        }
+    }
+}
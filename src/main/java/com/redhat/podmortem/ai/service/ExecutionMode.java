@@ -0,0 +1,22 @@
+package com.redhat.podmortem.ai.service;
+
+/**
+ * Threads on which calls to an AI provider are made.
+ *
+ * <p>Configured with {@code podmortem.execution-mode} and overridable per provider with {@code
+ * podmortem.providers.<provider-id>.execution-mode}.
+ */
+public enum ExecutionMode {
+
+    /** Call the provider on the caller's thread, for providers with non-blocking I/O. */
+    EVENT_LOOP,
+
+    /** Call the provider on the shared worker pool, for providers with a few blocking calls. */
+    WORKER,
+
+    /**
+     * Call the provider on a new virtual thread, for providers with blocking I/O under high
+     * concurrency.
+     */
+    VIRTUAL_THREAD
+}
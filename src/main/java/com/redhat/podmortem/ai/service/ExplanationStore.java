@@ -0,0 +1,589 @@
+package com.redhat.podmortem.ai.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.redhat.podmortem.common.model.analysis.AnalysisResult;
+import com.redhat.podmortem.common.model.provider.AIProviderConfig;
+import com.redhat.podmortem.common.model.provider.AIResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Persistent store of AI explanations that survives restarts.
+ *
+ * <p>Successful provider responses are appended, together with the fingerprint and event signatures
+ * of their analysis, to a memory-mapped file by a single background writer. An in-memory index
+ * answers new analyses either by exact fingerprint or, for failures that differ in a few events, by
+ * the estimated Jaccard similarity of their event signatures. Similarity is estimated with MinHash
+ * signatures, and candidates are found through locality sensitive hashing so a lookup does not scan
+ * the whole store. Matches are only made within the same provider and model.
+ *
+ * <p>Records are never modified in place. When the file reaches {@code podmortem.store.max-size},
+ * it is compacted: superseded records are dropped and the oldest remaining ones are evicted until
+ * the store is back under three quarters of its cap.
+ */
+@ApplicationScoped
+public class ExplanationStore {
+
+    private static final Logger LOG = Logger.getLogger(ExplanationStore.class);
+
+    private static final long MAGIC = 0x504d4558504c3031L; // "PMEXPL01"
+    private static final int FILE_HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int SIGNATURE_SIZE = 64;
+    private static final int BANDS = 16;
+    private static final int ROWS = SIGNATURE_SIZE / BANDS;
+    private static final double COMPACTION_TARGET = 0.75;
+
+    @Inject ObjectMapper objectMapper;
+
+    @Inject MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "podmortem.store.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(
+            name = "podmortem.store.path",
+            defaultValue = "/var/lib/podmortem/explanations.store")
+    Path path;
+
+    @ConfigProperty(name = "podmortem.store.max-size", defaultValue = "256M")
+    MemorySize maxSize;
+
+    @ConfigProperty(name = "podmortem.store.similarity-threshold", defaultValue = "0.8")
+    double similarityThreshold;
+
+    private volatile Segment segment;
+
+    private FileChannel channel;
+
+    private ExecutorService writer;
+
+    @PostConstruct
+    void initialize() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            open();
+        } catch (IOException | RuntimeException e) {
+            LOG.warnf(e, "Explanation store disabled, cannot open %s", path);
+            return;
+        }
+        this.writer =
+                Executors.newSingleThreadExecutor(
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "explanation-store-writer");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+
+        Gauge.builder("podmortem.store.entries", this, ExplanationStore::size)
+                .description("Explanations in the persistent store")
+                .register(meterRegistry);
+        Gauge.builder("podmortem.store.size", this, store -> store.segment.position)
+                .baseUnit("bytes")
+                .description("Bytes used in the persistent store file")
+                .register(meterRegistry);
+
+        LOG.infof(
+                "Explanation store opened at %s with %d explanations (%d of %d bytes used)",
+                path, size(), segment.position, segment.capacity);
+    }
+
+    @PreDestroy
+    void close() {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOG.warn("Explanation store writer did not finish pending writes");
+            }
+            segment.buffer.force();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            LOG.warnf(e, "Failed to close explanation store %s", path);
+        }
+    }
+
+    /**
+     * Gets the number of explanations in the store.
+     *
+     * @return the number of stored explanations, 0 if the store is disabled
+     */
+    public int size() {
+        Segment current = segment;
+        return current != null ? current.byFingerprint.size() : 0;
+    }
+
+    /**
+     * Checks whether an explanation is stored for an exact fingerprint.
+     *
+     * @param fingerprint the analysis fingerprint
+     * @return true if an explanation with this fingerprint is stored
+     */
+    public boolean contains(String fingerprint) {
+        Segment current = segment;
+        return current != null && current.byFingerprint.containsKey(fingerprint);
+    }
+
+    /**
+     * Finds a stored explanation for an analysis.
+     *
+     * <p>An explanation stored under the same fingerprint is preferred. Otherwise the most similar
+     * explanation for the same provider and model is returned if its estimated Jaccard similarity
+     * reaches {@code podmortem.store.similarity-threshold}. The response metadata records whether
+     * the match was exact and the similarity.
+     *
+     * @param fingerprint the fingerprint of the analysis
+     * @param analysisResult the log analysis results
+     * @param providerConfig the AI provider configuration of the request
+     * @return a new copy of the stored response, or empty if nothing matches
+     */
+    public Optional<AIResponse> find(
+            String fingerprint, AnalysisResult analysisResult, AIProviderConfig providerConfig) {
+        Segment current = segment;
+        if (current == null) {
+            return Optional.empty();
+        }
+
+        StoredExplanation exact = current.byFingerprint.get(fingerprint);
+        if (exact != null) {
+            return read(current, exact, "exact", 1.0);
+        }
+
+        List<String> features = AnalysisFingerprint.eventSignatures(analysisResult);
+        if (features.isEmpty()) {
+            recordLookup("miss");
+            return Optional.empty();
+        }
+        String scope = scope(providerConfig);
+        long[] signature = signature(features);
+
+        StoredExplanation best = null;
+        double bestSimilarity = 0;
+        for (int band = 0; band < BANDS; band++) {
+            Set<StoredExplanation> bucket = current.bands.get(bandKey(scope, signature, band));
+            if (bucket == null) {
+                continue;
+            }
+            for (StoredExplanation candidate : bucket) {
+                if (!candidate.scope.equals(scope)) {
+                    continue;
+                }
+                double similarity = similarity(signature, candidate.signature);
+                if (similarity > bestSimilarity) {
+                    best = candidate;
+                    bestSimilarity = similarity;
+                }
+            }
+        }
+
+        if (best == null || bestSimilarity < similarityThreshold) {
+            recordLookup("miss");
+            return Optional.empty();
+        }
+        LOG.debugf(
+                "Explanation store match for analysis ID %s with similarity %.2f",
+                analysisResult.getAnalysisId(), bestSimilarity);
+        return read(current, best, "similar", bestSimilarity);
+    }
+
+    /**
+     * Stores an explanation asynchronously.
+     *
+     * <p>Failures to write are logged and never reach the caller. A later explanation with the same
+     * fingerprint supersedes the earlier one.
+     *
+     * @param fingerprint the fingerprint of the analysis
+     * @param analysisResult the log analysis results
+     * @param providerConfig the AI provider configuration of the request
+     * @param response the provider response, which must not be modified afterwards
+     */
+    public void store(
+            String fingerprint,
+            AnalysisResult analysisResult,
+            AIProviderConfig providerConfig,
+            AIResponse response) {
+        if (writer == null) {
+            return;
+        }
+        String scope = scope(providerConfig);
+        try {
+            writer.execute(
+                    () -> {
+                        try {
+                            append(
+                                    fingerprint,
+                                    scope,
+                                    AnalysisFingerprint.eventSignatures(analysisResult),
+                                    response);
+                        } catch (IOException | RuntimeException e) {
+                            LOG.warnf(e, "Failed to store explanation %s", fingerprint);
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            LOG.debugf("Explanation store is closed, dropping explanation %s", fingerprint);
+        }
+    }
+
+    private void open() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel =
+                FileChannel.open(
+                        path,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+        int capacity = (int) Math.min(maxSize.asLongValue(), Integer.MAX_VALUE - 8);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        this.segment = load(buffer, capacity);
+    }
+
+    /** Rebuilds the index from the records in a mapped file, stopping at the first torn one. */
+    private Segment load(MappedByteBuffer buffer, int capacity) throws IOException {
+        Segment loaded = new Segment(buffer, capacity);
+        if (buffer.getLong(0) != MAGIC) {
+            buffer.putLong(0, MAGIC);
+            buffer.putInt(FILE_HEADER_BYTES, 0);
+            loaded.position = FILE_HEADER_BYTES;
+            return loaded;
+        }
+
+        int position = FILE_HEADER_BYTES;
+        while (position + RECORD_HEADER_BYTES <= capacity) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER_BYTES + length > capacity) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + RECORD_HEADER_BYTES, payload);
+            if (crc(payload) != buffer.getInt(position + 4)) {
+                LOG.warnf("Ignoring torn explanation store record at offset %d", position);
+                break;
+            }
+
+            JsonNode node = objectMapper.readTree(payload);
+            List<String> features = new ArrayList<>();
+            node.path("features").forEach(feature -> features.add(feature.asText()));
+            index(
+                    loaded,
+                    new StoredExplanation(
+                            node.path("fingerprint").asText(),
+                            node.path("scope").asText(),
+                            signature(features),
+                            position,
+                            RECORD_HEADER_BYTES + length));
+            position += RECORD_HEADER_BYTES + length;
+        }
+        loaded.position = position;
+        return loaded;
+    }
+
+    /** Appends a record, compacting the file first if it would not fit. Writer thread only. */
+    private void append(
+            String fingerprint, String scope, List<String> features, AIResponse response)
+            throws IOException {
+        ObjectNode payload = objectMapper.createObjectNode();
+        payload.put("fingerprint", fingerprint);
+        payload.put("scope", scope);
+        payload.put("storedAt", Instant.now().toString());
+        ArrayNode featureArray = payload.putArray("features");
+        features.forEach(featureArray::add);
+        payload.set("response", objectMapper.valueToTree(response));
+        byte[] bytes = objectMapper.writeValueAsBytes(payload);
+
+        int length = RECORD_HEADER_BYTES + bytes.length;
+        Segment current = segment;
+        if (length > current.capacity / 4) {
+            LOG.warnf("Explanation %s is too large to store (%d bytes)", fingerprint, length);
+            return;
+        }
+        if (current.position + length + 4 > current.capacity) {
+            current = compact(current, length);
+        }
+
+        int offset = current.position;
+        current.buffer.putInt(offset + 4, crc(bytes));
+        current.buffer.put(offset + RECORD_HEADER_BYTES, bytes);
+        if (offset + length + 4 <= current.capacity) {
+            // end marker, so a stale record after a torn write is never read back
+            current.buffer.putInt(offset + length, 0);
+        }
+        // the length is written last, so a torn record is never seen as complete
+        current.buffer.putInt(offset, bytes.length);
+
+        index(
+                current,
+                new StoredExplanation(fingerprint, scope, signature(features), offset, length));
+        current.position = offset + length;
+    }
+
+    /**
+     * Rewrites the live records into a new file, evicting the oldest ones to stay under the cap.
+     * Writer thread only.
+     *
+     * @param current the segment to compact
+     * @param reserve the bytes needed for the record about to be appended
+     * @return the compacted segment, which replaces the current one
+     */
+    private Segment compact(Segment current, int reserve) throws IOException {
+        List<StoredExplanation> live = new ArrayList<>(current.byFingerprint.values());
+        live.sort(Comparator.comparingInt((StoredExplanation record) -> record.offset).reversed());
+
+        long budget = (long) (current.capacity * COMPACTION_TARGET) - FILE_HEADER_BYTES - reserve;
+        List<StoredExplanation> kept = new ArrayList<>();
+        long used = 0;
+        for (StoredExplanation record : live) {
+            if (used + record.length > budget) {
+                break;
+            }
+            kept.add(record);
+            used += record.length;
+        }
+        kept.sort(Comparator.comparingInt(record -> record.offset));
+
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        Files.deleteIfExists(compacted);
+        FileChannel compactedChannel =
+                FileChannel.open(
+                        compacted,
+                        StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+        MappedByteBuffer buffer =
+                compactedChannel.map(FileChannel.MapMode.READ_WRITE, 0, current.capacity);
+        buffer.putLong(0, MAGIC);
+
+        Segment fresh = new Segment(buffer, current.capacity);
+        int position = FILE_HEADER_BYTES;
+        for (StoredExplanation record : kept) {
+            byte[] bytes = new byte[record.length];
+            current.buffer.get(record.offset, bytes);
+            buffer.put(position, bytes);
+            index(
+                    fresh,
+                    new StoredExplanation(
+                            record.fingerprint,
+                            record.scope,
+                            record.signature,
+                            position,
+                            record.length));
+            position += record.length;
+        }
+        buffer.putInt(position, 0);
+        fresh.position = position;
+        buffer.force();
+
+        Files.move(
+                compacted,
+                path,
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        // readers still holding the old segment keep a valid mapping after the channel is closed
+        channel.close();
+        channel = compactedChannel;
+        segment = fresh;
+
+        int evicted = live.size() - kept.size();
+        meterRegistry.counter("podmortem.store.compactions").increment();
+        meterRegistry.counter("podmortem.store.evicted").increment(evicted);
+        LOG.infof(
+                "Compacted explanation store from %d to %d bytes, evicted %d explanations",
+                current.position, position, evicted);
+        return fresh;
+    }
+
+    private Optional<AIResponse> read(
+            Segment current, StoredExplanation record, String match, double similarity) {
+        byte[] payload = new byte[record.length - RECORD_HEADER_BYTES];
+        current.buffer.get(record.offset + RECORD_HEADER_BYTES, payload);
+        AIResponse response;
+        try {
+            JsonNode node = objectMapper.readTree(payload);
+            response = objectMapper.treeToValue(node.get("response"), AIResponse.class);
+        } catch (IOException e) {
+            LOG.warnf(e, "Failed to read stored explanation %s", record.fingerprint);
+            recordLookup("miss");
+            return Optional.empty();
+        }
+
+        Map<String, Object> metadata =
+                response.getMetadata() != null
+                        ? new HashMap<>(response.getMetadata())
+                        : new HashMap<>();
+        metadata.put("storeMatch", match);
+        metadata.put("storeSimilarity", similarity);
+        response.setMetadata(metadata);
+        recordLookup(match);
+        return Optional.of(response);
+    }
+
+    private void recordLookup(String result) {
+        meterRegistry.counter("podmortem.store.lookups", "result", result).increment();
+    }
+
+    private static void index(Segment target, StoredExplanation record) {
+        StoredExplanation previous = target.byFingerprint.put(record.fingerprint, record);
+        if (previous != null) {
+            for (int band = 0; band < BANDS; band++) {
+                Set<StoredExplanation> bucket =
+                        target.bands.get(bandKey(previous.scope, previous.signature, band));
+                if (bucket != null) {
+                    bucket.remove(previous);
+                }
+            }
+        }
+        for (int band = 0; band < BANDS; band++) {
+            target.bands
+                    .computeIfAbsent(
+                            bandKey(record.scope, record.signature, band),
+                            key -> ConcurrentHashMap.newKeySet())
+                    .add(record);
+        }
+    }
+
+    private static String scope(AIProviderConfig providerConfig) {
+        return providerConfig.getProviderId() + '/' + providerConfig.getModelId();
+    }
+
+    private static int crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Computes the MinHash signature of a feature set.
+     *
+     * @param features the event signatures of an analysis
+     * @return the minimum of each of the {@value #SIGNATURE_SIZE} hash functions over the features
+     */
+    static long[] signature(List<String> features) {
+        long[] signature = new long[SIGNATURE_SIZE];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (String feature : features) {
+            long base = fnv1a(feature);
+            for (int i = 0; i < SIGNATURE_SIZE; i++) {
+                long hash = mix(base + (i + 1) * 0x9e3779b97f4a7c15L);
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Estimates the Jaccard similarity of two feature sets from their MinHash signatures.
+     *
+     * @param left the first signature
+     * @param right the second signature
+     * @return the share of hash functions whose minimums agree
+     */
+    static double similarity(long[] left, long[] right) {
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            if (left[i] == right[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIGNATURE_SIZE;
+    }
+
+    private static long bandKey(String scope, long[] signature, int band) {
+        long key = scope.hashCode() * 31L + band;
+        for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+            key = mix(key ^ signature[row]);
+        }
+        return key;
+    }
+
+    private static long fnv1a(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /** SplitMix64 finalizer. */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    /** A mapped store file with its index. Replaced as a whole on compaction. */
+    private static final class Segment {
+
+        final MappedByteBuffer buffer;
+        final int capacity;
+        final Map<String, StoredExplanation> byFingerprint = new ConcurrentHashMap<>();
+        final Map<Long, Set<StoredExplanation>> bands = new ConcurrentHashMap<>();
+        volatile int position;
+
+        Segment(MappedByteBuffer buffer, int capacity) {
+            this.buffer = buffer;
+            this.capacity = capacity;
+        }
+    }
+
+    /** Location and MinHash signature of a stored explanation. */
+    private static final class StoredExplanation {
+
+        final String fingerprint;
+        final String scope;
+        final long[] signature;
+        final int offset;
+        final int length;
+
+        StoredExplanation(
+                String fingerprint, String scope, long[] signature, int offset, int length) {
+            this.fingerprint = fingerprint;
+            this.scope = scope;
+            this.signature = signature;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
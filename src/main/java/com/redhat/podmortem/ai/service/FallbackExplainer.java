@@ -0,0 +1,181 @@
+package com.redhat.podmortem.ai.service;
+
+import com.redhat.podmortem.common.model.analysis.AnalysisResult;
+import com.redhat.podmortem.common.model.analysis.MatchedEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local pattern-based explainer used when no AI provider is available.
+ *
+ * <p>Aggregates all events of an analysis result by matched pattern, ranks the patterns as root
+ * cause candidates by severity, total score and occurrence count, and describes the top candidates
+ * together with the log line of their highest scored occurrence. The confidence grows with the
+ * share of events covered by the reported candidates.
+ *
+ * <p>The explainer makes a single pass over the events and allocates per distinct pattern rather
+ * than per event, so it stays cheap for results with many thousands of events.
+ */
+public final class FallbackExplainer {
+
+    /** Maximum number of root cause candidates described. */
+    static final int MAX_CANDIDATES = 3;
+
+    private static final int MAX_LINE_LENGTH = 200;
+    private static final double MIN_CONFIDENCE = 0.3;
+    private static final double MAX_CONFIDENCE = 0.7;
+
+    private FallbackExplainer() {}
+
+    /**
+     * Explains an analysis result without an AI provider.
+     *
+     * @param analysisResult the log analysis results to explain
+     * @return the explanation text and its confidence
+     */
+    public static Explanation explain(AnalysisResult analysisResult) {
+        StringBuilder text = new StringBuilder(512);
+        text.append("Pod failure analysis (pattern-based fallback): ");
+
+        List<MatchedEvent> events = analysisResult.getEvents();
+        if (events == null || events.isEmpty()) {
+            text.append("No specific failure patterns were detected in the log analysis.");
+            return new Explanation(text.toString(), MIN_CONFIDENCE);
+        }
+
+        Map<String, Candidate> byPattern = new HashMap<>();
+        for (MatchedEvent event : events) {
+            var pattern = event.getMatchedPattern();
+            String patternId = pattern != null ? pattern.getId() : null;
+            Candidate candidate = byPattern.get(patternId);
+            if (candidate == null) {
+                String severity = pattern != null ? pattern.getSeverity() : null;
+                candidate = new Candidate(patternId, severity);
+                byPattern.put(patternId, candidate);
+            }
+            candidate.add(event);
+        }
+
+        List<Candidate> ranked = new ArrayList<>(byPattern.values());
+        ranked.sort(Candidate::compareByLikelihood);
+        int reported = Math.min(MAX_CANDIDATES, ranked.size());
+
+        int covered = 0;
+        for (int i = 0; i < reported; i++) {
+            covered += ranked.get(i).count;
+        }
+
+        text.append(events.size())
+                .append(" event(s) matched ")
+                .append(byPattern.size())
+                .append(" pattern(s). Most likely root cause: ");
+        describe(text, ranked.get(0));
+        if (reported > 1) {
+            text.append(" Other candidates: ");
+            for (int i = 1; i < reported; i++) {
+                if (i > 1) {
+                    text.append("; ");
+                }
+                describe(text, ranked.get(i));
+            }
+            text.append('.');
+        }
+        if (ranked.size() > reported) {
+            text.append(" ")
+                    .append(ranked.size() - reported)
+                    .append(" less significant pattern(s) were also detected.");
+        }
+
+        double coverage = (double) covered / events.size();
+        double confidence = MIN_CONFIDENCE + (MAX_CONFIDENCE - MIN_CONFIDENCE) * coverage;
+        return new Explanation(text.toString(), confidence);
+    }
+
+    private static void describe(StringBuilder text, Candidate candidate) {
+        if (candidate.patternId != null) {
+            text.append("pattern '").append(candidate.patternId).append('\'');
+        } else {
+            text.append("unmatched events");
+        }
+        text.append(" (severity ")
+                .append(candidate.severity != null ? candidate.severity : "unknown")
+                .append(", ")
+                .append(candidate.count)
+                .append(candidate.count == 1 ? " occurrence" : " occurrences")
+                .append(", line ")
+                .append(candidate.bestLineNumber)
+                .append(')');
+        if (candidate.bestLine != null && !candidate.bestLine.isBlank()) {
+            text.append(": \"");
+            String line = candidate.bestLine.strip();
+            if (line.length() > MAX_LINE_LENGTH) {
+                text.append(line, 0, MAX_LINE_LENGTH).append("...");
+            } else {
+                text.append(line);
+            }
+            text.append('"');
+        }
+    }
+
+    /** Aggregated events of one matched pattern. */
+    private static final class Candidate {
+
+        final String patternId;
+        final String severity;
+        final int severityRank;
+        int count;
+        double totalScore;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        long bestLineNumber;
+        String bestLine;
+
+        Candidate(String patternId, String severity) {
+            this.patternId = patternId;
+            this.severity = severity;
+            this.severityRank = EventPruner.severityRank(severity);
+        }
+
+        void add(MatchedEvent event) {
+            count++;
+            double score = event.getScore();
+            totalScore += score;
+            if (score > bestScore) {
+                bestScore = score;
+                bestLineNumber = event.getLineNumber();
+                bestLine = event.getContext() != null ? event.getContext().getMatchedLine() : null;
+            }
+        }
+
+        int compareByLikelihood(Candidate other) {
+            if (severityRank != other.severityRank) {
+                return Integer.compare(other.severityRank, severityRank);
+            }
+            if (totalScore != other.totalScore) {
+                return Double.compare(other.totalScore, totalScore);
+            }
+            return Integer.compare(other.count, count);
+        }
+    }
+
+    /** Result of a fallback explanation. */
+    public static final class Explanation {
+
+        private final String text;
+        private final double confidence;
+
+        Explanation(String text, double confidence) {
+            this.text = text;
+            this.confidence = confidence;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public double getConfidence() {
+            return confidence;
+        }
+    }
+}
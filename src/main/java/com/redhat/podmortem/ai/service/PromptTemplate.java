@@ -0,0 +1,159 @@
+package com.redhat.podmortem.ai.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A prompt template compiled once into literal and placeholder segments.
+ *
+ * <p>Placeholders are written as {@code {{name}}} and replaced by the value of the same name when
+ * the template is rendered; unknown names render as an empty string. Rendering walks the
+ * precompiled segments, so the template text is never parsed again per request. Render counts and
+ * durations are tracked per template instance, so they restart when the template is reloaded.
+ */
+public final class PromptTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String name;
+    private final String version;
+    private final String source;
+    private final Instant loadedAt;
+    private final String[] literals;
+    private final String[] placeholders;
+    private final int sizeHint;
+
+    private final LongAdder renders = new LongAdder();
+    private final LongAdder renderNanos = new LongAdder();
+    private final LongAccumulator maxRenderNanos = new LongAccumulator(Math::max, 0);
+
+    private PromptTemplate(
+            String name,
+            String version,
+            String source,
+            Instant loadedAt,
+            String[] literals,
+            String[] placeholders,
+            int sizeHint) {
+        this.name = name;
+        this.version = version;
+        this.source = source;
+        this.loadedAt = loadedAt;
+        this.literals = literals;
+        this.placeholders = placeholders;
+        this.sizeHint = sizeHint;
+    }
+
+    /**
+     * Compiles a template.
+     *
+     * @param name the template name
+     * @param text the template text
+     * @param source where the template was loaded from, for status reporting
+     * @return the compiled template
+     */
+    public static PromptTemplate compile(String name, String text, String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = text.indexOf(OPEN, position);
+            int close = open < 0 ? -1 : text.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                break;
+            }
+            literals.add(text.substring(position, open));
+            placeholders.add(text.substring(open + OPEN.length(), close).strip());
+            position = close + CLOSE.length();
+        }
+        // literals always has one more segment than placeholders
+        literals.add(text.substring(position));
+
+        return new PromptTemplate(
+                name,
+                version(text),
+                source,
+                Instant.now(),
+                literals.toArray(String[]::new),
+                placeholders.toArray(String[]::new),
+                text.length());
+    }
+
+    /**
+     * Renders the template.
+     *
+     * @param values the placeholder values by name
+     * @return the rendered text
+     */
+    public String render(Map<String, ?> values) {
+        long started = System.nanoTime();
+        StringBuilder text = new StringBuilder(sizeHint + 256);
+        for (int i = 0; i < placeholders.length; i++) {
+            text.append(literals[i]);
+            Object value = values.get(placeholders[i]);
+            if (value != null) {
+                text.append(value);
+            }
+        }
+        text.append(literals[placeholders.length]);
+
+        long elapsed = System.nanoTime() - started;
+        renders.increment();
+        renderNanos.add(elapsed);
+        maxRenderNanos.accumulate(elapsed);
+        return text.toString();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the version of the template, derived from its content.
+     *
+     * @return the first 12 hex digits of the SHA-256 of the template text
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    public long getRenders() {
+        return renders.sum();
+    }
+
+    public long getRenderNanos() {
+        return renderNanos.sum();
+    }
+
+    public long getMaxRenderNanos() {
+        return maxRenderNanos.get();
+    }
+
+    private static String version(String text) {
+        try {
+            byte[] digest =
+                    MessageDigest.getInstance("SHA-256")
+                            .digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.redhat.podmortem.ai.service;
+
+import com.redhat.podmortem.ai.model.PromptTemplateStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Prompt templates rendered by this service, reloaded without a restart.
+ *
+ * <p>Templates are read from {@code podmortem.prompts.directory}, typically a mounted ConfigMap,
+ * where each regular file is a template named after the file without its extension. Only the
+ * templates this service renders, those with a built-in default, are loaded; other files are
+ * reported as ignored, since prompts built by the providers themselves are not read from here.
+ * Templates that are not in the directory fall back to their built-in defaults. Every template is
+ * compiled once when it is loaded, and the whole set is swapped atomically, so a request always
+ * renders a consistent set of templates and never parses one.
+ *
+ * <p>The directory is watched for changes. Kubernetes updates a ConfigMap volume by swapping a
+ * symbolic link rather than modifying the files, so any change in the directory reloads all
+ * templates once the directory has been quiet for {@code podmortem.prompts.reload-delay}. Templates
+ * whose content did not change keep their instance and render statistics. When a reload fails, the
+ * previous templates stay in use.
+ */
+@ApplicationScoped
+public class PromptTemplates {
+
+    private static final Logger LOG = Logger.getLogger(PromptTemplates.class);
+
+    /** Template asking the provider to update a workload's previous explanation. */
+    public static final String INCREMENTAL_UPDATE = "incremental-update";
+
+    private static final Map<String, String> BUILT_IN =
+            Map.of(
+                    INCREMENTAL_UPDATE,
+                    "Previous analysis of this workload, before {{newEvents}} new event(s)"
+                            + " occurred: {{previousExplanation}} Only the new events follow."
+                            + " Update the previous analysis with them and return the complete"
+                            + " updated explanation.");
+
+    @Inject MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "podmortem.prompts.directory", defaultValue = "/etc/podmortem/prompts")
+    Path directory;
+
+    @ConfigProperty(name = "podmortem.prompts.watch", defaultValue = "true")
+    boolean watch;
+
+    @ConfigProperty(name = "podmortem.prompts.reload-delay", defaultValue = "500ms")
+    Duration reloadDelay;
+
+    private volatile Snapshot snapshot;
+
+    private volatile String lastError;
+
+    private long reloads;
+
+    private volatile DirectoryWatcher watcher;
+
+    @PostConstruct
+    void initialize() {
+        reload();
+    }
+
+    void startWatching(@Observes StartupEvent event) {
+        if (!watch || !Files.isDirectory(directory)) {
+            LOG.infof("Not watching prompt template directory %s", directory);
+            return;
+        }
+        watcher =
+                new DirectoryWatcher(
+                        "prompt template directory", directory, reloadDelay, this::reload);
+        watcher.start();
+    }
+
+    void stopWatching(@Observes ShutdownEvent event) {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    /**
+     * Renders a template.
+     *
+     * @param name the template name
+     * @param values the placeholder values by name
+     * @return the rendered text
+     * @throws IllegalArgumentException if no template has the name
+     */
+    public String render(String name, Map<String, ?> values) {
+        PromptTemplate template = snapshot.templates.get(name);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown prompt template: " + name);
+        }
+        return template.render(values);
+    }
+
+    /**
+     * Reloads all templates from the template directory and the built-in defaults.
+     *
+     * @return true if the templates were reloaded, false if the previous ones stay in use
+     */
+    public synchronized boolean reload() {
+        Snapshot previous = snapshot;
+        Map<String, PromptTemplate> templates = new LinkedHashMap<>();
+        List<String> ignored = new ArrayList<>();
+        try {
+            for (Map.Entry<String, String> file : readDirectory().entrySet()) {
+                if (!BUILT_IN.containsKey(file.getKey())) {
+                    ignored.add(file.getKey());
+                    continue;
+                }
+                templates.put(
+                        file.getKey(),
+                        compile(previous, file.getKey(), file.getValue(), directory.toString()));
+            }
+        } catch (IOException | RuntimeException e) {
+            lastError = e.getClass().getSimpleName() + ": " + e.getMessage();
+            meterRegistry.counter("podmortem.prompts.reloads", "outcome", "failure").increment();
+            if (previous != null) {
+                LOG.warnf(
+                        "Failed to reload prompt templates, keeping previous ones: %s", lastError);
+                return false;
+            }
+            LOG.warnf("Failed to load prompt templates, using built-in ones: %s", lastError);
+            templates.clear();
+            ignored.clear();
+        }
+        if (!ignored.isEmpty()) {
+            ignored.sort(null);
+            LOG.warnf(
+                    "Ignoring prompt templates %s in %s, this service only renders %s",
+                    ignored, directory, BUILT_IN.keySet());
+        }
+        for (Map.Entry<String, String> builtIn : BUILT_IN.entrySet()) {
+            if (!templates.containsKey(builtIn.getKey())) {
+                templates.put(
+                        builtIn.getKey(),
+                        compile(previous, builtIn.getKey(), builtIn.getValue(), "built-in"));
+            }
+        }
+
+        snapshot = new Snapshot(Map.copyOf(templates), List.copyOf(ignored), Instant.now());
+        if (previous != null) {
+            reloads++;
+            lastError = null;
+            meterRegistry.counter("podmortem.prompts.reloads", "outcome", "success").increment();
+        }
+        LOG.infof("Loaded %d prompt templates", templates.size());
+        return true;
+    }
+
+    /**
+     * Reports the loaded templates and the state of the watcher.
+     *
+     * @return the status, with one entry per loaded template under {@code templates} and the names
+     *     of files in the directory that are not templates of this service under {@code ignored}
+     */
+    public synchronized Map<String, Object> status() {
+        Snapshot current = snapshot;
+        List<PromptTemplateStatus> templates = new ArrayList<>();
+        for (PromptTemplate template : current.templates.values()) {
+            PromptTemplateStatus status = new PromptTemplateStatus();
+            status.setName(template.getName());
+            status.setVersion(template.getVersion());
+            status.setSource(template.getSource());
+            status.setLoadedAt(template.getLoadedAt());
+            long renders = template.getRenders();
+            status.setRenders(renders);
+            status.setMeanRenderMicros(
+                    renders > 0 ? template.getRenderNanos() / 1000.0 / renders : 0);
+            status.setMaxRenderMicros(template.getMaxRenderNanos() / 1000.0);
+            templates.add(status);
+        }
+        templates.sort((a, b) -> a.getName().compareTo(b.getName()));
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("directory", directory.toString());
+        status.put("watching", watcher != null && watcher.isWatching());
+        status.put("reloadedAt", current.loadedAt);
+        status.put("reloads", reloads);
+        if (lastError != null) {
+            status.put("lastError", lastError);
+        }
+        status.put("templates", templates);
+        status.put("ignored", current.ignored);
+        return status;
+    }
+
+    private Map<String, String> readDirectory() throws IOException {
+        Map<String, String> files = new HashMap<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (Stream<Path> entries = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) entries::iterator) {
+                String fileName = file.getFileName().toString();
+                // skip the ..data links and hidden files of ConfigMap volumes
+                if (fileName.startsWith(".") || !Files.isRegularFile(file)) {
+                    continue;
+                }
+                int extension = fileName.lastIndexOf('.');
+                String name = extension > 0 ? fileName.substring(0, extension) : fileName;
+                files.put(name, Files.readString(file, StandardCharsets.UTF_8));
+            }
+        }
+        return files;
+    }
+
+    private static PromptTemplate compile(
+            Snapshot previous, String name, String text, String source) {
+        PromptTemplate compiled = PromptTemplate.compile(name, text, source);
+        PromptTemplate current = previous != null ? previous.templates.get(name) : null;
+        if (current != null
+                && current.getVersion().equals(compiled.getVersion())
+                && current.getSource().equals(source)) {
+            return current;
+        }
+        return compiled;
+    }
+
+    /** An immutable set of compiled templates. */
+    private static final class Snapshot {
+
+        final Map<String, PromptTemplate> templates;
+        final List<String> ignored;
+        final Instant loadedAt;
+
+        Snapshot(Map<String, PromptTemplate> templates, List<String> ignored, Instant loadedAt) {
+            this.templates = templates;
+            this.ignored = ignored;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
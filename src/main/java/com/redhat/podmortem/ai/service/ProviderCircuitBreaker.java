@@ -0,0 +1,250 @@
+package com.redhat.podmortem.ai.service;
+
+import com.redhat.podmortem.ai.model.ResiliencePolicy;
+import jakarta.ws.rs.WebApplicationException;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+import org.eclipse.microprofile.faulttolerance.exceptions.BulkheadException;
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+
+/**
+ * Circuit breaker of a single AI provider.
+ *
+ * <p>While closed, the breaker keeps the outcomes of the last {@link
+ * ResiliencePolicy#getWindowSize()} calls and opens once the window holds enough calls and the
+ * share of failed or of slow calls reaches its ratio. While open, calls are rejected until the open
+ * delay has passed. The breaker then lets {@link ResiliencePolicy#getHalfOpenCalls()} trial calls
+ * through: it closes when all of them succeed in time, and opens again on the first one that fails
+ * or is slow.
+ *
+ * <p>The policy is passed to every method rather than held, so a policy updated at runtime applies
+ * from the next call on.
+ */
+public class ProviderCircuitBreaker {
+
+    /** State of a circuit breaker. */
+    public enum State {
+        /** Calls are let through and their outcomes are evaluated. */
+        CLOSED,
+        /** A limited number of trial calls is let through. */
+        HALF_OPEN,
+        /** Calls are rejected. */
+        OPEN;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+    }
+
+    private static final byte SUCCESS = 0;
+    private static final byte FAILURE = 1;
+    private static final byte SLOW = 2;
+
+    private State state = State.CLOSED;
+    private byte[] outcomes = new byte[0];
+    private int size;
+    private int next;
+    private int failures;
+    private int slowCalls;
+    private long openedAtNanos;
+    private int trialPermits;
+    private int trialSuccesses;
+
+    private volatile Consumer<State> listener = state -> {};
+
+    /**
+     * Sets the listener notified of every state transition, outside of the breaker's lock.
+     *
+     * @param listener the listener
+     */
+    public void onStateChange(Consumer<State> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Gets the state of the breaker.
+     *
+     * @return the state, open until a call is let through after the open delay
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Checks whether the breaker would currently reject calls, without claiming a trial call.
+     *
+     * @param policy the provider's resilience policy
+     * @return true if the open delay has not passed yet, or all trial calls are taken
+     */
+    public synchronized boolean isRejecting(ResiliencePolicy policy) {
+        return switch (state) {
+            case CLOSED -> false;
+            case OPEN -> !delayPassed(policy);
+            case HALF_OPEN -> trialPermits == 0;
+        };
+    }
+
+    /**
+     * Asks the breaker to let a call through.
+     *
+     * <p>Every permitted call must be completed with {@link #onSuccess}, {@link #onFailure} or
+     * {@link #release}.
+     *
+     * @param policy the provider's resilience policy
+     * @return true if the call may be made
+     */
+    public boolean tryAcquire(ResiliencePolicy policy) {
+        State transition;
+        synchronized (this) {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case HALF_OPEN:
+                    if (trialPermits == 0) {
+                        return false;
+                    }
+                    trialPermits--;
+                    return true;
+                default:
+                    if (!delayPassed(policy)) {
+                        return false;
+                    }
+                    transition = transition(State.HALF_OPEN, policy);
+                    trialPermits--;
+            }
+        }
+        listener.accept(transition);
+        return true;
+    }
+
+    /**
+     * Records a call that succeeded.
+     *
+     * @param policy the provider's resilience policy
+     * @param slow whether the call was slow for the provider
+     */
+    public void onSuccess(ResiliencePolicy policy, boolean slow) {
+        record(policy, slow ? SLOW : SUCCESS);
+    }
+
+    /**
+     * Records a call that failed or timed out.
+     *
+     * @param policy the provider's resilience policy
+     */
+    public void onFailure(ResiliencePolicy policy) {
+        record(policy, FAILURE);
+    }
+
+    /**
+     * Completes a call that says nothing about the provider's health, such as a cancelled call or a
+     * rejected request, returning its trial permit.
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN) {
+            trialPermits++;
+        }
+    }
+
+    /**
+     * Checks whether a failure counts against the provider.
+     *
+     * <p>Invalid requests and client errors other than timeouts and rate limiting are the caller's
+     * fault, not the provider's. Calls rejected locally by an open breaker, a bulkhead or a rate
+     * limit, and calls cut short by the caller's deadline or cancelled, never reached the provider
+     * or were abandoned by the caller, so they say nothing about it either. A call that exceeds the
+     * provider's own timeout does count.
+     *
+     * @param failure the failure of a provider call
+     * @return true if the failure counts as a failed call
+     */
+    public static boolean isProviderFailure(Throwable failure) {
+        if (failure instanceof IllegalArgumentException
+                || failure instanceof CircuitBreakerOpenException
+                || failure instanceof BulkheadException
+                || failure instanceof DeadlineExceededException
+                || failure instanceof CancellationException) {
+            return false;
+        }
+        if (failure instanceof WebApplicationException rejection
+                && rejection.getResponse() != null) {
+            int status = rejection.getResponse().getStatus();
+            return status >= 500 || status == 408 || status == 429;
+        }
+        return true;
+    }
+
+    private void record(ResiliencePolicy policy, byte outcome) {
+        State transition = null;
+        synchronized (this) {
+            if (state == State.HALF_OPEN) {
+                if (outcome != SUCCESS) {
+                    transition = transition(State.OPEN, policy);
+                } else if (++trialSuccesses >= policy.getHalfOpenCalls()) {
+                    transition = transition(State.CLOSED, policy);
+                }
+            } else if (state == State.CLOSED && add(policy, outcome)) {
+                transition = transition(State.OPEN, policy);
+            }
+        }
+        if (transition != null) {
+            listener.accept(transition);
+        }
+    }
+
+    /** Adds an outcome to the window and checks whether the breaker has to open. */
+    private boolean add(ResiliencePolicy policy, byte outcome) {
+        if (outcomes.length != policy.getWindowSize()) {
+            reset(policy);
+        }
+        if (size == outcomes.length) {
+            remove(outcomes[next]);
+        } else {
+            size++;
+        }
+        outcomes[next] = outcome;
+        next = (next + 1) % outcomes.length;
+        if (outcome == FAILURE) {
+            failures++;
+        } else if (outcome == SLOW) {
+            slowCalls++;
+        }
+        return size >= policy.getMinimumCalls()
+                && (failures >= policy.getFailureRatio() * size
+                        || slowCalls >= policy.getSlowCallRatio() * size);
+    }
+
+    private void remove(byte outcome) {
+        if (outcome == FAILURE) {
+            failures--;
+        } else if (outcome == SLOW) {
+            slowCalls--;
+        }
+    }
+
+    private State transition(State target, ResiliencePolicy policy) {
+        state = target;
+        reset(policy);
+        if (target == State.OPEN) {
+            openedAtNanos = System.nanoTime();
+        } else if (target == State.HALF_OPEN) {
+            trialPermits = policy.getHalfOpenCalls();
+            trialSuccesses = 0;
+        }
+        return target;
+    }
+
+    private void reset(ResiliencePolicy policy) {
+        outcomes = new byte[policy.getWindowSize()];
+        size = 0;
+        next = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+
+    private boolean delayPassed(ResiliencePolicy policy) {
+        return System.nanoTime() - openedAtNanos >= policy.getOpenDelayMillis() * 1_000_000;
+    }
+}
@@ -0,0 +1,331 @@
+package com.redhat.podmortem.ai.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.redhat.podmortem.common.model.provider.AIProvider;
+import com.redhat.podmortem.common.model.provider.AIProviderConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Registers AI providers defined in a directory, and keeps them in sync with it without a restart.
+ *
+ * <p>Each {@code <provider-id>.properties} file in {@code podmortem.registry.directory}, typically
+ * a mounted ConfigMap, defines a provider that uses the implementation of a built-in provider with
+ * its own settings, for example a second OpenAI provider for another model or endpoint:
+ *
+ * <pre>
+ * provider=openai
+ * model-id=gpt-4o-mini
+ * execution-mode=worker
+ * bulkhead.max-concurrent=4
+ * </pre>
+ *
+ * <p>{@code provider} names the built-in provider, and {@code execution-mode}, {@code
+ * bulkhead.max-concurrent} and {@code bulkhead.max-queued} configure the registry entry. Every
+ * other key is set on the provider configuration of each call, with its name converted to camel
+ * case, so {@code model-id} sets the model ID.
+ *
+ * <p>The directory is watched like the prompt template directory: once it has been quiet for {@code
+ * podmortem.registry.reload-delay}, new files are registered, changed files replace their provider
+ * and removed files deregister it. Files that are invalid, or that would replace a built-in
+ * provider, are skipped and leave the provider they define as it was.
+ */
+@ApplicationScoped
+public class ProviderDirectory {
+
+    private static final Logger LOG = Logger.getLogger(ProviderDirectory.class);
+
+    private static final String EXTENSION = ".properties";
+
+    private static final String BASE_PROVIDER = "provider";
+
+    private static final Set<String> ENTRY_SETTINGS =
+            Set.of("execution-mode", "bulkhead.max-concurrent", "bulkhead.max-queued");
+
+    private static final Set<String> RESERVED_IDS =
+            Set.of(ProviderRouter.AUTO_PROVIDER_ID, ProviderEnsemble.ENSEMBLE_PROVIDER_ID);
+
+    @Inject ProviderRegistry providerRegistry;
+
+    @Inject ProviderWarmup providerWarmup;
+
+    @Inject ObjectMapper objectMapper;
+
+    @Inject MeterRegistry meterRegistry;
+
+    @ConfigProperty(
+            name = "podmortem.registry.directory",
+            defaultValue = "/etc/podmortem/providers")
+    Path directory;
+
+    @ConfigProperty(name = "podmortem.registry.watch", defaultValue = "true")
+    boolean watch;
+
+    @ConfigProperty(name = "podmortem.registry.reload-delay", defaultValue = "500ms")
+    Duration reloadDelay;
+
+    /** Definitions of the providers registered from the directory; guarded by this. */
+    private final Map<String, Definition> registered = new HashMap<>();
+
+    private volatile DirectoryWatcher watcher;
+
+    private Instant reloadedAt;
+
+    private long changes;
+
+    void start(@Observes StartupEvent event) {
+        reload();
+        if (!watch || !Files.isDirectory(directory)) {
+            LOG.infof("Not watching provider directory %s", directory);
+            return;
+        }
+        watcher = new DirectoryWatcher("provider directory", directory, reloadDelay, this::reload);
+        watcher.start();
+    }
+
+    void stopWatching(@Observes ShutdownEvent event) {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    /**
+     * Synchronizes the registry with the provider directory.
+     *
+     * @return the number of providers registered, replaced or deregistered by this reload
+     */
+    public synchronized int reload() {
+        Map<String, Path> files;
+        try {
+            files = listDirectory();
+        } catch (IOException e) {
+            LOG.warnf("Failed to list provider directory %s: %s", directory, e.getMessage());
+            return 0;
+        }
+
+        int changed = 0;
+        for (String providerId : List.copyOf(registered.keySet())) {
+            if (!files.containsKey(providerId)) {
+                registered.remove(providerId);
+                providerRegistry.deregister(providerId);
+                providerWarmup.deregister(providerId);
+                count("deregistered");
+                changed++;
+            }
+        }
+        for (Map.Entry<String, Path> file : files.entrySet()) {
+            Definition definition;
+            try {
+                definition = read(file.getKey(), file.getValue());
+            } catch (IOException | IllegalArgumentException e) {
+                LOG.warnf("Skipping provider definition %s: %s", file.getValue(), e.getMessage());
+                count("rejected");
+                continue;
+            }
+            if (definition.equals(registered.get(definition.providerId()))) {
+                continue;
+            }
+            ProviderEntry base = providerRegistry.findEntry(definition.baseProviderId());
+            AIProvider provider = configured(definition, base.getProvider());
+            try {
+                providerWarmup.register(
+                        providerRegistry.register(
+                                provider, definition.source(), definition.settings()));
+            } catch (RuntimeException e) {
+                LOG.warnf("Skipping provider definition %s: %s", file.getValue(), e.getMessage());
+                count("rejected");
+                continue;
+            }
+            registered.put(definition.providerId(), definition);
+            count("registered");
+            changed++;
+        }
+        reloadedAt = Instant.now();
+        changes += changed;
+        return changed;
+    }
+
+    /**
+     * Reports the state of the directory and the providers registered from it.
+     *
+     * @return the status, with the live status of every registered provider under {@code providers}
+     */
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("directory", directory.toString());
+        status.put("watching", watcher != null && watcher.isWatching());
+        status.put("reloadedAt", reloadedAt);
+        status.put("changes", changes);
+        status.put("providers", providerRegistry.getStatus());
+        return status;
+    }
+
+    private Map<String, Path> listDirectory() throws IOException {
+        Map<String, Path> files = new TreeMap<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (Stream<Path> entries = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) entries::iterator) {
+                String fileName = file.getFileName().toString();
+                // skip the ..data links and hidden files of ConfigMap volumes
+                if (fileName.startsWith(".")
+                        || !fileName.endsWith(EXTENSION)
+                        || !Files.isRegularFile(file)) {
+                    continue;
+                }
+                files.put(fileName.substring(0, fileName.length() - EXTENSION.length()), file);
+            }
+        }
+        return files;
+    }
+
+    private Definition read(String providerId, Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        if (RESERVED_IDS.contains(providerId)) {
+            throw new IllegalArgumentException("Provider ID " + providerId + " is reserved");
+        }
+        ProviderEntry existing = providerRegistry.findEntry(providerId);
+        if (existing != null && ProviderEntry.BUILT_IN.equals(existing.getSource())) {
+            throw new IllegalArgumentException(
+                    "Provider " + providerId + " is built in and cannot be replaced");
+        }
+        String baseProviderId = properties.getProperty(BASE_PROVIDER, "").strip();
+        ProviderEntry base = providerRegistry.findEntry(baseProviderId);
+        if (base == null || !ProviderEntry.BUILT_IN.equals(base.getSource())) {
+            throw new IllegalArgumentException(
+                    "No built-in provider '" + baseProviderId + "' to base it on");
+        }
+
+        Map<String, String> settings = new HashMap<>();
+        Map<String, String> overrides = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key).strip();
+            if (ENTRY_SETTINGS.contains(key)) {
+                settings.put(key, value);
+            } else if (!key.equals(BASE_PROVIDER)) {
+                overrides.put(camelCase(key), value);
+            }
+        }
+        Definition definition =
+                new Definition(
+                        providerId,
+                        baseProviderId,
+                        file.toString(),
+                        Map.copyOf(settings),
+                        Map.copyOf(overrides));
+        // fail on values that do not fit the provider configuration now rather than per call
+        configure(definition, new AIProviderConfig());
+        return definition;
+    }
+
+    private AIProvider configured(Definition definition, AIProvider base) {
+        Class<?>[] interfaces =
+                base instanceof StreamingAIProvider
+                        ? new Class<?>[] {AIProvider.class, StreamingAIProvider.class}
+                        : new Class<?>[] {AIProvider.class};
+        return (AIProvider)
+                Proxy.newProxyInstance(
+                        AIProvider.class.getClassLoader(),
+                        interfaces,
+                        (proxy, method, args) -> invoke(definition, base, proxy, method, args));
+    }
+
+    private Object invoke(
+            Definition definition, AIProvider base, Object proxy, Method method, Object[] args)
+            throws Throwable {
+        switch (method.getName()) {
+            case "getProviderId":
+                return definition.providerId();
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "ConfiguredAIProvider[" + definition.providerId() + "]";
+            default:
+                break;
+        }
+        Object[] delegated = args != null ? args.clone() : null;
+        if (delegated != null) {
+            for (int i = 0; i < delegated.length; i++) {
+                if (delegated[i] instanceof AIProviderConfig providerConfig) {
+                    delegated[i] = configure(definition, providerConfig);
+                }
+            }
+        }
+        try {
+            return method.invoke(base, delegated);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** Copies a call's provider configuration for the built-in provider, with the overrides. */
+    private AIProviderConfig configure(Definition definition, AIProviderConfig providerConfig) {
+        ObjectNode node = objectMapper.valueToTree(providerConfig);
+        definition.overrides().forEach(node::put);
+        node.put("providerId", definition.baseProviderId());
+        try {
+            return objectMapper.treeToValue(node, AIProviderConfig.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(
+                    "Invalid provider configuration: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private static String camelCase(String key) {
+        StringBuilder name = new StringBuilder(key.length());
+        boolean upper = false;
+        for (char c : key.toCharArray()) {
+            if (c == '-' || c == '.' || c == '_') {
+                upper = true;
+            } else {
+                name.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return name.toString();
+    }
+
+    private void count(String change) {
+        meterRegistry.counter("podmortem.registry.changes", "change", change).increment();
+    }
+
+    /** A provider defined by a file of the provider directory. */
+    private record Definition(
+            String providerId,
+            String baseProviderId,
+            String source,
+            Map<String, String> settings,
+            Map<String, String> overrides) {}
+}
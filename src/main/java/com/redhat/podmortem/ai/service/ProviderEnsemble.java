@@ -0,0 +1,472 @@
+package com.redhat.podmortem.ai.service;
+
+import com.redhat.podmortem.common.model.analysis.AnalysisResult;
+import com.redhat.podmortem.common.model.analysis.MatchedEvent;
+import com.redhat.podmortem.common.model.provider.AIProviderConfig;
+import com.redhat.podmortem.common.model.provider.AIResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.Cancellable;
+import io.smallrye.mutiny.subscription.UniEmitter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Analyzes a failure with several providers in parallel and merges their answers.
+ *
+ * <p>Requests for the {@value #ENSEMBLE_PROVIDER_ID} provider ID are sent to the members listed in
+ * {@code podmortem.ensemble.providers}, or to the {@code podmortem.ensemble.size} healthiest
+ * providers; {@code ensemble:openai,ollama} names the members of a single request. The ensemble
+ * completes as soon as a quorum of members agree, cancelling the members that have not answered
+ * yet. Two answers agree when they cite overlapping sets of the failure's pattern IDs, or, when
+ * either cites none, when their wording overlaps. When the quorum can no longer be reached, all
+ * members have answered, or {@code podmortem.ensemble.timeout} or the caller's deadline passes, the
+ * largest group of agreeing answers received so far is used.
+ *
+ * <p>The merged response carries the explanation of the most confident answer of the agreeing
+ * group. Its confidence is the group's mean confidence, raised towards 1 by each corroborating
+ * member and lowered by the share of dissenting answers when no quorum was reached. The other
+ * answers are kept in the response metadata as alternative explanations.
+ */
+@ApplicationScoped
+public class ProviderEnsemble {
+
+    /** Provider ID that selects an ensemble analysis. */
+    public static final String ENSEMBLE_PROVIDER_ID = "ensemble";
+
+    private static final String MEMBERS_PREFIX = ENSEMBLE_PROVIDER_ID + ":";
+
+    private static final int MIN_WORD_LENGTH = 5;
+
+    private static final Logger LOG = Logger.getLogger(ProviderEnsemble.class);
+
+    @Inject ProviderRegistry providerRegistry;
+
+    @Inject ProviderRouter providerRouter;
+
+    @Inject MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "podmortem.ensemble.providers")
+    Optional<List<String>> configuredMembers;
+
+    @ConfigProperty(name = "podmortem.ensemble.size", defaultValue = "3")
+    int size;
+
+    /** Number of agreeing answers needed, 0 for a majority of the members. */
+    @ConfigProperty(name = "podmortem.ensemble.quorum", defaultValue = "0")
+    int quorum;
+
+    @ConfigProperty(name = "podmortem.ensemble.timeout", defaultValue = "60s")
+    Duration timeout;
+
+    @ConfigProperty(name = "podmortem.ensemble.pattern-agreement", defaultValue = "0.5")
+    double patternAgreement;
+
+    @ConfigProperty(name = "podmortem.ensemble.text-agreement", defaultValue = "0.3")
+    double textAgreement;
+
+    /**
+     * Checks whether a provider configuration requests an ensemble analysis.
+     *
+     * @param providerConfig the AI provider configuration
+     * @return true if the provider ID is {@value #ENSEMBLE_PROVIDER_ID}, with or without members
+     */
+    public static boolean isEnsemble(AIProviderConfig providerConfig) {
+        String providerId = providerConfig.getProviderId();
+        return providerId != null
+                && (providerId.equals(ENSEMBLE_PROVIDER_ID)
+                        || providerId.startsWith(MEMBERS_PREFIX));
+    }
+
+    /**
+     * Analyzes a failure with every member of the ensemble and merges the agreeing answers.
+     *
+     * @param analysisResult the log analysis results
+     * @param providerConfig the configuration of the ensemble request
+     * @param deadline the deadline of the caller, or null if it has none
+     * @param call the function performing a call to a concrete provider
+     * @return a Uni that emits the merged response
+     */
+    public Uni<AIResponse> analyze(
+            AnalysisResult analysisResult,
+            AIProviderConfig providerConfig,
+            Instant deadline,
+            BiFunction<AnalysisResult, AIProviderConfig, Uni<AIResponse>> call) {
+        List<ProviderEntry> members = members(providerConfig);
+        if (members.isEmpty()) {
+            return Uni.createFrom()
+                    .failure(
+                            new IllegalArgumentException(
+                                    "No available AI providers for ensemble: "
+                                            + providerConfig.getProviderId()));
+        }
+
+        int required = quorum > 0 ? Math.min(quorum, members.size()) : members.size() / 2 + 1;
+        Instant ensembleDeadline = Instant.now().plus(timeout);
+        if (deadline != null && deadline.isBefore(ensembleDeadline)) {
+            ensembleDeadline = deadline;
+        }
+        Duration wait = Duration.between(Instant.now(), ensembleDeadline);
+        Set<String> patternIds = patternIds(analysisResult);
+        LOG.debugf(
+                "Ensemble analysis of %s with %d providers, quorum %d",
+                analysisResult.getAnalysisId(), members.size(), required);
+
+        return Uni.createFrom()
+                .emitter(
+                        emitter -> {
+                            EnsembleCall ensemble =
+                                    new EnsembleCall(emitter, members.size(), required, patternIds);
+                            emitter.onTermination(ensemble::cancelAll);
+                            for (ProviderEntry member : members) {
+                                String providerId = member.getProviderId();
+                                ensemble.track(
+                                        call.apply(
+                                                        analysisResult,
+                                                        providerRouter.configFor(
+                                                                member, providerConfig))
+                                                .subscribe()
+                                                .with(
+                                                        response ->
+                                                                ensemble.answer(
+                                                                        providerId, response),
+                                                        failure ->
+                                                                ensemble.fail(
+                                                                        providerId, failure)));
+                            }
+                            ensemble.track(
+                                    Uni.createFrom()
+                                            .voidItem()
+                                            .onItem()
+                                            .delayIt()
+                                            .by(wait.isNegative() ? Duration.ZERO : wait)
+                                            .subscribe()
+                                            .with(ignored -> ensemble.expire()));
+                        });
+    }
+
+    private List<ProviderEntry> members(AIProviderConfig providerConfig) {
+        String providerId = providerConfig.getProviderId();
+        List<ProviderEntry> members = new ArrayList<>();
+        if (providerId.startsWith(MEMBERS_PREFIX)) {
+            for (String id : providerId.substring(MEMBERS_PREFIX.length()).split(",")) {
+                addMember(members, id.strip());
+            }
+            return members;
+        }
+        if (configuredMembers.isPresent()) {
+            configuredMembers.get().forEach(id -> addMember(members, id));
+            return members;
+        }
+        List<ProviderEntry> ranked = providerRouter.rankCandidates();
+        return new ArrayList<>(ranked.subList(0, Math.min(size, ranked.size())));
+    }
+
+    private void addMember(List<ProviderEntry> members, String providerId) {
+        ProviderEntry entry = providerRegistry.findEntry(providerId);
+        if (entry != null && !members.contains(entry)) {
+            members.add(entry);
+        }
+    }
+
+    private static Set<String> patternIds(AnalysisResult analysisResult) {
+        Set<String> ids = new HashSet<>();
+        if (analysisResult.getEvents() != null) {
+            for (MatchedEvent event : analysisResult.getEvents()) {
+                if (event.getMatchedPattern() != null
+                        && event.getMatchedPattern().getId() != null
+                        && !event.getMatchedPattern().getId().isBlank()) {
+                    ids.add(event.getMatchedPattern().getId());
+                }
+            }
+        }
+        return ids;
+    }
+
+    /** Finds the pattern IDs of the failure that an explanation mentions. */
+    private static Set<String> citations(String explanation, Set<String> patternIds) {
+        Set<String> cited = new TreeSet<>();
+        String text = explanation.toLowerCase(Locale.ROOT);
+        for (String id : patternIds) {
+            String needle = id.toLowerCase(Locale.ROOT);
+            String spaced = needle.replace('-', ' ').replace('_', ' ');
+            if (text.contains(needle) || text.contains(spaced)) {
+                cited.add(id);
+            }
+        }
+        return cited;
+    }
+
+    private static Set<String> words(String explanation) {
+        Set<String> words = new HashSet<>();
+        for (String word : explanation.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() >= MIN_WORD_LENGTH) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() && b.isEmpty()) {
+            return 0;
+        }
+        int common = 0;
+        for (String value : a) {
+            if (b.contains(value)) {
+                common++;
+            }
+        }
+        return (double) common / (a.size() + b.size() - common);
+    }
+
+    private static double confidence(AIResponse response) {
+        Double confidence = response.getConfidence();
+        return confidence != null ? confidence : 0;
+    }
+
+    /** An answer of one ensemble member. */
+    private record Answer(
+            String providerId, AIResponse response, Set<String> citations, Set<String> words) {}
+
+    /** The calls of one ensemble analysis, completing on quorum, exhaustion or expiry. */
+    private final class EnsembleCall {
+
+        private final UniEmitter<? super AIResponse> emitter;
+        private final int members;
+        private final int required;
+        private final Set<String> patternIds;
+        private final Instant started = Instant.now();
+        private final List<Cancellable> subscriptions = new ArrayList<>();
+        private final List<Answer> answers = new ArrayList<>();
+        private final Map<String, String> failures = new LinkedHashMap<>();
+        private Throwable lastFailure;
+        private boolean done;
+
+        EnsembleCall(
+                UniEmitter<? super AIResponse> emitter,
+                int members,
+                int required,
+                Set<String> patternIds) {
+            this.emitter = emitter;
+            this.members = members;
+            this.required = required;
+            this.patternIds = patternIds;
+        }
+
+        void track(Cancellable subscription) {
+            boolean cancel;
+            synchronized (this) {
+                subscriptions.add(subscription);
+                cancel = done;
+            }
+            if (cancel) {
+                subscription.cancel();
+            }
+        }
+
+        synchronized void cancelAll() {
+            subscriptions.forEach(Cancellable::cancel);
+        }
+
+        void answer(String providerId, AIResponse response) {
+            String explanation = response.getExplanation() != null ? response.getExplanation() : "";
+            Answer answer =
+                    new Answer(
+                            providerId,
+                            response,
+                            citations(explanation, patternIds),
+                            words(explanation));
+            List<Answer> group;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                answers.add(answer);
+                group = agreeingWith(answer);
+                if (group.size() < required && pending() > 0 && reachable()) {
+                    return;
+                }
+                if (group.size() < required) {
+                    group = largestGroup();
+                }
+                done = true;
+            }
+            complete(group);
+        }
+
+        void fail(String providerId, Throwable failure) {
+            LOG.debugf("Ensemble member %s failed: %s", providerId, failure.getMessage());
+            List<Answer> group;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                failures.put(providerId, failure.getMessage());
+                lastFailure = failure;
+                if (pending() > 0 && (answers.isEmpty() || reachable())) {
+                    return;
+                }
+                done = true;
+                group = answers.isEmpty() ? null : largestGroup();
+            }
+            if (group == null) {
+                finish("failed");
+                emitter.fail(lastFailure);
+            } else {
+                complete(group);
+            }
+        }
+
+        void expire() {
+            List<Answer> group;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                group = answers.isEmpty() ? null : largestGroup();
+            }
+            if (group == null) {
+                finish("expired");
+                emitter.fail(
+                        new DeadlineExceededException(
+                                "No ensemble member answered within " + timeout));
+            } else {
+                complete(group);
+            }
+        }
+
+        private int pending() {
+            return members - answers.size() - failures.size();
+        }
+
+        /** Checks whether enough members may still answer to reach the quorum. */
+        private boolean reachable() {
+            return answers.size() + pending() >= required;
+        }
+
+        private boolean agree(Answer a, Answer b) {
+            if (!a.citations().isEmpty() && !b.citations().isEmpty()) {
+                return jaccard(a.citations(), b.citations()) >= patternAgreement;
+            }
+            return jaccard(a.words(), b.words()) >= textAgreement;
+        }
+
+        private List<Answer> agreeingWith(Answer answer) {
+            List<Answer> group = new ArrayList<>();
+            for (Answer other : answers) {
+                if (other == answer || agree(answer, other)) {
+                    group.add(other);
+                }
+            }
+            return group;
+        }
+
+        private List<Answer> largestGroup() {
+            List<Answer> best = List.of();
+            double bestConfidence = -1;
+            for (Answer answer : answers) {
+                List<Answer> group = agreeingWith(answer);
+                double total = group.stream().mapToDouble(a -> confidence(a.response())).sum();
+                if (group.size() > best.size()
+                        || (group.size() == best.size() && total > bestConfidence)) {
+                    best = group;
+                    bestConfidence = total;
+                }
+            }
+            return best;
+        }
+
+        private void complete(List<Answer> group) {
+            cancelAll();
+            List<Answer> answered;
+            Map<String, String> failed;
+            synchronized (this) {
+                answered = List.copyOf(answers);
+                failed = new LinkedHashMap<>(failures);
+            }
+            boolean consensus = group.size() >= required;
+            finish(consensus ? "consensus" : "no-consensus");
+            emitter.complete(merge(group, answered, failed, consensus));
+        }
+
+        private AIResponse merge(
+                List<Answer> group,
+                List<Answer> answered,
+                Map<String, String> failed,
+                boolean consensus) {
+            Answer selected = group.get(0);
+            double meanConfidence = 0;
+            Set<String> cited = new TreeSet<>(selected.citations());
+            List<String> agreeing = new ArrayList<>();
+            for (Answer answer : group) {
+                if (confidence(answer.response()) > confidence(selected.response())) {
+                    selected = answer;
+                }
+                meanConfidence += confidence(answer.response()) / group.size();
+                cited.retainAll(answer.citations());
+                agreeing.add(answer.providerId());
+            }
+            double combined = meanConfidence + (1 - meanConfidence) * (group.size() - 1) / members;
+            if (!consensus) {
+                combined *= (double) group.size() / answered.size();
+            }
+
+            Map<String, Object> alternatives = new LinkedHashMap<>();
+            for (Answer answer : answered) {
+                if (answer != selected) {
+                    alternatives.put(answer.providerId(), answer.response().getExplanation());
+                }
+            }
+            int unanswered = members - answered.size() - failed.size();
+            if (unanswered > 0) {
+                meterRegistry.counter("podmortem.ensemble.cancelled").increment(unanswered);
+            }
+
+            AIResponse response = selected.response();
+            Map<String, Object> metadata =
+                    response.getMetadata() != null
+                            ? new HashMap<>(response.getMetadata())
+                            : new HashMap<>();
+            metadata.put("ensemble", true);
+            metadata.put("ensembleSelected", selected.providerId());
+            metadata.put("ensembleAgreeing", agreeing);
+            metadata.put("ensembleMembers", members);
+            metadata.put("ensembleAnswered", answered.size());
+            metadata.put("ensembleQuorum", required);
+            metadata.put("ensembleConsensus", consensus);
+            metadata.put("ensembleCitedPatterns", List.copyOf(cited));
+            metadata.put("ensembleAlternatives", alternatives);
+            if (!failed.isEmpty()) {
+                metadata.put("ensembleFailures", failed);
+            }
+            if (unanswered > 0) {
+                metadata.put("ensembleCancelled", unanswered);
+            }
+            response.setMetadata(metadata);
+            response.setConfidence(Math.min(1.0, combined));
+            response.setProcessingTime(Duration.between(started, Instant.now()));
+            return response;
+        }
+
+        private void finish(String outcome) {
+            meterRegistry.counter("podmortem.ensemble.calls", "outcome", outcome).increment();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.redhat.podmortem.ai.service;
+
+import com.redhat.podmortem.common.model.provider.AIProvider;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Registry entry for a single AI provider.
+ *
+ * <p>Holds the provider implementation together with the per-provider state used to protect and
+ * route to it: its bulkhead, its circuit breaker, its rolling health statistics and its cumulative
+ * call statistics. Calls are made on the threads of the provider's {@link ExecutionMode}.
+ */
+public class ProviderEntry {
+
+    /** Source of providers discovered at startup. */
+    public static final String BUILT_IN = "built-in";
+
+    private final AIProvider provider;
+    private final ConcurrencyLimiter bulkhead;
+    private final ProviderHealth health = new ProviderHealth();
+    private final ProviderStats stats = new ProviderStats();
+    private final ProviderCircuitBreaker circuitBreaker = new ProviderCircuitBreaker();
+    private final ExecutionMode executionMode;
+    private final Executor executor;
+    private final String source;
+    private final Instant registeredAt = Instant.now();
+
+    public ProviderEntry(AIProvider provider, ConcurrencyLimiter bulkhead) {
+        this(provider, bulkhead, ExecutionMode.EVENT_LOOP, null);
+    }
+
+    public ProviderEntry(
+            AIProvider provider,
+            ConcurrencyLimiter bulkhead,
+            ExecutionMode executionMode,
+            Executor executor) {
+        this(provider, bulkhead, executionMode, executor, BUILT_IN);
+    }
+
+    /**
+     * Creates a registry entry whose provider calls run on an executor.
+     *
+     * @param provider the AI provider implementation
+     * @param bulkhead the bulkhead limiting concurrent calls
+     * @param executionMode the execution mode of the provider
+     * @param executor the executor of the execution mode, null to call on the caller's thread
+     * @param source where the provider was registered from, {@link #BUILT_IN} or a file
+     */
+    public ProviderEntry(
+            AIProvider provider,
+            ConcurrencyLimiter bulkhead,
+            ExecutionMode executionMode,
+            Executor executor,
+            String source) {
+        this.provider = provider;
+        this.bulkhead = bulkhead;
+        this.executionMode = executionMode;
+        this.executor = executor;
+        this.source = source;
+    }
+
+    public String getProviderId() {
+        return provider.getProviderId();
+    }
+
+    public AIProvider getProvider() {
+        return provider;
+    }
+
+    public ConcurrencyLimiter getBulkhead() {
+        return bulkhead;
+    }
+
+    public ProviderHealth getHealth() {
+        return health;
+    }
+
+    public ProviderStats getStats() {
+        return stats;
+    }
+
+    public ProviderCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public Instant getRegisteredAt() {
+        return registeredAt;
+    }
+
+    /**
+     * Records a successful call in the health and call statistics.
+     *
+     * @param latency the call latency
+     */
+    public void recordSuccess(Duration latency) {
+        health.recordSuccess(latency);
+        stats.record(latency, false);
+    }
+
+    /**
+     * Records a failed call in the health and call statistics.
+     *
+     * @param latency the time until the call failed
+     */
+    public void recordFailure(Duration latency) {
+        health.recordFailure(latency);
+        stats.record(latency, true);
+    }
+
+    /**
+     * Calls the provider on the threads of its execution mode.
+     *
+     * <p>Both the creation of the provider's Uni and its subscription happen on the executor, so
+     * providers that block before returning do not block the caller.
+     *
+     * @param call the provider call
+     * @return a Uni that emits the outcome of the call
+     */
+    public <T> Uni<T> call(Supplier<Uni<T>> call) {
+        Uni<T> deferred = Uni.createFrom().deferred(call);
+        return executor != null ? deferred.runSubscriptionOn(executor) : deferred;
+    }
+
+    /**
+     * Calls a streaming provider on the threads of its execution mode.
+     *
+     * @param call the provider call
+     * @return a Multi that emits the items of the call
+     */
+    public <T> Multi<T> callStream(Supplier<Multi<T>> call) {
+        Multi<T> deferred = Multi.createFrom().deferred(call);
+        return executor != null ? deferred.runSubscriptionOn(executor) : deferred;
+    }
+}
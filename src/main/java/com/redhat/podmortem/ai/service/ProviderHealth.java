@@ -0,0 +1,121 @@
+package com.redhat.podmortem.ai.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Rolling health statistics of a single AI provider.
+ *
+ * <p>Tracks an exponentially weighted moving average (EWMA) of call latency and error rate, and
+ * keeps a window of recent successful latencies from which tail percentiles are computed. Used to
+ * route requests to the healthiest provider and to decide when to hedge a slow call.
+ *
+ * <p>The sorted window is cached until the next successful call, so repeated hedge decisions
+ * between calls do not sort it again.
+ */
+public class ProviderHealth {
+
+    private static final double ALPHA = 0.2;
+    private static final int WINDOW = 128;
+
+    private final long[] latencies = new long[WINDOW];
+    private int samples;
+    private int next;
+    private long[] sorted;
+
+    private double ewmaLatencyMillis;
+    private double ewmaErrorRate;
+    private double failedLatencyMillis;
+    private boolean latencyObserved;
+    private boolean observed;
+
+    /**
+     * Records a successful call.
+     *
+     * @param latency the call latency
+     */
+    public synchronized void recordSuccess(Duration latency) {
+        long millis = latency.toMillis();
+        latencies[next] = millis;
+        next = (next + 1) % WINDOW;
+        samples = Math.min(samples + 1, WINDOW);
+        sorted = null;
+
+        ewmaLatencyMillis = latencyObserved ? ewma(ewmaLatencyMillis, millis) : millis;
+        latencyObserved = true;
+        ewmaErrorRate = ewma(ewmaErrorRate, 0);
+        observed = true;
+    }
+
+    /**
+     * Records a failed call.
+     *
+     * <p>The latency of a failed call does not enter the latency average; until a call succeeds it
+     * only bounds the latency the provider is scored with.
+     *
+     * @param latency the time until the call failed
+     */
+    public synchronized void recordFailure(Duration latency) {
+        failedLatencyMillis = Math.max(failedLatencyMillis, latency.toMillis());
+        ewmaErrorRate = ewma(ewmaErrorRate, 1);
+        observed = true;
+    }
+
+    /**
+     * Gets the moving average latency of successful calls.
+     *
+     * @return the average latency in milliseconds, 0 if no call succeeded yet
+     */
+    public synchronized double getEwmaLatencyMillis() {
+        return ewmaLatencyMillis;
+    }
+
+    /**
+     * Gets the moving average error rate.
+     *
+     * @return the error rate between 0 and 1
+     */
+    public synchronized double getErrorRate() {
+        return ewmaErrorRate;
+    }
+
+    /**
+     * Computes a latency percentile over the recent window of successful calls.
+     *
+     * @param percentile the percentile between 0 and 1
+     * @return the latency, or null if no call succeeded yet
+     */
+    public synchronized Duration latencyPercentile(double percentile) {
+        if (samples == 0) {
+            return null;
+        }
+        if (sorted == null) {
+            sorted = Arrays.copyOf(latencies, samples);
+            Arrays.sort(sorted);
+        }
+        long[] window = sorted;
+        int index = (int) Math.ceil(percentile * window.length) - 1;
+        return Duration.ofMillis(window[Math.max(0, Math.min(index, window.length - 1))]);
+    }
+
+    /**
+     * Computes the routing score of the provider, lower is better.
+     *
+     * <p>The expected latency is inflated by the error rate, since a failed call costs a retry.
+     * Providers that have not been observed yet score 0 so that they get probed. A provider whose
+     * calls have only failed so far is scored with the longest time it took to fail.
+     *
+     * @return the routing score
+     */
+    public synchronized double score() {
+        if (!observed) {
+            return 0;
+        }
+        double latencyMillis = latencyObserved ? ewmaLatencyMillis : failedLatencyMillis;
+        return Math.max(latencyMillis, 1) / Math.max(0.05, 1 - ewmaErrorRate);
+    }
+
+    private static double ewma(double average, double sample) {
+        return average + ALPHA * (sample - average);
+    }
+}
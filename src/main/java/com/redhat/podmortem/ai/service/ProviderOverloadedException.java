@@ -0,0 +1,28 @@
+package com.redhat.podmortem.ai.service;
+
+import java.time.Duration;
+import org.eclipse.microprofile.faulttolerance.exceptions.BulkheadException;
+
+/**
+ * Thrown when a request is rejected because an AI provider has no capacity left.
+ *
+ * <p>Carries a retry hint that the REST layer reports to clients as a {@code Retry-After} header.
+ */
+public class ProviderOverloadedException extends BulkheadException {
+
+    private final Duration retryAfter;
+
+    public ProviderOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Gets the suggested delay before the request is retried.
+     *
+     * @return the retry delay
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,68 @@
+package com.redhat.podmortem.ai.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.eclipse.microprofile.config.Config;
+
+/**
+ * Reads a setting configured per provider and model under {@code podmortem.providers}.
+ *
+ * <p>Settings are looked up from the configuration once rather than on every call, so that state
+ * kept per provider and model is bounded by the configuration instead of growing with the IDs that
+ * clients send.
+ */
+final class ProviderOverrides {
+
+    private static final String PREFIX = "podmortem.providers.";
+    private static final String MODELS = ".models.";
+
+    private ProviderOverrides() {}
+
+    /**
+     * Reads the values of a setting for every provider and model that configures it.
+     *
+     * @param config the application configuration
+     * @param suffix the name of the setting, without the provider and model prefix
+     * @param type the type of the setting
+     * @return the values by {@link #key key}: {@code <provider-id>} for settings of a provider and
+     *     {@code <provider-id>/<model-id>} for settings of a model
+     */
+    static <T> Map<String, T> find(Config config, String suffix, Class<T> type) {
+        Map<String, T> values = new LinkedHashMap<>();
+        String ending = "." + suffix;
+        for (String name : config.getPropertyNames()) {
+            if (!name.startsWith(PREFIX) || !name.endsWith(ending)) {
+                continue;
+            }
+            String scope = name.substring(PREFIX.length(), name.length() - ending.length());
+            int models = scope.indexOf(MODELS);
+            String key =
+                    models < 0
+                            ? unquote(scope)
+                            : key(
+                                    unquote(scope.substring(0, models)),
+                                    unquote(scope.substring(models + MODELS.length())));
+            values.put(key, config.getValue(name, type));
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * Builds the key of a provider and model.
+     *
+     * @param providerId the provider ID
+     * @param modelId the model ID, or null for the provider's own settings
+     * @return the key of the settings of the provider or model
+     */
+    static String key(String providerId, String modelId) {
+        return modelId != null ? providerId + '/' + modelId : providerId;
+    }
+
+    private static String unquote(String segment) {
+        if (segment.length() > 1 && segment.startsWith("\"") && segment.endsWith("\"")) {
+            return segment.substring(1, segment.length() - 1);
+        }
+        return segment;
+    }
+}
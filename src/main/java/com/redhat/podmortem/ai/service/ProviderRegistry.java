@@ -1,23 +1,53 @@
 package com.redhat.podmortem.ai.service;
 
+import com.redhat.podmortem.ai.model.ProviderStatus;
 import com.redhat.podmortem.common.model.provider.AIProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.Startup;
+import io.quarkus.virtual.threads.VirtualThreads;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 /**
  * Registry for managing AI provider instances and their availability.
  *
  * <p>Automatically discovers and registers all available AI provider implementations at startup
- * using CDI. Provides thread-safe access to AI providers by ID and maintains a registry of all
- * available providers for the analysis service.
+ * using CDI. Further providers can be registered and deregistered at runtime, see {@link
+ * ProviderDirectory}. The registered providers are kept in an immutable snapshot that is replaced
+ * on every change, so lookups read a single volatile field and never lock or allocate, and the
+ * lists returned to callers are shared rather than copied.
+ *
+ * <p>Each provider is registered together with a bulkhead limiting its concurrent calls. Limits
+ * default to {@code podmortem.bulkhead.*} and can be overridden per provider with {@code
+ * podmortem.providers.<provider-id>.bulkhead.max-concurrent} and {@code
+ * podmortem.providers.<provider-id>.bulkhead.max-queued}. The {@link ExecutionMode} of provider
+ * calls defaults to {@code podmortem.execution-mode} and can be overridden with {@code
+ * podmortem.providers.<provider-id>.execution-mode}. Providers registered at runtime can carry
+ * their own settings instead.
  */
+@Startup
 @ApplicationScoped
 public class ProviderRegistry {
 
@@ -25,24 +55,118 @@ public class ProviderRegistry {
 
     @Inject Instance<AIProvider> providerInstances;
 
-    private Map<String, AIProvider> providers;
+    @Inject MeterRegistry meterRegistry;
+
+    @Inject Config config;
+
+    @ConfigProperty(name = "podmortem.bulkhead.max-concurrent", defaultValue = "16")
+    int defaultMaxConcurrent;
+
+    @ConfigProperty(name = "podmortem.bulkhead.max-queued", defaultValue = "64")
+    int defaultMaxQueued;
+
+    @ConfigProperty(name = "podmortem.bulkhead.retry-after", defaultValue = "10s")
+    Duration retryAfter;
+
+    @ConfigProperty(name = "podmortem.execution-mode", defaultValue = "event-loop")
+    ExecutionMode defaultExecutionMode;
+
+    @Inject @VirtualThreads ExecutorService virtualThreads;
+
+    @Inject ResiliencePolicies resiliencePolicies;
+
+    private volatile Snapshot snapshot = new Snapshot(new LinkedHashMap<>());
+
+    /** Meters of each registered provider, removed with the provider; guarded by this. */
+    private final Map<String, List<Meter>> meters = new HashMap<>();
 
     /**
      * Initializes the provider registry during application startup.
      *
      * <p>Discovers all AI provider implementations using CDI and registers them by their provider
-     * ID. This method is called automatically after dependency injection is complete.
+     * ID. The registry is created at startup, so providers are created then rather than on their
+     * first call, and the {@link ProviderWarmup} finds them registered.
      */
     @PostConstruct
     void initializeProviders() {
-        this.providers = new ConcurrentHashMap<>();
-
         for (AIProvider provider : providerInstances) {
-            providers.put(provider.getProviderId(), provider);
-            LOG.infof("Registered AI provider: %s", provider.getProviderId());
+            register(provider);
+        }
+
+        LOG.infof("AI Provider Registry initialized with %d providers", snapshot.entries.size());
+    }
+
+    /**
+     * Registers an AI provider with its bulkhead and metrics.
+     *
+     * @param provider the AI provider to register
+     * @return the created registry entry
+     */
+    ProviderEntry register(AIProvider provider) {
+        return register(provider, ProviderEntry.BUILT_IN, Map.of());
+    }
+
+    /**
+     * Registers an AI provider at runtime, replacing any provider registered with the same ID.
+     *
+     * <p>The settings {@code execution-mode}, {@code bulkhead.max-concurrent} and {@code
+     * bulkhead.max-queued} take precedence over the configuration of the provider ID. A replaced
+     * provider's calls in progress complete, but its statistics start over.
+     *
+     * @param provider the AI provider to register
+     * @param source where the provider was registered from
+     * @param settings the provider's settings, by key without the provider prefix
+     * @return the created registry entry
+     */
+    public synchronized ProviderEntry register(
+            AIProvider provider, String source, Map<String, String> settings) {
+        String providerId = provider.getProviderId();
+        ExecutionMode executionMode =
+                setting(providerId, settings, "execution-mode", ExecutionMode.class)
+                        .orElse(defaultExecutionMode);
+        ProviderEntry entry =
+                new ProviderEntry(
+                        provider,
+                        createBulkhead(providerId, settings),
+                        executionMode,
+                        executor(executionMode),
+                        source);
+
+        LinkedHashMap<String, ProviderEntry> entries = new LinkedHashMap<>(snapshot.entries);
+        if (entries.put(providerId, entry) != null) {
+            removeMetrics(providerId);
         }
+        snapshot = new Snapshot(entries);
+        meters.put(providerId, registerMetrics(entry));
+        LOG.infof(
+                "Registered AI provider: %s from %s (max concurrent %d, max queued %d, %s)",
+                providerId,
+                source,
+                entry.getBulkhead().getMaxConcurrent(),
+                entry.getBulkhead().getMaxQueued(),
+                executionMode);
+        return entry;
+    }
 
-        LOG.infof("AI Provider Registry initialized with %d providers", providers.size());
+    /**
+     * Removes an AI provider from the registry.
+     *
+     * <p>Calls already made to the provider complete, new requests for it are rejected as for any
+     * unknown provider.
+     *
+     * @param providerId the unique identifier of the AI provider
+     * @return true if the provider was registered
+     */
+    public synchronized boolean deregister(String providerId) {
+        if (!snapshot.entries.containsKey(providerId)) {
+            return false;
+        }
+        LinkedHashMap<String, ProviderEntry> entries = new LinkedHashMap<>(snapshot.entries);
+        entries.remove(providerId);
+        snapshot = new Snapshot(entries);
+        removeMetrics(providerId);
+        LOG.infof("Deregistered AI provider: %s", providerId);
+        return true;
     }
 
     /**
@@ -53,24 +177,51 @@ public class ProviderRegistry {
      * @throws IllegalArgumentException if the provider ID is not registered
      */
     public AIProvider getProvider(String providerId) {
-        AIProvider provider = providers.get(providerId);
-        if (provider == null) {
-            throw new IllegalArgumentException(
-                    "Unknown AI provider: "
-                            + providerId
-                            + ". Available providers: "
-                            + providers.keySet());
+        return getEntry(providerId).getProvider();
+    }
+
+    /**
+     * Retrieves the registry entry of an AI provider by its unique identifier.
+     *
+     * @param providerId the unique identifier of the AI provider
+     * @return the provider entry with its bulkhead
+     * @throws UnknownProviderException if the provider ID is not registered
+     */
+    public ProviderEntry getEntry(String providerId) {
+        Snapshot current = snapshot;
+        ProviderEntry entry = current.entries.get(providerId);
+        if (entry == null) {
+            throw new UnknownProviderException(providerId, current.ids);
         }
-        return provider;
+        return entry;
+    }
+
+    /**
+     * Looks up the registry entry of an AI provider without failing for unknown IDs.
+     *
+     * @param providerId the unique identifier of the AI provider
+     * @return the provider entry, or null if the provider ID is not registered
+     */
+    public ProviderEntry findEntry(String providerId) {
+        return providerId != null ? snapshot.entries.get(providerId) : null;
+    }
+
+    /**
+     * Gets the entries of all registered AI providers.
+     *
+     * @return an unmodifiable list of the provider entries, in registration order
+     */
+    public List<ProviderEntry> getEntries() {
+        return snapshot.entryList;
     }
 
     /**
      * Gets all registered AI provider instances.
      *
-     * @return a list of all available AI providers
+     * @return an unmodifiable list of all available AI providers
      */
     public List<AIProvider> getAllProviders() {
-        return new ArrayList<>(providers.values());
+        return snapshot.providers;
     }
 
     /**
@@ -80,15 +231,210 @@ public class ProviderRegistry {
      * @return true if the provider is registered, false otherwise
      */
     public boolean isProviderAvailable(String providerId) {
-        return providers.containsKey(providerId);
+        return findEntry(providerId) != null;
     }
 
     /**
      * Gets the list of all available provider IDs.
      *
-     * @return a list of registered provider identifiers
+     * @return an unmodifiable list of registered provider identifiers
      */
     public List<String> getAvailableProviderIds() {
-        return new ArrayList<>(providers.keySet());
+        return snapshot.ids;
+    }
+
+    /**
+     * Reports the registered providers with their live statistics.
+     *
+     * @return the status of each registered provider, in registration order
+     */
+    public List<ProviderStatus> getStatus() {
+        List<ProviderEntry> entries = snapshot.entryList;
+        List<ProviderStatus> status = new ArrayList<>(entries.size());
+        for (ProviderEntry entry : entries) {
+            ProviderStatus providerStatus = new ProviderStatus();
+            providerStatus.setProviderId(entry.getProviderId());
+            providerStatus.setSource(entry.getSource());
+            providerStatus.setExecutionMode(
+                    entry.getExecutionMode().name().toLowerCase(Locale.ROOT).replace('_', '-'));
+            providerStatus.setRegisteredAt(entry.getRegisteredAt());
+            providerStatus.setCalls(entry.getStats().getCalls());
+            providerStatus.setFailures(entry.getStats().getFailures());
+            providerStatus.setMeanLatencyMillis(entry.getStats().getMeanLatencyMillis());
+            providerStatus.setLatencyBuckets(entry.getStats().getLatencyBuckets());
+            providerStatus.setEwmaLatencyMillis(entry.getHealth().getEwmaLatencyMillis());
+            providerStatus.setErrorRate(entry.getHealth().getErrorRate());
+            providerStatus.setActive(entry.getBulkhead().getActive());
+            providerStatus.setQueued(entry.getBulkhead().getQueued());
+            providerStatus.setRejected(entry.getBulkhead().getRejected());
+            providerStatus.setCircuitBreaker(entry.getCircuitBreaker().getState().toString());
+            providerStatus.setTimeoutMillis(resiliencePolicies.timeoutFor(entry).toMillis());
+            status.add(providerStatus);
+        }
+        return status;
+    }
+
+    /**
+     * Checks if any registered provider runs in an execution mode.
+     *
+     * @param executionMode the execution mode
+     * @return true if at least one provider uses the execution mode
+     */
+    public boolean usesExecutionMode(ExecutionMode executionMode) {
+        for (ProviderEntry entry : snapshot.entryList) {
+            if (entry.getExecutionMode() == executionMode) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Executor executor(ExecutionMode executionMode) {
+        return switch (executionMode) {
+            case EVENT_LOOP -> null;
+            case WORKER -> Infrastructure.getDefaultWorkerPool();
+            case VIRTUAL_THREAD -> virtualThreads;
+        };
+    }
+
+    private ConcurrencyLimiter createBulkhead(String providerId, Map<String, String> settings) {
+        int maxConcurrent =
+                setting(providerId, settings, "bulkhead.max-concurrent", Integer.class)
+                        .orElse(defaultMaxConcurrent);
+        int maxQueued =
+                setting(providerId, settings, "bulkhead.max-queued", Integer.class)
+                        .orElse(defaultMaxQueued);
+        return new ConcurrencyLimiter(
+                "provider " + providerId, maxConcurrent, maxQueued, retryAfter);
+    }
+
+    private <T> Optional<T> setting(
+            String providerId, Map<String, String> settings, String key, Class<T> type) {
+        String value = settings.get(key);
+        if (value != null) {
+            return Optional.of(config.getConverter(type).orElseThrow().convert(value));
+        }
+        return config.getOptionalValue("podmortem.providers." + providerId + "." + key, type);
+    }
+
+    private void removeMetrics(String providerId) {
+        List<Meter> registered = meters.remove(providerId);
+        if (registered != null) {
+            registered.forEach(meterRegistry::remove);
+        }
+    }
+
+    private List<Meter> registerMetrics(ProviderEntry entry) {
+        List<Meter> registered = new ArrayList<>(registerTransitions(entry));
+        registered.addAll(registerGauges(entry));
+        return registered;
+    }
+
+    /** Registers a counter of the circuit breaker's transitions into each state. */
+    private List<Counter> registerTransitions(ProviderEntry entry) {
+        Map<ProviderCircuitBreaker.State, Counter> transitions =
+                new EnumMap<>(ProviderCircuitBreaker.State.class);
+        for (ProviderCircuitBreaker.State state : ProviderCircuitBreaker.State.values()) {
+            transitions.put(
+                    state,
+                    Counter.builder("podmortem.circuitbreaker.transitions")
+                            .tag("provider", entry.getProviderId())
+                            .tag("state", state.toString())
+                            .description("Circuit breaker transitions into the state")
+                            .register(meterRegistry));
+        }
+        entry.getCircuitBreaker().onStateChange(state -> transitions.get(state).increment());
+        return List.copyOf(transitions.values());
+    }
+
+    private List<Meter> registerGauges(ProviderEntry entry) {
+        ConcurrencyLimiter bulkhead = entry.getBulkhead();
+        String providerId = entry.getProviderId();
+        return List.of(
+                Gauge.builder(
+                                "podmortem.circuitbreaker.state",
+                                entry.getCircuitBreaker(),
+                                breaker -> breaker.getState().ordinal())
+                        .tag("provider", providerId)
+                        .description("Circuit breaker state: 0 closed, 1 half-open, 2 open")
+                        .register(meterRegistry),
+                Gauge.builder(
+                                "podmortem.provider.timeout",
+                                entry,
+                                provider -> resiliencePolicies.timeoutFor(provider).toMillis())
+                        .tag("provider", providerId)
+                        .baseUnit("milliseconds")
+                        .description("Timeout of the next call to the provider")
+                        .register(meterRegistry),
+                Gauge.builder(
+                                "podmortem.provider.bulkhead.active",
+                                bulkhead,
+                                ConcurrencyLimiter::getActive)
+                        .tag("provider", providerId)
+                        .description("Provider calls currently running")
+                        .register(meterRegistry),
+                Gauge.builder(
+                                "podmortem.provider.bulkhead.queued",
+                                bulkhead,
+                                ConcurrencyLimiter::getQueued)
+                        .tag("provider", providerId)
+                        .description("Provider calls waiting for a bulkhead slot")
+                        .register(meterRegistry),
+                Gauge.builder(
+                                "podmortem.provider.latency.ewma",
+                                entry.getHealth(),
+                                ProviderHealth::getEwmaLatencyMillis)
+                        .tag("provider", providerId)
+                        .baseUnit("milliseconds")
+                        .description("Moving average latency of successful provider calls")
+                        .register(meterRegistry),
+                Gauge.builder(
+                                "podmortem.provider.errors.ewma",
+                                entry.getHealth(),
+                                ProviderHealth::getErrorRate)
+                        .tag("provider", providerId)
+                        .description("Moving average error rate of provider calls")
+                        .register(meterRegistry),
+                FunctionCounter.builder(
+                                "podmortem.provider.bulkhead.rejected",
+                                bulkhead,
+                                ConcurrencyLimiter::getRejected)
+                        .tag("provider", providerId)
+                        .description("Provider calls rejected because the bulkhead queue was full")
+                        .register(meterRegistry),
+                FunctionCounter.builder(
+                                "podmortem.provider.calls",
+                                entry.getStats(),
+                                ProviderStats::getCalls)
+                        .tag("provider", providerId)
+                        .description("Completed provider calls")
+                        .register(meterRegistry),
+                FunctionCounter.builder(
+                                "podmortem.provider.failures",
+                                entry.getStats(),
+                                ProviderStats::getFailures)
+                        .tag("provider", providerId)
+                        .description("Failed provider calls")
+                        .register(meterRegistry));
+    }
+
+    /** An immutable set of registered providers with the views handed out to callers. */
+    private static final class Snapshot {
+
+        final Map<String, ProviderEntry> entries;
+        final List<ProviderEntry> entryList;
+        final List<String> ids;
+        final List<AIProvider> providers;
+
+        Snapshot(LinkedHashMap<String, ProviderEntry> entries) {
+            this.entries = Collections.unmodifiableMap(entries);
+            this.entryList = List.copyOf(entries.values());
+            this.ids = List.copyOf(entries.keySet());
+            List<AIProvider> instances = new ArrayList<>(entries.size());
+            for (ProviderEntry entry : entries.values()) {
+                instances.add(entry.getProvider());
+            }
+            this.providers = List.copyOf(instances);
+        }
     }
 }
@@ -0,0 +1,271 @@
+package com.redhat.podmortem.ai.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.podmortem.common.model.analysis.AnalysisResult;
+import com.redhat.podmortem.common.model.provider.AIProviderConfig;
+import com.redhat.podmortem.common.model.provider.AIResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.Cancellable;
+import io.smallrye.mutiny.subscription.UniEmitter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Routes requests for the {@value #AUTO_PROVIDER_ID} provider ID to the healthiest provider.
+ *
+ * <p>Candidates are ranked by their {@link ProviderHealth} score, which combines the moving average
+ * latency and error rate. When the primary provider has not answered within its p95 latency, a
+ * hedged request is sent to the next candidate; the first successful response wins and the other
+ * call is cancelled. A primary that fails before the hedge fires fails over to the next candidate
+ * immediately.
+ *
+ * <p>Candidates default to all registered providers and can be restricted with {@code
+ * podmortem.routing.providers}. The request's provider configuration is reused for every candidate,
+ * with the model overridable per provider through {@code
+ * podmortem.providers.<provider-id>.model-id}.
+ */
+@ApplicationScoped
+public class ProviderRouter {
+
+    /** Provider ID that selects automatic routing. */
+    public static final String AUTO_PROVIDER_ID = "auto";
+
+    private static final Logger LOG = Logger.getLogger(ProviderRouter.class);
+
+    @Inject ProviderRegistry providerRegistry;
+
+    @Inject ResiliencePolicies resiliencePolicies;
+
+    @Inject ObjectMapper objectMapper;
+
+    @Inject MeterRegistry meterRegistry;
+
+    @Inject Config config;
+
+    @ConfigProperty(name = "podmortem.routing.providers")
+    Optional<List<String>> routedProviders;
+
+    @ConfigProperty(name = "podmortem.routing.hedging.enabled", defaultValue = "true")
+    boolean hedgingEnabled;
+
+    @ConfigProperty(name = "podmortem.routing.hedging.percentile", defaultValue = "0.95")
+    double hedgingPercentile;
+
+    @ConfigProperty(name = "podmortem.routing.hedging.min-delay", defaultValue = "2s")
+    Duration minHedgeDelay;
+
+    @ConfigProperty(name = "podmortem.routing.hedging.default-delay", defaultValue = "30s")
+    Duration defaultHedgeDelay;
+
+    /**
+     * Checks whether a provider configuration requests automatic routing.
+     *
+     * @param providerConfig the AI provider configuration
+     * @return true if the provider ID is {@value #AUTO_PROVIDER_ID}
+     */
+    public static boolean isAuto(AIProviderConfig providerConfig) {
+        return AUTO_PROVIDER_ID.equals(providerConfig.getProviderId());
+    }
+
+    /**
+     * Routes an analysis to the best available provider, hedging slow calls.
+     *
+     * @param analysisResult the log analysis results
+     * @param providerConfig the configuration of the {@value #AUTO_PROVIDER_ID} request
+     * @param call the function performing a call to a concrete provider
+     * @return a Uni that emits the first successful response
+     */
+    public Uni<AIResponse> route(
+            AnalysisResult analysisResult,
+            AIProviderConfig providerConfig,
+            BiFunction<AnalysisResult, AIProviderConfig, Uni<AIResponse>> call) {
+        List<ProviderEntry> candidates = rankCandidates();
+        if (candidates.isEmpty()) {
+            return Uni.createFrom()
+                    .failure(new IllegalStateException("No AI providers available for routing"));
+        }
+
+        ProviderEntry primary = candidates.get(0);
+        AIProviderConfig primaryConfig = configFor(primary, providerConfig);
+        if (candidates.size() == 1 || !hedgingEnabled) {
+            LOG.debugf("Routing analysis to provider: %s", primary.getProviderId());
+            return call.apply(analysisResult, primaryConfig)
+                    .map(response -> annotate(response, false));
+        }
+
+        ProviderEntry secondary = candidates.get(1);
+        Duration hedgeDelay = hedgeDelay(primary);
+        LOG.debugf(
+                "Routing analysis to provider: %s, hedging to %s after %s",
+                primary.getProviderId(), secondary.getProviderId(), hedgeDelay);
+
+        return Uni.createFrom()
+                .emitter(
+                        emitter -> {
+                            HedgedCall hedged =
+                                    new HedgedCall(
+                                            emitter,
+                                            () -> {
+                                                meterRegistry
+                                                        .counter(
+                                                                "podmortem.routing.hedged",
+                                                                "provider",
+                                                                secondary.getProviderId())
+                                                        .increment();
+                                                return call.apply(
+                                                        analysisResult,
+                                                        configFor(secondary, providerConfig));
+                                            });
+                            emitter.onTermination(hedged::cancelAll);
+                            hedged.start(call.apply(analysisResult, primaryConfig));
+                            hedged.track(
+                                    Uni.createFrom()
+                                            .voidItem()
+                                            .onItem()
+                                            .delayIt()
+                                            .by(hedgeDelay)
+                                            .subscribe()
+                                            .with(ignored -> hedged.startSecondary()));
+                        });
+    }
+
+    /**
+     * Ranks the available candidate providers, healthiest first.
+     *
+     * @return the candidates, restricted to {@code podmortem.routing.providers} when set, with
+     *     providers whose circuit breaker is open last
+     */
+    List<ProviderEntry> rankCandidates() {
+        List<String> ids = routedProviders.orElseGet(providerRegistry::getAvailableProviderIds);
+        List<ProviderEntry> candidates = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            ProviderEntry entry = providerRegistry.findEntry(id);
+            if (entry != null && !AUTO_PROVIDER_ID.equals(id)) {
+                candidates.add(entry);
+            }
+        }
+        // providers whose breaker rejects calls are only tried when no other one is left
+        candidates.sort(
+                Comparator.comparing(
+                                (ProviderEntry entry) ->
+                                        entry.getCircuitBreaker()
+                                                .isRejecting(
+                                                        resiliencePolicies.policyFor(
+                                                                entry.getProviderId())))
+                        .thenComparingDouble(entry -> entry.getHealth().score()));
+        return candidates;
+    }
+
+    private Duration hedgeDelay(ProviderEntry primary) {
+        Duration percentile = primary.getHealth().latencyPercentile(hedgingPercentile);
+        if (percentile == null) {
+            return defaultHedgeDelay;
+        }
+        return percentile.compareTo(minHedgeDelay) < 0 ? minHedgeDelay : percentile;
+    }
+
+    /**
+     * Copies a request's provider configuration for a concrete provider.
+     *
+     * @param entry the registry entry of the provider
+     * @param providerConfig the configuration of the request
+     * @return the copy, with the provider's ID and configured model
+     */
+    AIProviderConfig configFor(ProviderEntry entry, AIProviderConfig providerConfig) {
+        AIProviderConfig routed;
+        try {
+            routed =
+                    objectMapper.treeToValue(
+                            objectMapper.valueToTree(providerConfig), AIProviderConfig.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to copy provider configuration", e);
+        }
+        routed.setProviderId(entry.getProviderId());
+        config.getOptionalValue(
+                        "podmortem.providers." + entry.getProviderId() + ".model-id", String.class)
+                .ifPresent(routed::setModelId);
+        return routed;
+    }
+
+    private static AIResponse annotate(AIResponse response, boolean hedged) {
+        Map<String, Object> metadata =
+                response.getMetadata() != null
+                        ? new HashMap<>(response.getMetadata())
+                        : new HashMap<>();
+        metadata.put("routing", AUTO_PROVIDER_ID);
+        metadata.put("hedged", hedged);
+        response.setMetadata(metadata);
+        return response;
+    }
+
+    /** A primary call with an optional hedged secondary call, completing with the first success. */
+    private static final class HedgedCall {
+
+        private final UniEmitter<? super AIResponse> emitter;
+        private final Supplier<Uni<AIResponse>> secondary;
+        private final List<Cancellable> subscriptions = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean done = new AtomicBoolean();
+        private final AtomicBoolean secondaryStarted = new AtomicBoolean();
+        private final AtomicInteger pending = new AtomicInteger();
+
+        HedgedCall(UniEmitter<? super AIResponse> emitter, Supplier<Uni<AIResponse>> secondary) {
+            this.emitter = emitter;
+            this.secondary = secondary;
+        }
+
+        void start(Uni<AIResponse> call) {
+            pending.incrementAndGet();
+            track(call.subscribe().with(this::succeed, this::fail));
+        }
+
+        void startSecondary() {
+            if (!done.get() && secondaryStarted.compareAndSet(false, true)) {
+                start(secondary.get());
+            }
+        }
+
+        void track(Cancellable subscription) {
+            subscriptions.add(subscription);
+            if (done.get()) {
+                subscription.cancel();
+            }
+        }
+
+        void cancelAll() {
+            subscriptions.forEach(Cancellable::cancel);
+        }
+
+        private void succeed(AIResponse response) {
+            if (done.compareAndSet(false, true)) {
+                cancelAll();
+                emitter.complete(annotate(response, secondaryStarted.get()));
+            }
+        }
+
+        private void fail(Throwable failure) {
+            // fail over right away instead of waiting for the hedge delay
+            startSecondary();
+            if (pending.decrementAndGet() == 0 && done.compareAndSet(false, true)) {
+                cancelAll();
+                emitter.fail(failure);
+            }
+        }
+    }
+}
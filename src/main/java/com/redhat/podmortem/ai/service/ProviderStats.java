@@ -0,0 +1,91 @@
+package com.redhat.podmortem.ai.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumulative call statistics of a single AI provider.
+ *
+ * <p>Counts calls, failures and the latency of every completed call in fixed buckets. All counters
+ * are {@link LongAdder}s, which spread concurrent updates over striped cells, so recording a call
+ * never contends on a lock or a single cache line. Unlike {@link ProviderHealth}, which weighs
+ * recent calls for routing, these counters only grow for as long as the provider is registered.
+ */
+public class ProviderStats {
+
+    /** Upper bounds of the latency buckets in milliseconds, the last bucket is unbounded. */
+    private static final long[] BUCKET_BOUNDS = {
+        100, 250, 500, 1_000, 2_500, 5_000, 10_000, 30_000, 60_000, 120_000
+    };
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder latencyMillis = new LongAdder();
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS.length + 1];
+
+    public ProviderStats() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a completed call.
+     *
+     * @param latency the call latency
+     * @param failed whether the call failed
+     */
+    public void record(Duration latency, boolean failed) {
+        long millis = latency.toMillis();
+        calls.increment();
+        if (failed) {
+            failures.increment();
+        }
+        latencyMillis.add(millis);
+        buckets[bucket(millis)].increment();
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Gets the mean latency of all completed calls.
+     *
+     * @return the mean latency in milliseconds, 0 if no call completed yet
+     */
+    public double getMeanLatencyMillis() {
+        long count = calls.sum();
+        return count > 0 ? (double) latencyMillis.sum() / count : 0;
+    }
+
+    /**
+     * Gets the number of calls per latency bucket.
+     *
+     * @return the call counts by the bucket's upper bound in milliseconds, {@code +Inf} for the
+     *     last bucket, in ascending order
+     */
+    public Map<String, Long> getLatencyBuckets() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            counts.put(Long.toString(BUCKET_BOUNDS[i]), buckets[i].sum());
+        }
+        counts.put("+Inf", buckets[BUCKET_BOUNDS.length].sum());
+        return counts;
+    }
+
+    private static int bucket(long millis) {
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            if (millis <= BUCKET_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS.length;
+    }
+}
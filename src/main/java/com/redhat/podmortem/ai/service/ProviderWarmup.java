@@ -0,0 +1,326 @@
+package com.redhat.podmortem.ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.podmortem.common.model.analysis.AnalysisResult;
+import com.redhat.podmortem.common.model.analysis.MatchedEvent;
+import com.redhat.podmortem.common.model.provider.AIProviderConfig;
+import com.redhat.podmortem.common.model.provider.AIResponse;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Warms the service up after startup so the first analyses after a rollout are not slow.
+ *
+ * <p>Providers are created when the {@link ProviderRegistry} registers them at startup. For each
+ * registered provider with a {@code podmortem.providers.<provider-id>.warmup.url}, {@code
+ * podmortem.warmup.connections} requests are then sent to that URL, which resolves the provider's
+ * address and completes the TLS handshake code paths before the first analysis needs them. In
+ * parallel, {@code podmortem.warmup.iterations} synthetic analyses are run through {@link
+ * AnalysisService} against a stub response, which compiles the fingerprinting, pruning, enrichment
+ * and serialization paths. The synthetic analyses bypass the response cache, the explanation store
+ * and the metrics.
+ *
+ * <p>The warm-up runs in the background so it does not delay startup. The readiness check reports
+ * the service as ready once it is complete or {@code podmortem.warmup.timeout} has passed, and
+ * reports the warm state of each provider. Providers registered at runtime are pre-connected when
+ * they are registered, without affecting readiness.
+ */
+@ApplicationScoped
+public class ProviderWarmup {
+
+    private static final Logger LOG = Logger.getLogger(ProviderWarmup.class);
+
+    private static final String WARMUP_PROVIDER_ID = "warmup";
+
+    /** Warm state of a provider or of the analysis pipeline. */
+    public enum State {
+        /** Not warmed up yet. */
+        PENDING,
+        /** Warm-up in progress. */
+        WARMING,
+        /** Warmed up. */
+        WARM,
+        /** Warm-up failed or timed out, the first calls may be slow. */
+        FAILED,
+        /** Nothing to warm up. */
+        SKIPPED;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    @Inject AnalysisService analysisService;
+
+    @Inject ProviderRegistry providerRegistry;
+
+    @Inject ObjectMapper objectMapper;
+
+    @Inject Config config;
+
+    @ConfigProperty(name = "podmortem.warmup.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "podmortem.warmup.iterations", defaultValue = "200")
+    int iterations;
+
+    @ConfigProperty(name = "podmortem.warmup.connections", defaultValue = "2")
+    int connections;
+
+    @ConfigProperty(name = "podmortem.warmup.timeout", defaultValue = "30s")
+    Duration timeout;
+
+    private final Map<String, State> providers = new ConcurrentHashMap<>();
+
+    private volatile State pipeline = State.PENDING;
+
+    private volatile boolean complete;
+
+    /** Client of the provider warm-ups, set once they have started; guarded by this. */
+    private HttpClient client;
+
+    /**
+     * Registers a provider whose connections are to be warmed up.
+     *
+     * <p>Providers registered before the warm-up has started are warmed up with it, later ones
+     * right away.
+     *
+     * @param entry the registry entry of the provider
+     */
+    public void register(ProviderEntry entry) {
+        String providerId = entry.getProviderId();
+        if (!enabled) {
+            providers.put(providerId, State.SKIPPED);
+            return;
+        }
+        HttpClient httpClient;
+        synchronized (this) {
+            providers.put(providerId, State.PENDING);
+            httpClient = client;
+        }
+        if (httpClient != null) {
+            preconnect(httpClient, providerId);
+        }
+    }
+
+    /**
+     * Forgets the warm state of a deregistered provider.
+     *
+     * @param providerId the provider ID
+     */
+    public void deregister(String providerId) {
+        providers.remove(providerId);
+    }
+
+    void start(@Observes StartupEvent event) {
+        // read from the registry, which creates the providers if no other bean has used it yet
+        for (ProviderEntry entry : providerRegistry.getEntries()) {
+            providers.putIfAbsent(entry.getProviderId(), enabled ? State.PENDING : State.SKIPPED);
+        }
+        if (!enabled) {
+            pipeline = State.SKIPPED;
+            complete = true;
+            return;
+        }
+        Thread warmup = new Thread(this::warmUp, "provider-warmup");
+        warmup.setDaemon(true);
+        warmup.start();
+    }
+
+    /**
+     * Checks whether the warm-up is over, whether or not every part of it succeeded.
+     *
+     * @return true once the warm-up completed or timed out
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Gets the warm state of the analysis pipeline.
+     *
+     * @return the pipeline state
+     */
+    public State getPipelineState() {
+        return pipeline;
+    }
+
+    /**
+     * Gets the warm state of each registered provider.
+     *
+     * @return the states by provider ID, sorted by ID
+     */
+    public Map<String, State> getProviderStates() {
+        return Collections.unmodifiableMap(new TreeMap<>(providers));
+    }
+
+    private void warmUp() {
+        long started = System.nanoTime();
+        Instant deadline = Instant.now().plus(timeout);
+        List<String> providerIds;
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+        synchronized (this) {
+            client = httpClient;
+            providerIds = List.copyOf(providers.keySet());
+        }
+        List<CompletableFuture<Void>> warmups = new ArrayList<>();
+        for (String providerId : providerIds) {
+            warmups.add(preconnect(httpClient, providerId));
+        }
+
+        warmUpPipeline(deadline);
+
+        try {
+            CompletableFuture.allOf(warmups.toArray(CompletableFuture[]::new))
+                    .get(
+                            Math.max(0, Duration.between(Instant.now(), deadline).toMillis()),
+                            TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            LOG.warnf("Provider warm-up did not finish within %s", timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // failures are recorded per provider
+        }
+        providers.replaceAll(
+                (providerId, state) ->
+                        state == State.PENDING || state == State.WARMING ? State.FAILED : state);
+        complete = true;
+        LOG.infof(
+                "Warm-up completed in %d ms: pipeline %s, providers %s",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
+                pipeline,
+                getProviderStates());
+    }
+
+    private CompletableFuture<Void> preconnect(HttpClient client, String providerId) {
+        Optional<URI> url =
+                config.getOptionalValue(
+                        "podmortem.providers." + providerId + ".warmup.url", URI.class);
+        if (url.isEmpty() || connections <= 0) {
+            providers.replace(providerId, State.SKIPPED);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        providers.replace(providerId, State.WARMING);
+        HttpRequest request =
+                HttpRequest.newBuilder(url.get())
+                        .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                        .timeout(timeout)
+                        .build();
+        List<CompletableFuture<HttpResponse<Void>>> requests = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            requests.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        // any HTTP response means the connection and TLS handshake succeeded
+        return CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new))
+                .handle(
+                        (ignored, failure) -> {
+                            if (failure != null) {
+                                LOG.warnf(
+                                        "Warm-up of provider %s against %s failed: %s",
+                                        providerId, url.get(), failure.getMessage());
+                                providers.replace(providerId, State.FAILED);
+                            } else {
+                                providers.replace(providerId, State.WARM);
+                            }
+                            return null;
+                        });
+    }
+
+    private void warmUpPipeline(Instant deadline) {
+        if (iterations <= 0) {
+            pipeline = State.SKIPPED;
+            return;
+        }
+        pipeline = State.WARMING;
+        try {
+            AIProviderConfig providerConfig = new AIProviderConfig();
+            providerConfig.setProviderId(WARMUP_PROVIDER_ID);
+            providerConfig.setModelId(WARMUP_PROVIDER_ID);
+            AIResponse stubResponse = stubResponse();
+
+            for (int i = 0; i < iterations && Instant.now().isBefore(deadline); i++) {
+                AnalysisResult analysisResult = syntheticResult(i);
+                AIResponse response =
+                        analysisService.warmUp(analysisResult, providerConfig, stubResponse);
+                objectMapper.writeValueAsBytes(response);
+                FallbackExplainer.explain(analysisResult);
+            }
+            pipeline = State.WARM;
+        } catch (Exception e) {
+            LOG.warnf(e, "Analysis pipeline warm-up failed");
+            pipeline = State.FAILED;
+        }
+    }
+
+    private AnalysisResult syntheticResult(int iteration) {
+        List<MatchedEvent> events = new ArrayList<>();
+        // vary the events so each iteration takes the pruning path with new data
+        int count = 8 + iteration % 32;
+        for (int i = 0; i < count; i++) {
+            events.add(
+                    objectMapper.convertValue(
+                            Map.of(
+                                    "lineNumber",
+                                    i * 10,
+                                    "score",
+                                    (i % 7) / 7.0,
+                                    "matchedPattern",
+                                    Map.of(
+                                            "id",
+                                            "warmup-pattern-" + (i % 5),
+                                            "severity",
+                                            i % 3 == 0 ? "HIGH" : "MEDIUM"),
+                                    "context",
+                                    Map.of(
+                                            "matchedLine",
+                                            "2024-01-01T00:00:00Z ERROR warmup-7d9f8c6b5-x2k4p"
+                                                    + " request "
+                                                    + (iteration * 31 + i)
+                                                    + " failed: connection refused",
+                                            "linesBefore",
+                                            List.of("INFO starting request " + i),
+                                            "linesAfter",
+                                            List.of())),
+                            MatchedEvent.class));
+        }
+        return objectMapper.convertValue(
+                Map.of("analysisId", "warmup-" + iteration, "events", events),
+                AnalysisResult.class);
+    }
+
+    private static AIResponse stubResponse() {
+        AIResponse response = new AIResponse();
+        response.setExplanation(
+                "The container exited because its upstream dependency refused connections.");
+        response.setProviderId(WARMUP_PROVIDER_ID);
+        response.setModelId(WARMUP_PROVIDER_ID);
+        response.setProcessingTime(Duration.ZERO);
+        response.setConfidence(0.5);
+        return response;
+    }
+}
@@ -0,0 +1,365 @@
+package com.redhat.podmortem.ai.service;
+
+import io.smallrye.mutiny.Uni;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Non-blocking rate limiter enforcing a requests-per-minute and a tokens-per-minute quota.
+ *
+ * <p>Each quota is a token bucket refilled continuously at its per-minute rate and holding at most
+ * a short burst, so admitted throughput stays at the quota instead of spending a minute's worth of
+ * requests at once and then stalling. Callers that cannot be admitted wait in per-namespace FIFO
+ * queues that are served round-robin, so a single namespace flooding the provider cannot starve the
+ * others. Waiting never blocks a thread: the queue is drained by a timer scheduled for the moment
+ * the next caller can be admitted.
+ *
+ * <p>Token costs are estimated up front and settled against the usage reported by the provider once
+ * the call completes. Callers are rejected with a {@link ProviderOverloadedException} carrying the
+ * expected wait when the queue is full or the wait would exceed {@code maxWait}.
+ */
+public class RateLimiter {
+
+    private static final String DEFAULT_NAMESPACE = "";
+    private static final double NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private final String name;
+    private final Bucket requests;
+    private final Bucket tokens;
+    private final int maxQueued;
+    private final Duration maxWait;
+    private final ScheduledExecutorService scheduler;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, ArrayDeque<Waiter>> queues = new HashMap<>();
+    private final ArrayDeque<String> rotation = new ArrayDeque<>();
+    private final LongAdder rejected = new LongAdder();
+    private int queued;
+    private double queuedTokens;
+    private ScheduledFuture<?> wakeup;
+
+    /**
+     * Creates a new rate limiter.
+     *
+     * @param name the name reported in rejection messages
+     * @param requestsPerMinute the request quota, 0 for no request quota
+     * @param tokensPerMinute the token quota, 0 for no token quota
+     * @param burst the share of the quota that may be spent at once, as a duration of refill
+     * @param maxQueued the maximum number of callers waiting to be admitted
+     * @param maxWait the longest wait accepted before callers are rejected instead
+     * @param scheduler the scheduler used to admit waiting callers
+     */
+    public RateLimiter(
+            String name,
+            int requestsPerMinute,
+            int tokensPerMinute,
+            Duration burst,
+            int maxQueued,
+            Duration maxWait,
+            ScheduledExecutorService scheduler) {
+        if (requestsPerMinute < 0 || tokensPerMinute < 0 || maxQueued < 0) {
+            throw new IllegalArgumentException("Invalid rate limits for " + name);
+        }
+        this.name = name;
+        this.requests = requestsPerMinute > 0 ? new Bucket(requestsPerMinute, burst) : null;
+        this.tokens = tokensPerMinute > 0 ? new Bucket(tokensPerMinute, burst) : null;
+        this.maxQueued = maxQueued;
+        this.maxWait = maxWait;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Waits until a call with an estimated token cost can be made.
+     *
+     * <p>Cancelling the returned Uni while waiting leaves the queue without spending quota.
+     *
+     * @param namespace the namespace the call is made for, null for the default namespace
+     * @param estimatedTokens the estimated token cost of the call
+     * @return a Uni that emits the permit once the call is admitted, or fails with {@link
+     *     ProviderOverloadedException} when the caller cannot be admitted in time
+     */
+    public Uni<Permit> acquire(String namespace, int estimatedTokens) {
+        return Uni.createFrom()
+                .deferred(
+                        () -> {
+                            Waiter waiter =
+                                    enqueue(
+                                            namespace != null ? namespace : DEFAULT_NAMESPACE,
+                                            estimatedTokens);
+                            // subscribe to a copy so cancelling cannot complete the waiter itself
+                            return Uni.createFrom()
+                                    .completionStage(waiter.admitted.copy())
+                                    .onCancellation()
+                                    .invoke(() -> cancel(waiter))
+                                    .map(ignored -> new Permit(this, waiter.cost));
+                        });
+    }
+
+    private Waiter enqueue(String namespace, int estimatedTokens) {
+        List<Waiter> admitted;
+        Waiter waiter;
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            double cost = tokens != null ? Math.min(estimatedTokens, tokens.capacity) : 0;
+            waiter = new Waiter(namespace, cost);
+            if (queued == 0 && canAdmit(cost, now)) {
+                admit(waiter, now);
+                waiter.admitted.complete(null);
+                return waiter;
+            }
+
+            long waitNanos = waitNanos(queued + 1, queuedTokens + cost, now);
+            if (queued >= maxQueued || waitNanos > maxWait.toNanos()) {
+                rejected.increment();
+                throw new ProviderOverloadedException(
+                        "Rate limit reached for " + name,
+                        Duration.ofNanos(Math.max(waitNanos, TimeUnit.SECONDS.toNanos(1))));
+            }
+
+            ArrayDeque<Waiter> queue = queues.computeIfAbsent(namespace, key -> new ArrayDeque<>());
+            if (queue.isEmpty()) {
+                rotation.addLast(namespace);
+            }
+            queue.addLast(waiter);
+            queued++;
+            queuedTokens += cost;
+            admitted = drain(now);
+        } finally {
+            lock.unlock();
+        }
+        complete(admitted);
+        return waiter;
+    }
+
+    private void cancel(Waiter waiter) {
+        List<Waiter> admitted;
+        lock.lock();
+        try {
+            ArrayDeque<Waiter> queue = queues.get(waiter.namespace);
+            if (queue == null || !queue.remove(waiter)) {
+                return;
+            }
+            queued--;
+            queuedTokens -= waiter.cost;
+            if (queue.isEmpty()) {
+                queues.remove(waiter.namespace);
+                rotation.remove(waiter.namespace);
+            }
+            // the cancelled caller may have been holding back the rest of the queue
+            admitted = drain(System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+        complete(admitted);
+    }
+
+    /**
+     * Settles the estimated token cost of a call against its actual cost.
+     *
+     * @param estimated the token cost charged on admission
+     * @param actual the token cost reported by the provider
+     */
+    void settle(double estimated, int actual) {
+        if (tokens == null || actual < 0) {
+            return;
+        }
+        List<Waiter> admitted;
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            tokens.refill(now);
+            // may go negative, the next callers then wait for the overdraft to be refilled
+            tokens.available = Math.min(tokens.capacity, tokens.available + estimated - actual);
+            admitted = drain(now);
+        } finally {
+            lock.unlock();
+        }
+        complete(admitted);
+    }
+
+    /** Admits waiting callers round-robin across namespaces. Must hold the lock. */
+    private List<Waiter> drain(long now) {
+        List<Waiter> admitted = new ArrayList<>();
+        while (!rotation.isEmpty()) {
+            String namespace = rotation.peekFirst();
+            ArrayDeque<Waiter> queue = queues.get(namespace);
+            Waiter head = queue.peekFirst();
+            if (!canAdmit(head.cost, now)) {
+                schedule(waitNanos(1, head.cost, now));
+                break;
+            }
+            queue.pollFirst();
+            rotation.pollFirst();
+            if (queue.isEmpty()) {
+                queues.remove(namespace);
+            } else {
+                rotation.addLast(namespace);
+            }
+            queued--;
+            queuedTokens -= head.cost;
+            admit(head, now);
+            admitted.add(head);
+        }
+        return admitted;
+    }
+
+    private static void complete(List<Waiter> admitted) {
+        // complete outside the lock, admitted calls start on completion
+        for (Waiter waiter : admitted) {
+            waiter.admitted.complete(null);
+        }
+    }
+
+    private boolean canAdmit(double cost, long now) {
+        return (requests == null || requests.available(now) >= 1)
+                && (tokens == null || tokens.available(now) >= cost);
+    }
+
+    private void admit(Waiter waiter, long now) {
+        if (requests != null) {
+            requests.take(1, now);
+        }
+        if (tokens != null) {
+            tokens.take(waiter.cost, now);
+        }
+    }
+
+    private long waitNanos(int requestCount, double tokenCount, long now) {
+        long wait = 0;
+        if (requests != null) {
+            wait = Math.max(wait, requests.nanosUntil(requestCount, now));
+        }
+        if (tokens != null) {
+            wait = Math.max(wait, tokens.nanosUntil(tokenCount, now));
+        }
+        return wait;
+    }
+
+    private void schedule(long delayNanos) {
+        if (wakeup != null && !wakeup.isDone()) {
+            wakeup.cancel(false);
+        }
+        wakeup =
+                scheduler.schedule(
+                        () -> {
+                            List<Waiter> admitted;
+                            lock.lock();
+                            try {
+                                admitted = drain(System.nanoTime());
+                            } finally {
+                                lock.unlock();
+                            }
+                            complete(admitted);
+                        },
+                        Math.max(delayNanos, TimeUnit.MILLISECONDS.toNanos(1)),
+                        TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the number of callers waiting to be admitted.
+     *
+     * @return the current queue depth
+     */
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the total number of callers rejected because they could not be admitted in time.
+     *
+     * @return the rejection count
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /** Admission of a single call, settled once the call's actual token usage is known. */
+    public static final class Permit {
+
+        /** Permit of a call to a provider without rate limits. */
+        public static final Permit UNLIMITED = new Permit(null, 0);
+
+        private final RateLimiter limiter;
+        private final double estimatedTokens;
+
+        Permit(RateLimiter limiter, double estimatedTokens) {
+            this.limiter = limiter;
+            this.estimatedTokens = estimatedTokens;
+        }
+
+        /**
+         * Settles the permit with the token usage reported by the provider.
+         *
+         * @param actualTokens the reported token usage, negative if unknown
+         */
+        public void settle(int actualTokens) {
+            if (limiter != null) {
+                limiter.settle(estimatedTokens, actualTokens);
+            }
+        }
+    }
+
+    /** A token bucket refilled continuously. Accessed under the limiter's lock. */
+    private static final class Bucket {
+
+        final double capacity;
+        final double perNano;
+        double available;
+        long refilledAt = System.nanoTime();
+
+        Bucket(int perMinute, Duration burst) {
+            this.perNano = perMinute / NANOS_PER_MINUTE;
+            this.capacity = Math.max(1, perNano * burst.toNanos());
+            this.available = capacity;
+        }
+
+        void refill(long now) {
+            available = Math.min(capacity, available + (now - refilledAt) * perNano);
+            refilledAt = now;
+        }
+
+        double available(long now) {
+            refill(now);
+            return available;
+        }
+
+        void take(double amount, long now) {
+            refill(now);
+            available -= amount;
+        }
+
+        long nanosUntil(double amount, long now) {
+            double missing = amount - available(now);
+            return missing <= 0 ? 0 : (long) Math.ceil(missing / perNano);
+        }
+    }
+
+    /** A caller waiting to be admitted. */
+    private static final class Waiter {
+
+        final String namespace;
+        final double cost;
+        final CompletableFuture<Void> admitted = new CompletableFuture<>();
+
+        Waiter(String namespace, double cost) {
+            this.namespace = namespace;
+            this.cost = cost;
+        }
+    }
+}
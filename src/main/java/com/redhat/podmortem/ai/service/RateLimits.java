@@ -0,0 +1,161 @@
+package com.redhat.podmortem.ai.service;
+
+import com.redhat.podmortem.common.model.provider.AIProviderConfig;
+import com.redhat.podmortem.common.model.provider.AIResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Per provider and model rate limits.
+ *
+ * <p>Quotas are configured with {@code podmortem.providers.<provider-id>.rate-limit.rpm} and {@code
+ * podmortem.providers.<provider-id>.rate-limit.tpm}, and can be overridden per model with {@code
+ * podmortem.providers.<provider-id>.models.<model-id>.rate-limit.*}. Models without a quota of
+ * their own share the quota of their provider, and providers without a quota are not limited.
+ * Limiters are created at startup for the configured quotas only, so requests for other providers
+ * and models never add state. The token cost of a call is estimated from its pruned prompt plus
+ * {@code podmortem.rate-limit.completion-tokens}, and settled against the usage the provider
+ * reports.
+ */
+@ApplicationScoped
+public class RateLimits {
+
+    private static final Logger LOG = Logger.getLogger(RateLimits.class);
+
+    @Inject Config config;
+
+    @Inject MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "podmortem.rate-limit.burst", defaultValue = "10s")
+    Duration burst;
+
+    @ConfigProperty(name = "podmortem.rate-limit.max-queued", defaultValue = "256")
+    int maxQueued;
+
+    @ConfigProperty(name = "podmortem.rate-limit.max-wait", defaultValue = "60s")
+    Duration maxWait;
+
+    @ConfigProperty(name = "podmortem.rate-limit.completion-tokens", defaultValue = "1000")
+    int completionTokens;
+
+    /** Limiters by {@link ProviderOverrides#key}, empty where a model is explicitly unlimited. */
+    private Map<String, Optional<RateLimiter>> limiters;
+
+    @PostConstruct
+    void initialize() {
+        Map<String, Integer> rpm = ProviderOverrides.find(config, "rate-limit.rpm", Integer.class);
+        Map<String, Integer> tpm = ProviderOverrides.find(config, "rate-limit.tpm", Integer.class);
+        Set<String> keys = new LinkedHashSet<>(rpm.keySet());
+        keys.addAll(tpm.keySet());
+
+        Map<String, Optional<RateLimiter>> created = new HashMap<>();
+        for (String key : keys) {
+            int separator = key.indexOf('/');
+            String providerId = separator < 0 ? key : key.substring(0, separator);
+            String modelId = separator < 0 ? null : key.substring(separator + 1);
+            created.put(
+                    key,
+                    create(
+                            providerId,
+                            modelId,
+                            limit(rpm, providerId, modelId),
+                            limit(tpm, providerId, modelId)));
+        }
+        this.limiters = Collections.unmodifiableMap(created);
+    }
+
+    /**
+     * Waits until a call to a provider and model is within its quotas.
+     *
+     * @param providerConfig the AI provider configuration of the call
+     * @param promptTokens the estimated prompt size of the call
+     * @param options the request options, whose namespace is used for fair queuing
+     * @return a Uni that emits the permit once the call is admitted, or fails with {@link
+     *     ProviderOverloadedException} when it cannot be admitted in time
+     */
+    public Uni<RateLimiter.Permit> acquire(
+            AIProviderConfig providerConfig, int promptTokens, AnalysisOptions options) {
+        String providerId = providerConfig.getProviderId();
+        Optional<RateLimiter> limiter =
+                limiters.get(ProviderOverrides.key(providerId, providerConfig.getModelId()));
+        if (limiter == null) {
+            limiter = limiters.getOrDefault(providerId, Optional.empty());
+        }
+        if (limiter.isEmpty()) {
+            return Uni.createFrom().item(RateLimiter.Permit.UNLIMITED);
+        }
+        return limiter.get().acquire(options.getNamespace(), promptTokens + completionTokens);
+    }
+
+    /**
+     * Gets the token usage a provider reported in the response metadata.
+     *
+     * @param response the provider response
+     * @return the total tokens used, or -1 if the provider did not report them
+     */
+    static int reportedTokens(AIResponse response) {
+        Map<String, Object> metadata = response.getMetadata();
+        if (metadata == null) {
+            return -1;
+        }
+        if (metadata.get("totalTokens") instanceof Number total) {
+            return total.intValue();
+        }
+        if (metadata.get("promptTokens") instanceof Number prompt
+                && metadata.get("completionTokens") instanceof Number completion) {
+            return prompt.intValue() + completion.intValue();
+        }
+        return -1;
+    }
+
+    private Optional<RateLimiter> create(String providerId, String modelId, int rpm, int tpm) {
+        if (rpm <= 0 && tpm <= 0) {
+            return Optional.empty();
+        }
+
+        String scope = "provider " + providerId + (modelId != null ? " model " + modelId : "");
+        RateLimiter limiter =
+                new RateLimiter(
+                        scope,
+                        rpm,
+                        tpm,
+                        burst,
+                        maxQueued,
+                        maxWait,
+                        Infrastructure.getDefaultWorkerPool());
+        String model = modelId != null ? modelId : "all";
+        Gauge.builder("podmortem.provider.ratelimit.queued", limiter, RateLimiter::getQueued)
+                .tags("provider", providerId, "model", model)
+                .description("Provider calls waiting for rate limit quota")
+                .register(meterRegistry);
+        FunctionCounter.builder(
+                        "podmortem.provider.ratelimit.rejected", limiter, RateLimiter::getRejected)
+                .tags("provider", providerId, "model", model)
+                .description("Provider calls rejected because the quota did not admit them in time")
+                .register(meterRegistry);
+        LOG.infof("Rate limiting %s to %d requests and %d tokens per minute", scope, rpm, tpm);
+        return Optional.of(limiter);
+    }
+
+    private static int limit(Map<String, Integer> limits, String providerId, String modelId) {
+        Integer limit =
+                modelId != null ? limits.get(ProviderOverrides.key(providerId, modelId)) : null;
+        return limit != null ? limit : limits.getOrDefault(providerId, 0);
+    }
+}
@@ -0,0 +1,195 @@
+package com.redhat.podmortem.ai.service;
+
+import com.redhat.podmortem.ai.model.ResiliencePolicy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.microprofile.config.Config;
+
+/**
+ * Per-provider resilience policies, derived from configuration and tunable at runtime.
+ *
+ * <p>Each setting defaults to {@code podmortem.resilience.<setting>} and can be overridden per
+ * provider with {@code podmortem.providers.<provider-id>.resilience.<setting>}, so a local model
+ * answering in two seconds and a remote one answering in a minute get timeouts and breakers that
+ * fit them. Policies can be updated while the service runs; an update lasts until it is reset or
+ * the service restarts.
+ *
+ * <p>The timeout of a call is {@code timeout.percentile} of the provider's recent successful
+ * latencies times {@code timeout.factor}, between {@code timeout.min} and {@code timeout.max}.
+ * Until a provider has a latency history, its calls get {@code timeout.max}. A call counts as slow
+ * for the breaker when it takes longer than the provider's median latency times {@code
+ * breaker.slow-call-factor}, so a provider whose latency degrades is taken out of rotation before
+ * its calls start to time out.
+ */
+@ApplicationScoped
+public class ResiliencePolicies {
+
+    @Inject Config config;
+
+    /** Effective policy of each provider, resolved on first use or set at runtime. */
+    private final Map<String, ResiliencePolicy> policies = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the effective policy of a provider.
+     *
+     * @param providerId the provider ID
+     * @return the policy, shared and not to be modified
+     */
+    public ResiliencePolicy policyFor(String providerId) {
+        ResiliencePolicy policy = policies.get(providerId);
+        return policy != null ? policy : policies.computeIfAbsent(providerId, this::configured);
+    }
+
+    /**
+     * Updates the policy of a provider at runtime.
+     *
+     * @param providerId the provider ID
+     * @param update the settings to change, null fields keep their current value
+     * @return the updated policy
+     * @throws IllegalArgumentException if the updated policy is invalid
+     */
+    public ResiliencePolicy update(String providerId, ResiliencePolicy update) {
+        ResiliencePolicy policy = new ResiliencePolicy(policyFor(providerId));
+        if (update.getTimeoutPercentile() != null) {
+            policy.setTimeoutPercentile(update.getTimeoutPercentile());
+        }
+        if (update.getTimeoutFactor() != null) {
+            policy.setTimeoutFactor(update.getTimeoutFactor());
+        }
+        if (update.getMinTimeoutMillis() != null) {
+            policy.setMinTimeoutMillis(update.getMinTimeoutMillis());
+        }
+        if (update.getMaxTimeoutMillis() != null) {
+            policy.setMaxTimeoutMillis(update.getMaxTimeoutMillis());
+        }
+        if (update.getWindowSize() != null) {
+            policy.setWindowSize(update.getWindowSize());
+        }
+        if (update.getMinimumCalls() != null) {
+            policy.setMinimumCalls(update.getMinimumCalls());
+        }
+        if (update.getFailureRatio() != null) {
+            policy.setFailureRatio(update.getFailureRatio());
+        }
+        if (update.getSlowCallFactor() != null) {
+            policy.setSlowCallFactor(update.getSlowCallFactor());
+        }
+        if (update.getSlowCallRatio() != null) {
+            policy.setSlowCallRatio(update.getSlowCallRatio());
+        }
+        if (update.getOpenDelayMillis() != null) {
+            policy.setOpenDelayMillis(update.getOpenDelayMillis());
+        }
+        if (update.getHalfOpenCalls() != null) {
+            policy.setHalfOpenCalls(update.getHalfOpenCalls());
+        }
+        validate(policy);
+        policies.put(providerId, policy);
+        return policy;
+    }
+
+    /**
+     * Discards the runtime updates of a provider's policy.
+     *
+     * @param providerId the provider ID
+     * @return the configured policy
+     */
+    public ResiliencePolicy reset(String providerId) {
+        policies.remove(providerId);
+        return policyFor(providerId);
+    }
+
+    /**
+     * Computes the timeout of the next call to a provider.
+     *
+     * @param entry the registry entry of the provider
+     * @return the timeout
+     */
+    public Duration timeoutFor(ProviderEntry entry) {
+        ResiliencePolicy policy = policyFor(entry.getProviderId());
+        Duration percentile = entry.getHealth().latencyPercentile(policy.getTimeoutPercentile());
+        if (percentile == null) {
+            return Duration.ofMillis(policy.getMaxTimeoutMillis());
+        }
+        long millis = (long) Math.ceil(percentile.toMillis() * policy.getTimeoutFactor());
+        millis = Math.min(policy.getMaxTimeoutMillis(), millis);
+        return Duration.ofMillis(Math.max(policy.getMinTimeoutMillis(), millis));
+    }
+
+    /**
+     * Checks whether a successful call was slow compared with the provider's usual latency.
+     *
+     * @param entry the registry entry of the provider
+     * @param latency the latency of the call
+     * @return true if the call took longer than the median latency times the slow call factor
+     */
+    public boolean isSlow(ProviderEntry entry, Duration latency) {
+        Duration median = entry.getHealth().latencyPercentile(0.5);
+        return median != null
+                && latency.toMillis()
+                        > median.toMillis() * policyFor(entry.getProviderId()).getSlowCallFactor();
+    }
+
+    private ResiliencePolicy configured(String providerId) {
+        ResiliencePolicy policy = new ResiliencePolicy();
+        policy.setTimeoutPercentile(setting(providerId, "timeout.percentile", Double.class, 0.99));
+        policy.setTimeoutFactor(setting(providerId, "timeout.factor", Double.class, 3.0));
+        policy.setMinTimeoutMillis(
+                setting(providerId, "timeout.min", Duration.class, Duration.ofSeconds(2))
+                        .toMillis());
+        policy.setMaxTimeoutMillis(
+                setting(providerId, "timeout.max", Duration.class, Duration.ofSeconds(180))
+                        .toMillis());
+        policy.setWindowSize(setting(providerId, "breaker.window", Integer.class, 20));
+        policy.setMinimumCalls(setting(providerId, "breaker.minimum-calls", Integer.class, 10));
+        policy.setFailureRatio(setting(providerId, "breaker.failure-ratio", Double.class, 0.5));
+        policy.setSlowCallFactor(
+                setting(providerId, "breaker.slow-call-factor", Double.class, 3.0));
+        policy.setSlowCallRatio(setting(providerId, "breaker.slow-call-ratio", Double.class, 0.5));
+        policy.setOpenDelayMillis(
+                setting(providerId, "breaker.delay", Duration.class, Duration.ofSeconds(5))
+                        .toMillis());
+        policy.setHalfOpenCalls(setting(providerId, "breaker.half-open-calls", Integer.class, 3));
+        validate(policy);
+        return policy;
+    }
+
+    private <T> T setting(String providerId, String key, Class<T> type, T defaultValue) {
+        return config.getOptionalValue(
+                        "podmortem.providers." + providerId + ".resilience." + key, type)
+                .or(() -> config.getOptionalValue("podmortem.resilience." + key, type))
+                .orElse(defaultValue);
+    }
+
+    private static void validate(ResiliencePolicy policy) {
+        requireRatio("timeoutPercentile", policy.getTimeoutPercentile());
+        requireRatio("failureRatio", policy.getFailureRatio());
+        requireRatio("slowCallRatio", policy.getSlowCallRatio());
+        if (policy.getTimeoutFactor() <= 0 || policy.getSlowCallFactor() <= 0) {
+            throw new IllegalArgumentException("timeoutFactor and slowCallFactor must be positive");
+        }
+        if (policy.getMinTimeoutMillis() <= 0
+                || policy.getMaxTimeoutMillis() < policy.getMinTimeoutMillis()) {
+            throw new IllegalArgumentException(
+                    "minTimeoutMillis must be positive and at most maxTimeoutMillis");
+        }
+        if (policy.getWindowSize() < 1
+                || policy.getMinimumCalls() < 1
+                || policy.getMinimumCalls() > policy.getWindowSize()) {
+            throw new IllegalArgumentException("minimumCalls must be between 1 and windowSize");
+        }
+        if (policy.getOpenDelayMillis() < 0 || policy.getHalfOpenCalls() < 1) {
+            throw new IllegalArgumentException(
+                    "openDelayMillis must not be negative and halfOpenCalls must be positive");
+        }
+    }
+
+    private static void requireRatio(String name, double value) {
+        if (value <= 0 || value > 1) {
+            throw new IllegalArgumentException(name + " must be in (0, 1]: " + value);
+        }
+    }
+}
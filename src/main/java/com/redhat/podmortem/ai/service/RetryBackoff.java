@@ -0,0 +1,101 @@
+package com.redhat.podmortem.ai.service;
+
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+
+/**
+ * Computes delays between retries of provider calls.
+ *
+ * <p>Delays grow exponentially with equal jitter, so retries of calls that failed together do not
+ * hit the provider again at the same moment. When the provider answered with a {@code Retry-After}
+ * header, the retry waits at least that long. Failures that retrying cannot fix are not retried:
+ * local rejections, an open circuit breaker, passed deadlines, unknown providers, and provider
+ * rejections asking to wait longer than the maximum delay.
+ */
+public final class RetryBackoff {
+
+    private RetryBackoff() {}
+
+    /**
+     * Computes the delay before a failed call is retried.
+     *
+     * @param retry the number of retries already made
+     * @param failure the failure of the last attempt
+     * @param baseDelay the delay before the first retry
+     * @param maxDelay the longest delay before a retry
+     * @return the delay, or null if the failure should not be retried
+     */
+    public static Duration nextDelay(
+            int retry, Throwable failure, Duration baseDelay, Duration maxDelay) {
+        if (failure instanceof ProviderOverloadedException
+                || failure instanceof CircuitBreakerOpenException
+                || failure instanceof DeadlineExceededException
+                || failure instanceof IllegalArgumentException) {
+            return null;
+        }
+
+        long base = baseDelay.toMillis();
+        long exponential = Math.min(maxDelay.toMillis(), base << Math.min(retry, 20));
+        long jittered = exponential / 2 + ThreadLocalRandom.current().nextLong(exponential / 2 + 1);
+
+        Duration retryAfter = retryAfter(failure);
+        if (retryAfter == null) {
+            return Duration.ofMillis(jittered);
+        }
+        if (retryAfter.compareTo(maxDelay) > 0) {
+            return null;
+        }
+        // spread the retries of callers rejected together over one base delay
+        long spread = ThreadLocalRandom.current().nextLong(base + 1);
+        return Duration.ofMillis(Math.max(retryAfter.toMillis() + spread, jittered));
+    }
+
+    /**
+     * Finds the {@code Retry-After} hint of a provider rejection in a failure or its causes.
+     *
+     * @param failure the failure of a provider call
+     * @return the requested delay, or null if the failure carries none
+     */
+    static Duration retryAfter(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof WebApplicationException rejection
+                    && rejection.getResponse() != null) {
+                Duration retryAfter = parse(rejection.getResponse());
+                if (retryAfter != null) {
+                    return retryAfter;
+                }
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    private static Duration parse(Response response) {
+        String value = response.getHeaderString(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        value = value.strip();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            // not delta-seconds, try an HTTP date
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+            Duration delay = Duration.between(ZonedDateTime.now(at.getZone()), at);
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
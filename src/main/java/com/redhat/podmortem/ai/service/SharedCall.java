@@ -0,0 +1,138 @@
+package com.redhat.podmortem.ai.service;
+
+import com.redhat.podmortem.common.model.provider.AIResponse;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.Cancellable;
+import java.time.Instant;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * A provider call shared by every concurrent analysis of the same failure.
+ *
+ * <p>The call is started by its first subscriber and its outcome is delivered to all of them.
+ * Callers that stop waiting, because their client disconnected or their deadline passed, leave the
+ * call; when the last caller leaves before the call has completed, the call is cancelled so no
+ * provider time is spent on a result nobody waits for. A call that has been abandoned this way
+ * cannot be joined again.
+ *
+ * <p>The deadline of the call is the latest deadline of the callers that joined it, or none if any
+ * of them waits indefinitely, so a caller with a short deadline never cuts the call short for the
+ * others.
+ *
+ * <p>A call that fails while it is being created, before it returns its Uni, fails the outcome for
+ * every caller, so callers that joined it see the same failure as the one that started it.
+ */
+final class SharedCall {
+
+    private final CompletableFuture<AIResponse> outcome = new CompletableFuture<>();
+    private final Function<SharedCall, Uni<AIResponse>> call;
+
+    private int callers;
+    private boolean started;
+    private boolean abandoned;
+    private boolean unbounded;
+    private Instant deadline;
+    private Cancellable upstream;
+
+    /**
+     * Creates a shared call.
+     *
+     * @param call creates the provider call, given this shared call to read its deadline from
+     */
+    SharedCall(Function<SharedCall, Uni<AIResponse>> call) {
+        this.call = call;
+    }
+
+    /**
+     * Joins the call on behalf of a caller, who must then subscribe to {@link #result()}.
+     *
+     * @param callerDeadline the deadline of the caller, or null if it waits indefinitely
+     * @return false if the call has been abandoned and a new one must be started
+     */
+    synchronized boolean join(Instant callerDeadline) {
+        if (abandoned) {
+            return false;
+        }
+        callers++;
+        if (callerDeadline == null) {
+            unbounded = true;
+        } else if (deadline == null || callerDeadline.isAfter(deadline)) {
+            deadline = callerDeadline;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the deadline of the call.
+     *
+     * @return the latest deadline of the callers, or null if one of them waits indefinitely
+     */
+    synchronized Instant getDeadline() {
+        return unbounded ? null : deadline;
+    }
+
+    /**
+     * Gets the outcome of the call for a caller that joined it.
+     *
+     * <p>Subscribing starts the call if it has not been started yet. Cancelling the subscription
+     * leaves the call.
+     *
+     * @return a Uni that emits the outcome of the call
+     */
+    Uni<AIResponse> result() {
+        return Uni.createFrom()
+                .emitter(
+                        emitter -> {
+                            emitter.onTermination(this::leave);
+                            start();
+                            outcome.whenComplete(
+                                    (response, failure) -> {
+                                        if (failure != null) {
+                                            emitter.fail(failure);
+                                        } else {
+                                            emitter.complete(response);
+                                        }
+                                    });
+                        });
+    }
+
+    private void start() {
+        synchronized (this) {
+            if (started) {
+                return;
+            }
+            started = true;
+        }
+        Cancellable subscription =
+                Uni.createFrom()
+                        .deferred(() -> call.apply(this))
+                        .subscribe()
+                        .with(outcome::complete, outcome::completeExceptionally);
+        boolean cancel;
+        synchronized (this) {
+            upstream = subscription;
+            cancel = abandoned;
+        }
+        if (cancel) {
+            subscription.cancel();
+        }
+    }
+
+    private void leave() {
+        Cancellable subscription;
+        synchronized (this) {
+            if (--callers > 0 || abandoned || outcome.isDone()) {
+                return;
+            }
+            abandoned = true;
+            subscription = upstream;
+        }
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        outcome.completeExceptionally(
+                new CancellationException("Every caller stopped waiting for the provider call"));
+    }
+}
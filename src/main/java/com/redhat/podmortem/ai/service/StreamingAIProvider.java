@@ -0,0 +1,26 @@
+package com.redhat.podmortem.ai.service;
+
+import com.redhat.podmortem.common.model.analysis.AnalysisResult;
+import com.redhat.podmortem.common.model.provider.AIProviderConfig;
+import io.smallrye.mutiny.Multi;
+
+/**
+ * Optional capability for AI providers that can stream their explanation as it is generated.
+ *
+ * <p>Implemented alongside {@code AIProvider} by providers whose backend supports token streaming.
+ * Providers without this capability are streamed as a single chunk once the full response is
+ * available. The providers of the ai-provider library do not implement it, so for them the
+ * streaming endpoint sends the whole explanation in one event and does not lower the time to first
+ * byte. Only the stub provider of the {@code loadtest} build profile implements it today.
+ */
+public interface StreamingAIProvider {
+
+    /**
+     * Streams the explanation of a pod failure as the provider generates it.
+     *
+     * @param analysisResult the log analysis results to explain
+     * @param providerConfig the AI provider configuration and parameters
+     * @return a Multi that emits explanation fragments in order
+     */
+    Multi<String> streamExplanation(AnalysisResult analysisResult, AIProviderConfig providerConfig);
+}
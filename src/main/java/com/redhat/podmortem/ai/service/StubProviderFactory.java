@@ -0,0 +1,230 @@
+package com.redhat.podmortem.ai.service;
+
+import com.redhat.podmortem.common.model.analysis.AnalysisResult;
+import com.redhat.podmortem.common.model.provider.AIProvider;
+import com.redhat.podmortem.common.model.provider.AIProviderConfig;
+import com.redhat.podmortem.common.model.provider.AIResponse;
+import com.redhat.podmortem.common.model.provider.ValidationResult;
+import io.quarkus.arc.profile.IfBuildProfile;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Produces a local stub AI provider for load testing.
+ *
+ * <p>The stub is only built into the application with the {@code loadtest} build profile, where it
+ * is discovered by the {@link ProviderRegistry} like any other provider. It answers without an LLM,
+ * with latencies drawn from a log-normal distribution given by its median and p99, and injects
+ * failures, {@code 429 Too Many Requests} rejections with a {@code Retry-After} header, and calls
+ * that never answer, at configurable rates. Streaming analyses emit the explanation word by word at
+ * a configurable rate.
+ *
+ * <p>The behavior of each call is drawn from a random generator seeded by {@code
+ * podmortem.stub.seed} and the analysis ID, so a load test replaying the same requests sees the
+ * same latencies and failures.
+ */
+@Singleton
+@IfBuildProfile("loadtest")
+public class StubProviderFactory {
+
+    private static final Logger LOG = Logger.getLogger(StubProviderFactory.class);
+
+    /** Standard normal quantile of the 99th percentile. */
+    private static final double Z_99 = 2.326;
+
+    private static final String EXPLANATION =
+            "The container was terminated with exit code 137 because its memory usage exceeded"
+                    + " the limit of the pod. The Java heap is sized from the node's memory instead of"
+                    + " the container limit, so the JVM grows past the cgroup limit under load. Set"
+                    + " -XX:MaxRAMPercentage or an explicit -Xmx below the container limit, or raise"
+                    + " the memory limit of the deployment.";
+
+    @ConfigProperty(name = "podmortem.stub.provider-id", defaultValue = "stub")
+    String providerId;
+
+    @ConfigProperty(name = "podmortem.stub.seed", defaultValue = "42")
+    long seed;
+
+    @ConfigProperty(name = "podmortem.stub.latency.median", defaultValue = "800ms")
+    Duration medianLatency;
+
+    @ConfigProperty(name = "podmortem.stub.latency.p99", defaultValue = "3s")
+    Duration p99Latency;
+
+    @ConfigProperty(name = "podmortem.stub.error-rate", defaultValue = "0")
+    double errorRate;
+
+    @ConfigProperty(name = "podmortem.stub.rate-limited-rate", defaultValue = "0")
+    double rateLimitedRate;
+
+    @ConfigProperty(name = "podmortem.stub.retry-after", defaultValue = "1s")
+    Duration retryAfter;
+
+    @ConfigProperty(name = "podmortem.stub.hang-rate", defaultValue = "0")
+    double hangRate;
+
+    @ConfigProperty(name = "podmortem.stub.stream.words-per-second", defaultValue = "40")
+    int wordsPerSecond;
+
+    /** Outcome of a single stub call. */
+    private enum Outcome {
+        SUCCESS,
+        ERROR,
+        RATE_LIMITED,
+        HANG
+    }
+
+    /**
+     * Creates the stub provider.
+     *
+     * <p>The stub is a dynamic proxy implementing both {@link AIProvider} and {@link
+     * StreamingAIProvider}. It is produced without a client proxy so the registry sees both.
+     *
+     * @return the stub provider
+     */
+    @Produces
+    @Singleton
+    AIProvider stubProvider() {
+        LOG.infof(
+                "Load test stub provider '%s': median latency %s, p99 %s, error rate %.3f,"
+                        + " rate limited rate %.3f, hang rate %.3f",
+                providerId, medianLatency, p99Latency, errorRate, rateLimitedRate, hangRate);
+        return (AIProvider)
+                Proxy.newProxyInstance(
+                        AIProvider.class.getClassLoader(),
+                        new Class<?>[] {AIProvider.class, StreamingAIProvider.class},
+                        (proxy, method, args) -> invoke(proxy, method, args));
+    }
+
+    private Object invoke(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "getProviderId" -> providerId;
+            case "generateExplanation" -> generate(
+                    (AnalysisResult) args[0], (AIProviderConfig) args[1]);
+            case "streamExplanation" -> stream((AnalysisResult) args[0]);
+            case "validateConfiguration" -> {
+                ValidationResult result = new ValidationResult();
+                result.setValid(true);
+                result.setProviderId(providerId);
+                result.setMessage("Load test stub provider");
+                yield Uni.createFrom().item(result);
+            }
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "StubAIProvider[" + providerId + "]";
+            default -> null;
+        };
+    }
+
+    private Uni<AIResponse> generate(
+            AnalysisResult analysisResult, AIProviderConfig providerConfig) {
+        SplittableRandom random = random(analysisResult);
+        Outcome outcome = outcome(random);
+        if (outcome == Outcome.HANG) {
+            return Uni.createFrom().nothing();
+        }
+
+        Duration latency = latency(random);
+        Uni<Void> delay = Uni.createFrom().voidItem().onItem().delayIt().by(latency);
+        return switch (outcome) {
+            case ERROR -> delay.onItem()
+                    .failWith(
+                            () ->
+                                    new IllegalStateException(
+                                            "Injected failure of stub provider " + providerId));
+            case RATE_LIMITED -> delay.onItem().failWith(this::rateLimited);
+            default -> delay.map(ignored -> response(analysisResult, providerConfig, latency));
+        };
+    }
+
+    private WebApplicationException rateLimited() {
+        Response response =
+                Response.status(Response.Status.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, Math.max(1, retryAfter.toSeconds()))
+                        .build();
+        return new WebApplicationException(
+                "Injected rate limit of stub provider " + providerId, response);
+    }
+
+    private Multi<String> stream(AnalysisResult analysisResult) {
+        SplittableRandom random = random(analysisResult);
+        Duration firstToken = latency(random);
+        String[] words = EXPLANATION.split(" ");
+        Duration interval = Duration.ofNanos(1_000_000_000L / Math.max(1, wordsPerSecond));
+        return Multi.createFrom()
+                .ticks()
+                .startingAfter(firstToken)
+                .every(interval)
+                .select()
+                .first(words.length)
+                .map(tick -> tick == 0 ? words[0] : " " + words[tick.intValue()]);
+    }
+
+    private AIResponse response(
+            AnalysisResult analysisResult, AIProviderConfig providerConfig, Duration latency) {
+        AIResponse response = new AIResponse();
+        response.setExplanation(EXPLANATION);
+        response.setProviderId(providerId);
+        response.setModelId(Objects.requireNonNullElse(providerConfig.getModelId(), "stub-model"));
+        response.setGeneratedAt(Instant.now());
+        response.setProcessingTime(latency);
+        response.setConfidence(0.9);
+
+        int events = analysisResult.getEvents() != null ? analysisResult.getEvents().size() : 0;
+        int promptTokens = 200 + events * 60;
+        int completionTokens = EXPLANATION.length() / 4;
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("promptTokens", promptTokens);
+        metadata.put("completionTokens", completionTokens);
+        metadata.put("totalTokens", promptTokens + completionTokens);
+        response.setMetadata(metadata);
+        return response;
+    }
+
+    private SplittableRandom random(AnalysisResult analysisResult) {
+        return new SplittableRandom(seed ^ Objects.hashCode(analysisResult.getAnalysisId()));
+    }
+
+    private Outcome outcome(SplittableRandom random) {
+        double draw = random.nextDouble();
+        if (draw < hangRate) {
+            return Outcome.HANG;
+        }
+        if (draw < hangRate + errorRate) {
+            return Outcome.ERROR;
+        }
+        if (draw < hangRate + errorRate + rateLimitedRate) {
+            return Outcome.RATE_LIMITED;
+        }
+        return Outcome.SUCCESS;
+    }
+
+    /** Draws a latency from the log-normal distribution with the configured median and p99. */
+    private Duration latency(SplittableRandom random) {
+        double mu = Math.log(Math.max(1, medianLatency.toNanos()));
+        double sigma = Math.max(0, (Math.log(Math.max(1, p99Latency.toNanos())) - mu) / Z_99);
+        return Duration.ofNanos((long) Math.exp(mu + sigma * gaussian(random)));
+    }
+
+    /** Draws a standard normal value with the Box-Muller transform. */
+    private static double gaussian(SplittableRandom random) {
+        double u = 1.0 - random.nextDouble();
+        double v = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u)) * Math.cos(2.0 * Math.PI * v);
+    }
+}
@@ -0,0 +1,43 @@
+package com.redhat.podmortem.ai.service;
+
+import java.util.List;
+
+/**
+ * Thrown when a request names an AI provider that is not registered.
+ *
+ * <p>Unknown provider IDs come from clients, so this exception is cheap to throw: its message is
+ * only built when it is read, and it carries no stack trace.
+ */
+public class UnknownProviderException extends IllegalArgumentException {
+
+    private final String providerId;
+    private final transient List<String> availableProviderIds;
+
+    /**
+     * Creates the exception for an unknown provider.
+     *
+     * @param providerId the requested provider ID
+     * @param availableProviderIds the IDs of the registered providers
+     */
+    public UnknownProviderException(String providerId, List<String> availableProviderIds) {
+        this.providerId = providerId;
+        this.availableProviderIds = availableProviderIds;
+    }
+
+    public String getProviderId() {
+        return providerId;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Unknown AI provider: "
+                + providerId
+                + ". Available providers: "
+                + availableProviderIds;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,110 @@
+package com.redhat.podmortem.ai.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Detects virtual threads pinned to their carrier thread.
+ *
+ * <p>A virtual thread that blocks inside a {@code synchronized} block or a native call keeps its
+ * carrier thread, so a provider doing so under load exhausts the small carrier pool and loses the
+ * benefit of {@link ExecutionMode#VIRTUAL_THREAD}. When any provider runs on virtual threads, this
+ * monitor streams the JFR {@code jdk.VirtualThreadPinned} event in process, counts pinning events
+ * and logs each distinct pinning location once.
+ */
+@ApplicationScoped
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger LOG = Logger.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_REPORTED_LOCATIONS = 100;
+
+    @Inject MeterRegistry meterRegistry;
+
+    @Inject ProviderRegistry providerRegistry;
+
+    @ConfigProperty(
+            name = "podmortem.virtual-threads.pinning-detection.enabled",
+            defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(
+            name = "podmortem.virtual-threads.pinning-detection.threshold",
+            defaultValue = "20ms")
+    Duration threshold;
+
+    private final Set<String> reportedLocations = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream stream;
+
+    private Counter pinned;
+
+    void start(@Observes StartupEvent event) {
+        if (!enabled || !providerRegistry.usesExecutionMode(ExecutionMode.VIRTUAL_THREAD)) {
+            return;
+        }
+        pinned =
+                Counter.builder("podmortem.virtual-threads.pinned")
+                        .description("Virtual threads pinned to their carrier thread")
+                        .register(meterRegistry);
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::onPinned);
+            stream.startAsync();
+            LOG.infof("Virtual thread pinning detection enabled (threshold %s)", threshold);
+        } catch (RuntimeException | LinkageError e) {
+            // JFR is not available in every runtime, e.g. native images built without it
+            LOG.warnf("Virtual thread pinning detection unavailable: %s", e.getMessage());
+            stream = null;
+        }
+    }
+
+    void stop(@Observes ShutdownEvent event) {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        String location = location(event);
+        if (reportedLocations.size() < MAX_REPORTED_LOCATIONS && reportedLocations.add(location)) {
+            LOG.warnf(
+                    "Virtual thread pinned to its carrier for %d ms at %s. Blocking inside"
+                            + " synchronized code limits concurrent provider calls",
+                    event.getDuration().toMillis(), location);
+        }
+    }
+
+    /** Finds the innermost application frame, skipping JDK frames. */
+    private static String location(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "unknown location";
+        }
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            if (frame.getMethod() == null || frame.getMethod().getType() == null) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return "JDK code";
+    }
+}
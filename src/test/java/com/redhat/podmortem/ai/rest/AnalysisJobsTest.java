@@ -0,0 +1,218 @@
+package com.redhat.podmortem.ai.rest;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import com.sun.net.httpserver.HttpServer;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import io.restassured.response.ExtractableResponse;
+import io.restassured.response.Response;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the asynchronous analysis job endpoints against the {@link GatedProviderFactory} stub.
+ *
+ * <p>The {@code test} profile limits the job pool to one running and one queued job, so a third job
+ * submitted while the provider is held back is rejected.
+ */
+@QuarkusTest
+class AnalysisJobsTest {
+
+    private static final String JOBS = "/api/v1/analysis/jobs";
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Test
+    void submitsAndPollsJob() {
+        ExtractableResponse<Response> submitted =
+                given().contentType(ContentType.JSON)
+                        .body(request("submit"))
+                        .when()
+                        .post(JOBS)
+                        .then()
+                        .statusCode(202)
+                        .body("id", notNullValue())
+                        .extract();
+        String jobId = submitted.path("id");
+        assertTrue(submitted.header("Location").endsWith(JOBS + "/" + jobId));
+
+        awaitStatus(jobId, "SUCCEEDED");
+
+        given().when()
+                .get(JOBS + "/" + jobId)
+                .then()
+                .statusCode(200)
+                .body("id", equalTo(jobId))
+                .body("response.providerId", equalTo(GatedProviderFactory.PROVIDER_ID))
+                .body("response.explanation", notNullValue());
+    }
+
+    @Test
+    void unknownJobIsNotFound() {
+        given().when().get(JOBS + "/no-such-job").then().statusCode(404);
+    }
+
+    @Test
+    void rejectsJobsWhenQueueIsFull() {
+        GatedProviderFactory.close();
+        try {
+            String running = submit(request("queue-full"));
+            String queued = submit(request("queue-full"));
+
+            given().contentType(ContentType.JSON)
+                    .body(request("queue-full"))
+                    .when()
+                    .post(JOBS)
+                    .then()
+                    .statusCode(429)
+                    .header("Retry-After", equalTo("5"));
+
+            GatedProviderFactory.open();
+            awaitStatus(running, "SUCCEEDED");
+            awaitStatus(queued, "SUCCEEDED");
+        } finally {
+            GatedProviderFactory.open();
+        }
+    }
+
+    @Test
+    void postsFinishedJobToCallback() throws Exception {
+        CompletableFuture<String> received = new CompletableFuture<>();
+        HttpServer server =
+                HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(
+                "/callback",
+                exchange -> {
+                    try (InputStream body = exchange.getRequestBody()) {
+                        received.complete(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+                    }
+                    exchange.sendResponseHeaders(204, -1);
+                    exchange.close();
+                });
+        server.start();
+        try {
+            String callbackUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/callback";
+            String jobId =
+                    given().contentType(ContentType.JSON)
+                            .queryParam("callbackUrl", callbackUrl)
+                            .body(request("callback"))
+                            .when()
+                            .post(JOBS)
+                            .then()
+                            .statusCode(202)
+                            .body("callbackUrl", equalTo(callbackUrl))
+                            .extract()
+                            .path("id");
+
+            JsonPath job = JsonPath.from(received.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+            assertEquals(jobId, job.getString("id"));
+            assertEquals("SUCCEEDED", job.getString("status"));
+            assertEquals(GatedProviderFactory.PROVIDER_ID, job.getString("response.providerId"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void rejectsCallbackToHostNotAllowed() {
+        given().contentType(ContentType.JSON)
+                .queryParam("callbackUrl", "http://metadata.internal/latest")
+                .body(request("not-allowed"))
+                .when()
+                .post(JOBS)
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void rejectsCallbackThatIsNotHttp() {
+        given().contentType(ContentType.JSON)
+                .queryParam("callbackUrl", "file:///etc/passwd")
+                .body(request("not-http"))
+                .when()
+                .post(JOBS)
+                .then()
+                .statusCode(400);
+    }
+
+    private static String submit(String request) {
+        return given().contentType(ContentType.JSON)
+                .body(request)
+                .when()
+                .post(JOBS)
+                .then()
+                .statusCode(202)
+                .extract()
+                .path("id");
+    }
+
+    private static void awaitStatus(String jobId, String status) {
+        Instant deadline = Instant.now().plus(TIMEOUT);
+        String current = null;
+        while (Instant.now().isBefore(deadline)) {
+            current = given().when().get(JOBS + "/" + jobId).then().extract().path("status");
+            if (status.equals(current)) {
+                return;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        fail("Job " + jobId + " did not reach " + status + ", last status " + current);
+    }
+
+    /**
+     * Builds an analysis request for the stub provider.
+     *
+     * @param patternId the matched pattern ID, distinct per test so responses are not shared
+     *     through the response cache
+     * @return the request as JSON
+     */
+    static String request(String patternId) {
+        return """
+                {
+                  "analysisResult": {
+                    "analysisId": "%1$s",
+                    "events": [
+                      {
+                        "lineNumber": 42,
+                        "score": 90.0,
+                        "matchedPattern": {
+                          "id": "%1$s",
+                          "name": "%1$s",
+                          "severity": "CRITICAL"
+                        },
+                        "context": {
+                          "matchedLine": "java.lang.OutOfMemoryError: Java heap space",
+                          "linesBefore": [],
+                          "linesAfter": []
+                        }
+                      }
+                    ]
+                  },
+                  "providerConfig": {
+                    "providerId": "%2$s",
+                    "modelId": "test-model"
+                  }
+                }
+                """
+                .formatted(patternId, GatedProviderFactory.PROVIDER_ID);
+    }
+}
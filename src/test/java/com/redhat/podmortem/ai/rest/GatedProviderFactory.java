@@ -0,0 +1,74 @@
+package com.redhat.podmortem.ai.rest;
+
+import com.redhat.podmortem.common.model.provider.AIProvider;
+import com.redhat.podmortem.common.model.provider.AIResponse;
+import com.redhat.podmortem.common.model.provider.ValidationResult;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Produces a stub AI provider for tests whose answers can be held back.
+ *
+ * <p>Calls answer once the current gate completes. The gate is open by default; tests that need
+ * calls to stay in flight {@link #close() close} it and {@link #open() open} it again when done.
+ */
+@Singleton
+public class GatedProviderFactory {
+
+    /** Provider ID of the stub provider. */
+    public static final String PROVIDER_ID = "test-stub";
+
+    private static volatile CompletableFuture<Void> gate = CompletableFuture.completedFuture(null);
+
+    /** Holds back the answers of calls made from now on until {@link #open()} is called. */
+    public static void close() {
+        gate = new CompletableFuture<>();
+    }
+
+    /** Releases the held back calls and lets new calls answer right away. */
+    public static void open() {
+        gate.complete(null);
+    }
+
+    @Produces
+    @Singleton
+    AIProvider gatedProvider() {
+        return (AIProvider)
+                Proxy.newProxyInstance(
+                        AIProvider.class.getClassLoader(),
+                        new Class<?>[] {AIProvider.class},
+                        (proxy, method, args) ->
+                                switch (method.getName()) {
+                                    case "getProviderId" -> PROVIDER_ID;
+                                    case "generateExplanation" -> Uni.createFrom()
+                                            .completionStage(gate)
+                                            .map(ignored -> response());
+                                    case "validateConfiguration" -> {
+                                        ValidationResult result = new ValidationResult();
+                                        result.setValid(true);
+                                        result.setProviderId(PROVIDER_ID);
+                                        yield Uni.createFrom().item(result);
+                                    }
+                                    case "hashCode" -> System.identityHashCode(proxy);
+                                    case "equals" -> proxy == args[0];
+                                    case "toString" -> "GatedAIProvider[" + PROVIDER_ID + "]";
+                                    default -> null;
+                                });
+    }
+
+    private static AIResponse response() {
+        AIResponse response = new AIResponse();
+        response.setExplanation("The pod was OOM-killed.");
+        response.setProviderId(PROVIDER_ID);
+        response.setModelId("test-model");
+        response.setGeneratedAt(Instant.now());
+        response.setProcessingTime(Duration.ZERO);
+        response.setConfidence(0.9);
+        return response;
+    }
+}
@@ -0,0 +1,74 @@
+package com.redhat.podmortem.ai.rest;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests compressed request bodies against the {@link GatedProviderFactory} stub.
+ *
+ * <p>The {@code test} profile limits decompressed bodies to 64 KiB.
+ */
+@QuarkusTest
+class RequestDecompressionTest {
+
+    private static final String ANALYZE = "/api/v1/analysis/analyze";
+
+    @Test
+    void decompressesGzipRequest() {
+        given().contentType(ContentType.JSON)
+                .header("Content-Encoding", "gzip")
+                .body(gzip(AnalysisJobsTest.request("gzip-request")))
+                .when()
+                .post(ANALYZE)
+                .then()
+                .statusCode(200)
+                .body("providerId", equalTo(GatedProviderFactory.PROVIDER_ID))
+                .body("explanation", notNullValue());
+    }
+
+    @Test
+    void rejectsGzipRequestDecompressingBeyondLimit() {
+        // whitespace compresses well, so the compressed body stays small
+        String padded = " ".repeat(128 * 1024) + AnalysisJobsTest.request("gzip-oversized");
+
+        given().contentType(ContentType.JSON)
+                .header("Content-Encoding", "gzip")
+                .body(gzip(padded))
+                .when()
+                .post(ANALYZE)
+                .then()
+                .statusCode(413)
+                .body("status", equalTo("error"));
+    }
+
+    @Test
+    void rejectsUnsupportedContentEncoding() {
+        given().contentType(ContentType.JSON)
+                .header("Content-Encoding", "br")
+                .body(AnalysisJobsTest.request("unsupported-encoding"))
+                .when()
+                .post(ANALYZE)
+                .then()
+                .statusCode(415);
+    }
+
+    private static byte[] gzip(String body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,257 @@
+package com.redhat.podmortem.ai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.podmortem.common.model.analysis.AnalysisResult;
+import com.redhat.podmortem.common.model.provider.AIProviderConfig;
+import com.redhat.podmortem.common.model.provider.AIResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies the metrics of the analysis pipeline against the application's meter registry.
+ *
+ * <p>Calls go to the {@link ScriptedProviderFactory} stub. Meters are shared with the other tests
+ * of the application, so each test asserts how much its own analysis changed them.
+ */
+@QuarkusTest
+class AnalysisMetricsTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Inject AnalysisService analysisService;
+
+    @Inject MeterRegistry meterRegistry;
+
+    @Inject ObjectMapper objectMapper;
+
+    @AfterEach
+    void resetProvider() {
+        ScriptedProviderFactory.reset();
+    }
+
+    @Test
+    void recordsStagesAndTokensOfSuccessfulAnalysis() {
+        ScriptedProviderFactory.answer(
+                () ->
+                        Uni.createFrom()
+                                .item(
+                                        ScriptedProviderFactory.response(
+                                                Map.of(
+                                                        "promptTokens", 120,
+                                                        "completionTokens", 30,
+                                                        "totalTokens", 150))));
+        Snapshot before = new Snapshot();
+
+        analysisService.analyze(analysisResult(), config()).await().atMost(TIMEOUT);
+
+        Snapshot after = new Snapshot();
+        assertEquals(1, after.duration("success", "miss") - before.duration("success", "miss"));
+        assertEquals(1, after.rateLimitWait - before.rateLimitWait);
+        assertEquals(1, after.queueWait - before.queueWait);
+        assertEquals(1, after.providerCalls("success") - before.providerCalls("success"));
+        assertTrue(after.enrichments > before.enrichments);
+        assertEquals(120, after.tokens("prompt") - before.tokens("prompt"));
+        assertEquals(30, after.tokens("completion") - before.tokens("completion"));
+        assertEquals(150, after.tokens("total") - before.tokens("total"));
+        assertEquals(before.retries, after.retries);
+        assertEquals(before.fallbacks, after.fallbacks);
+        assertEquals(before.coalesced, after.coalesced);
+    }
+
+    @Test
+    void recordsRetryAndFailureOfFailedAnalysis() {
+        ScriptedProviderFactory.answer(
+                () -> Uni.createFrom().failure(new IllegalStateException("provider down")));
+        Snapshot before = new Snapshot();
+
+        assertThrows(
+                IllegalStateException.class,
+                () -> analysisService.analyze(analysisResult(), config()).await().atMost(TIMEOUT));
+
+        Snapshot after = new Snapshot();
+        // the test profile allows a single retry
+        assertEquals(1, after.retries - before.retries);
+        assertEquals(1, after.duration("failure", "miss") - before.duration("failure", "miss"));
+        assertEquals(2, after.providerCalls("failure") - before.providerCalls("failure"));
+        assertEquals(before.providerCalls("success"), after.providerCalls("success"));
+        assertEquals(before.tokens("total"), after.tokens("total"));
+        assertEquals(before.fallbacks, after.fallbacks);
+    }
+
+    @Test
+    void fallsBackWhenProviderTimesOut() {
+        ScriptedProviderFactory.answer(() -> Uni.createFrom().nothing());
+        Snapshot before = new Snapshot();
+
+        AIResponse response =
+                analysisService.analyze(analysisResult(), config()).await().atMost(TIMEOUT);
+
+        Snapshot after = new Snapshot();
+        assertEquals("fallback", response.getProviderId());
+        assertEquals(1, after.fallbacks - before.fallbacks);
+        // the test profile allows a single retry of the timed out call
+        assertEquals(2, after.providerCalls("failure") - before.providerCalls("failure"));
+        assertEquals(before.providerCalls("success"), after.providerCalls("success"));
+    }
+
+    @Test
+    void recordsCoalescedAnalyses() {
+        CompletableFuture<AIResponse> gate = new CompletableFuture<>();
+        ScriptedProviderFactory.answer(() -> Uni.createFrom().completionStage(gate));
+        AnalysisResult analysisResult = analysisResult();
+        Snapshot before = new Snapshot();
+
+        CompletableFuture<AIResponse> first =
+                analysisService.analyze(analysisResult, config()).subscribeAsCompletionStage();
+        CompletableFuture<AIResponse> second =
+                analysisService.analyze(analysisResult, config()).subscribeAsCompletionStage();
+        gate.complete(ScriptedProviderFactory.response(Map.of()));
+        first.join();
+        second.join();
+
+        Snapshot after = new Snapshot();
+        assertEquals(1, after.coalesced - before.coalesced);
+        assertEquals(1, after.providerCalls("success") - before.providerCalls("success"));
+        assertEquals(1, after.duration("success", "miss") - before.duration("success", "miss"));
+        assertEquals(
+                1,
+                after.duration("success", "coalesced") - before.duration("success", "coalesced"));
+    }
+
+    @Test
+    void tagsUnregisteredProviderAsUnknown() {
+        AIProviderConfig config = new AIProviderConfig();
+        config.setProviderId("not-registered-" + UUID.randomUUID());
+        config.setModelId("any-model");
+        long before = unknownDurations();
+
+        assertThrows(
+                UnknownProviderException.class,
+                () -> analysisService.analyze(analysisResult(), config).await().atMost(TIMEOUT));
+
+        assertEquals(1, unknownDurations() - before);
+    }
+
+    private long unknownDurations() {
+        return meterRegistry
+                .find("podmortem.analysis.duration")
+                .tags("provider", AnalysisTelemetry.UNKNOWN, "model", AnalysisTelemetry.UNKNOWN)
+                .timers()
+                .stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+
+    private static AIProviderConfig config() {
+        AIProviderConfig config = new AIProviderConfig();
+        config.setProviderId(ScriptedProviderFactory.PROVIDER_ID);
+        config.setModelId(ScriptedProviderFactory.MODEL_ID);
+        return config;
+    }
+
+    /**
+     * Builds an analysis result with a single event whose pattern is unique, so the analysis is
+     * never answered from the response cache or the explanation store.
+     */
+    private AnalysisResult analysisResult() {
+        String patternId = "metrics-" + UUID.randomUUID();
+        Map<String, Object> event =
+                Map.of(
+                        "lineNumber",
+                        42,
+                        "score",
+                        90.0,
+                        "matchedPattern",
+                        Map.of("id", patternId, "name", patternId, "severity", "CRITICAL"),
+                        "context",
+                        Map.of(
+                                "matchedLine",
+                                "java.lang.OutOfMemoryError: Java heap space " + patternId,
+                                "linesBefore",
+                                List.of(),
+                                "linesAfter",
+                                List.of()));
+        return objectMapper.convertValue(
+                Map.of("analysisId", patternId, "events", List.of(event)), AnalysisResult.class);
+    }
+
+    /** The meters of the scripted provider at one point in time. */
+    private final class Snapshot {
+
+        final long rateLimitWait = timers("podmortem.analysis.rate-limit.wait", "success");
+        final long queueWait = timers("podmortem.analysis.queue.wait", "success");
+        final long enrichments = timers("podmortem.analysis.enrichment", "success");
+        final double retries = counters("podmortem.analysis.retries");
+        final double fallbacks = counters("podmortem.analysis.fallbacks");
+        final double coalesced = counters("podmortem.analysis.coalesced");
+
+        long duration(String outcome, String cache) {
+            return meterRegistry
+                    .find("podmortem.analysis.duration")
+                    .tags(providerTags())
+                    .tags("outcome", outcome, "cache", cache)
+                    .timers()
+                    .stream()
+                    .mapToLong(Timer::count)
+                    .sum();
+        }
+
+        long providerCalls(String outcome) {
+            return timers("podmortem.analysis.provider.call", outcome);
+        }
+
+        double tokens(String type) {
+            return meterRegistry
+                    .find("podmortem.analysis.tokens")
+                    .tags(providerTags())
+                    .tag("type", type)
+                    .counters()
+                    .stream()
+                    .mapToDouble(Counter::count)
+                    .sum();
+        }
+
+        private long timers(String name, String outcome) {
+            return meterRegistry
+                    .find(name)
+                    .tags(providerTags())
+                    .tag("outcome", outcome)
+                    .timers()
+                    .stream()
+                    .mapToLong(Timer::count)
+                    .sum();
+        }
+
+        private double counters(String name) {
+            return meterRegistry
+                    .find(name)
+                    .tag("provider", ScriptedProviderFactory.PROVIDER_ID)
+                    .counters()
+                    .stream()
+                    .mapToDouble(Counter::count)
+                    .sum();
+        }
+
+        private String[] providerTags() {
+            return new String[] {
+                "provider", ScriptedProviderFactory.PROVIDER_ID,
+                "model", ScriptedProviderFactory.MODEL_ID
+            };
+        }
+    }
+}
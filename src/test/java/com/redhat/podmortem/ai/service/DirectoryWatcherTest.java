@@ -0,0 +1,57 @@
+package com.redhat.podmortem.ai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Verifies that a burst of changes in a watched directory triggers a single reload. */
+class DirectoryWatcherTest {
+
+    private static final Duration DELAY = Duration.ofMillis(300);
+
+    @TempDir Path directory;
+
+    @Test
+    void reloadsOnceAfterBurstOfChanges() throws IOException, InterruptedException {
+        Semaphore reloads = new Semaphore(0);
+        DirectoryWatcher watcher =
+                new DirectoryWatcher("test directory", directory, DELAY, reloads::release);
+        assertTrue(watcher.start());
+        try {
+            // a ConfigMap update creates, swaps and removes several entries at once
+            Files.writeString(directory.resolve("first.txt"), "first");
+            Files.writeString(directory.resolve("second.txt"), "second");
+            Files.delete(directory.resolve("first.txt"));
+
+            assertTrue(reloads.tryAcquire(10, TimeUnit.SECONDS));
+            assertFalse(
+                    reloads.tryAcquire(DELAY.multipliedBy(3).toMillis(), TimeUnit.MILLISECONDS));
+
+            Files.writeString(directory.resolve("second.txt"), "changed");
+            assertTrue(reloads.tryAcquire(10, TimeUnit.SECONDS));
+        } finally {
+            watcher.close();
+        }
+        assertFalse(watcher.isWatching());
+        assertEquals(0, reloads.availablePermits());
+    }
+
+    @Test
+    void doesNotWatchMissingDirectory() {
+        DirectoryWatcher watcher =
+                new DirectoryWatcher(
+                        "test directory", directory.resolve("missing"), DELAY, () -> {});
+
+        assertFalse(watcher.start());
+        assertFalse(watcher.isWatching());
+    }
+}
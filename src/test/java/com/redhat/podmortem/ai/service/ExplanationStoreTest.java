@@ -0,0 +1,227 @@
+package com.redhat.podmortem.ai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.podmortem.common.model.analysis.AnalysisResult;
+import com.redhat.podmortem.common.model.provider.AIProviderConfig;
+import com.redhat.podmortem.common.model.provider.AIResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.runtime.configuration.MemorySize;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Verifies that the explanation store survives restarts, torn writes and compaction, and matches
+ * similar failures against its threshold.
+ *
+ * <p>Each test closes a store to wait for its background writer before reopening the same file.
+ */
+class ExplanationStoreTest {
+
+    private static final long MAX_SIZE = 64 * 1024;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @TempDir Path directory;
+
+    @Test
+    void reloadsExplanationsAfterRestart() {
+        ExplanationStore store = open(MAX_SIZE);
+        store.store("first", analysisResult("a", 3), config(), response("first explanation"));
+        store.store("second", analysisResult("b", 3), config(), response("second explanation"));
+        store.close();
+
+        ExplanationStore reopened = open(MAX_SIZE);
+
+        assertEquals(2, reopened.size());
+        AIResponse found = reopened.find("second", analysisResult("b", 3), config()).orElseThrow();
+        assertEquals("second explanation", found.getExplanation());
+        assertEquals("exact", found.getMetadata().get("storeMatch"));
+    }
+
+    @Test
+    void ignoresTornTailRecord() throws IOException {
+        ExplanationStore store = open(MAX_SIZE);
+        store.store("intact", analysisResult("a", 3), config(), response("intact explanation"));
+        store.store("torn", analysisResult("b", 3), config(), response("torn explanation"));
+        store.close();
+        corruptLastRecord();
+
+        ExplanationStore reopened = open(MAX_SIZE);
+        assertEquals(1, reopened.size());
+        assertTrue(reopened.contains("intact"));
+        assertFalse(reopened.contains("torn"));
+
+        // the next record is appended over the torn one and read back after another restart
+        reopened.store("next", analysisResult("c", 3), config(), response("next explanation"));
+        reopened.close();
+        ExplanationStore restarted = open(MAX_SIZE);
+        assertEquals(2, restarted.size());
+        assertTrue(restarted.contains("intact"));
+        assertTrue(restarted.contains("next"));
+    }
+
+    @Test
+    void laterExplanationSupersedesEarlierOne() {
+        ExplanationStore store = open(MAX_SIZE);
+        store.store("same", analysisResult("a", 3), config(), response("old explanation"));
+        store.store("same", analysisResult("a", 3), config(), response("new explanation"));
+        store.close();
+
+        assertEquals(1, store.size());
+        assertEquals("new explanation", explanation(store, "same"));
+
+        ExplanationStore reopened = open(MAX_SIZE);
+        assertEquals(1, reopened.size());
+        assertEquals("new explanation", explanation(reopened, "same"));
+    }
+
+    @Test
+    void compactsUnderCapEvictingOldestExplanations() {
+        int stored = 100;
+        ExplanationStore store = open(16 * 1024);
+        for (int i = 0; i < stored; i++) {
+            String id = Integer.toString(i);
+            store.store(id, analysisResult(id, 1), config(), response("explanation " + id));
+        }
+        store.close();
+
+        assertTrue(meterRegistry.counter("podmortem.store.compactions").count() >= 1);
+        assertTrue(store.size() < stored);
+        assertEquals(
+                stored - store.size(),
+                (int) meterRegistry.counter("podmortem.store.evicted").count());
+        assertFalse(store.contains("0"));
+        assertTrue(store.contains(Integer.toString(stored - 1)));
+
+        ExplanationStore reopened = open(16 * 1024);
+        assertEquals(store.size(), reopened.size());
+        assertEquals(
+                "explanation " + (stored - 1), explanation(reopened, Integer.toString(stored - 1)));
+    }
+
+    @Test
+    void matchesSimilarFailureOnlyFromThreshold() {
+        AnalysisResult stored = analysisResult("shared", 20);
+        AnalysisResult similar = analysisResult("shared", 19);
+        similar.getEvents().addAll(analysisResult("other", 1).getEvents());
+        double similarity =
+                ExplanationStore.similarity(
+                        ExplanationStore.signature(AnalysisFingerprint.eventSignatures(stored)),
+                        ExplanationStore.signature(AnalysisFingerprint.eventSignatures(similar)));
+        assertTrue(similarity > 0.5 && similarity < 1.0);
+
+        ExplanationStore store = open(MAX_SIZE);
+        store.store("stored", stored, config(), response("stored explanation"));
+        store.close();
+
+        ExplanationStore reopened = open(MAX_SIZE);
+        reopened.similarityThreshold = similarity + 1.0 / 64;
+        assertTrue(reopened.find("similar", similar, config()).isEmpty());
+
+        reopened.similarityThreshold = similarity;
+        AIResponse found = reopened.find("similar", similar, config()).orElseThrow();
+        assertEquals("stored explanation", found.getExplanation());
+        assertEquals("similar", found.getMetadata().get("storeMatch"));
+        assertEquals(similarity, (double) found.getMetadata().get("storeSimilarity"));
+
+        AIProviderConfig otherModel = config();
+        otherModel.setModelId("other-model");
+        assertTrue(reopened.find("similar", similar, otherModel).isEmpty());
+    }
+
+    private ExplanationStore open(long maxSize) {
+        ExplanationStore store = new ExplanationStore();
+        store.objectMapper = objectMapper;
+        store.meterRegistry = meterRegistry;
+        store.enabled = true;
+        store.path = directory.resolve("explanations.store");
+        store.maxSize = new MemorySize(BigInteger.valueOf(maxSize));
+        store.similarityThreshold = 0.8;
+        store.initialize();
+        return store;
+    }
+
+    private String explanation(ExplanationStore store, String fingerprint) {
+        Optional<AIResponse> found =
+                store.find(fingerprint, analysisResult(fingerprint, 1), config());
+        return found.map(AIResponse::getExplanation).orElse(null);
+    }
+
+    /** Flips a byte in the payload of the last record, as if its write had been torn. */
+    private void corruptLastRecord() throws IOException {
+        try (RandomAccessFile file =
+                new RandomAccessFile(directory.resolve("explanations.store").toFile(), "rw")) {
+            long last = 8;
+            long next = last;
+            while (true) {
+                file.seek(next);
+                int length = file.readInt();
+                if (length <= 0) {
+                    break;
+                }
+                last = next;
+                next += 8 + length;
+            }
+            long target = last + 8 + 1;
+            file.seek(target);
+            int value = file.read();
+            file.seek(target);
+            file.write(value ^ 0xff);
+        }
+    }
+
+    private static AIProviderConfig config() {
+        AIProviderConfig config = new AIProviderConfig();
+        config.setProviderId("store-test");
+        config.setModelId("store-model");
+        return config;
+    }
+
+    private static AIResponse response(String explanation) {
+        AIResponse response = new AIResponse();
+        response.setExplanation(explanation);
+        response.setProviderId("store-test");
+        response.setModelId("store-model");
+        return response;
+    }
+
+    /** Builds an analysis result with events whose patterns are named after a prefix. */
+    private AnalysisResult analysisResult(String prefix, int events) {
+        List<Map<String, Object>> matched = new ArrayList<>();
+        for (int i = 0; i < events; i++) {
+            String patternId = prefix + "-pattern-" + i;
+            matched.add(
+                    Map.of(
+                            "lineNumber",
+                            i,
+                            "score",
+                            90.0,
+                            "matchedPattern",
+                            Map.of("id", patternId, "name", patternId, "severity", "HIGH"),
+                            "context",
+                            Map.of(
+                                    "matchedLine",
+                                    "java.lang.IllegalStateException: " + patternId,
+                                    "linesBefore",
+                                    List.of(),
+                                    "linesAfter",
+                                    List.of())));
+        }
+        return objectMapper.convertValue(
+                Map.of("analysisId", prefix, "events", matched), AnalysisResult.class);
+    }
+}
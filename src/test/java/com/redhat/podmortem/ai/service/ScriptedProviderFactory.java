@@ -0,0 +1,93 @@
+package com.redhat.podmortem.ai.service;
+
+import com.redhat.podmortem.common.model.provider.AIProvider;
+import com.redhat.podmortem.common.model.provider.AIResponse;
+import com.redhat.podmortem.common.model.provider.ValidationResult;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Produces a stub AI provider for tests whose answer each test scripts.
+ *
+ * <p>The provider answers with a plain response until a test sets another answer with {@link
+ * #answer(Supplier)}. Its resilience policy is overridden in the {@code test} profile with a short
+ * timeout, so calls that never answer fail quickly.
+ */
+@Singleton
+public class ScriptedProviderFactory {
+
+    /** Provider ID of the scripted provider. */
+    public static final String PROVIDER_ID = "scripted";
+
+    /** Model ID answered by the scripted provider. */
+    public static final String MODEL_ID = "scripted-model";
+
+    private static volatile Supplier<Uni<AIResponse>> answer = defaultAnswer();
+
+    /**
+     * Sets how the provider answers calls made from now on.
+     *
+     * @param next supplies the outcome of each call
+     */
+    public static void answer(Supplier<Uni<AIResponse>> next) {
+        answer = next;
+    }
+
+    /** Restores the default answer. */
+    public static void reset() {
+        answer = defaultAnswer();
+    }
+
+    /**
+     * Creates a response of the scripted provider.
+     *
+     * @param metadata the response metadata, such as reported token usage
+     * @return the response
+     */
+    public static AIResponse response(Map<String, Object> metadata) {
+        AIResponse response = new AIResponse();
+        response.setExplanation("The pod was OOM-killed.");
+        response.setProviderId(PROVIDER_ID);
+        response.setModelId(MODEL_ID);
+        response.setGeneratedAt(Instant.now());
+        response.setProcessingTime(Duration.ZERO);
+        response.setConfidence(0.9);
+        response.setMetadata(new HashMap<>(metadata));
+        return response;
+    }
+
+    private static Supplier<Uni<AIResponse>> defaultAnswer() {
+        return () -> Uni.createFrom().item(response(Map.of()));
+    }
+
+    @Produces
+    @Singleton
+    AIProvider scriptedProvider() {
+        return (AIProvider)
+                Proxy.newProxyInstance(
+                        AIProvider.class.getClassLoader(),
+                        new Class<?>[] {AIProvider.class},
+                        (proxy, method, args) ->
+                                switch (method.getName()) {
+                                    case "getProviderId" -> PROVIDER_ID;
+                                    case "generateExplanation" -> answer.get();
+                                    case "validateConfiguration" -> {
+                                        ValidationResult result = new ValidationResult();
+                                        result.setValid(true);
+                                        result.setProviderId(PROVIDER_ID);
+                                        yield Uni.createFrom().item(result);
+                                    }
+                                    case "hashCode" -> System.identityHashCode(proxy);
+                                    case "equals" -> proxy == args[0];
+                                    case "toString" -> "ScriptedAIProvider[" + PROVIDER_ID + "]";
+                                    default -> null;
+                                });
+    }
+}